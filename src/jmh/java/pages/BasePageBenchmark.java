@@ -0,0 +1,62 @@
+package pages;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openqa.selenium.WebDriver;
+import utils.CommandTimer;
+import utils.FakeWebDriver;
+
+import java.util.concurrent.TimeUnit;
+
+// Surcoût du framework par action de BasePage, sans navigateur ni latence: tout le temps mesuré est
+// du code Java (attentes, listener CommandTimer, auto-réparation). instrumente=false isole le coût du listener.
+// Lancement: mvn -P benchmarks test-compile exec:exec -Dbench.main=pages.BasePageBenchmark
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BasePageBenchmark {
+
+    @Param({"true", "false"})
+    public boolean instrumente;
+
+    private PageFactice page;
+
+    @Setup(Level.Trial)
+    public void preparer() {
+        FakeWebDriver faux = PageFactice.declarer(new FakeWebDriver(0), 0);
+        WebDriver driver = instrumente ? CommandTimer.instrumenter(faux) : faux;
+        page = new PageFactice(driver);
+    }
+
+    @Benchmark
+    public void click() {
+        page.cliquer();
+    }
+
+    @Benchmark
+    public void sendKeys() {
+        page.saisir("Paris");
+    }
+
+    @Benchmark
+    public void waitForElementVisible(Blackhole trou) {
+        trou.consume(page.attendreTitre());
+    }
+
+    @Benchmark
+    public void waitIsElementVisibleAndClick() {
+        page.cliquerAvecRepli();
+    }
+
+    @Benchmark
+    public void selectByVisibleText() {
+        page.choisir("Paris");
+    }
+
+    public static void main(String[] args) throws Exception {
+        org.openjdk.jmh.Main.main(new String[]{BasePageBenchmark.class.getSimpleName()});
+    }
+}
@@ -0,0 +1,53 @@
+package pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import utils.FakeWebDriver;
+
+import java.util.Arrays;
+
+// Page de banc d'essai: expose les actions de BasePage sur une page déclarée dans un FakeWebDriver
+public class PageFactice extends BasePage {
+    public static final By BOUTON = By.id("rechercher");
+    public static final By CHAMP = By.cssSelector("input[name='localisation']");
+    public static final By TITRE = By.xpath("//h1[contains(.,'Coiffeurs')]");
+    public static final By OPTIONS = By.cssSelector("select#ville option");
+
+    public PageFactice(WebDriver driver) {
+        super(driver);
+    }
+
+    // Éléments de la page factice; apparitionMs simule un rendu asynchrone après chargement
+    public static FakeWebDriver declarer(FakeWebDriver driver, long apparitionMs) {
+        return driver
+                .declarer(BOUTON, "button", "Rechercher", apparitionMs)
+                .declarer(CHAMP, "input", "", apparitionMs)
+                .declarer(TITRE, "h1", "Coiffeurs à Paris", apparitionMs)
+                .declarerListe(OPTIONS, "option", Arrays.asList("Lyon", "Marseille", "Paris"), apparitionMs);
+    }
+
+    public void cliquer() {
+        click(BOUTON);
+    }
+
+    public void saisir(String texte) {
+        sendKeys(CHAMP, texte);
+    }
+
+    public WebElement attendreTitre() {
+        return waitForElementVisible(TITRE);
+    }
+
+    public boolean titreAffiche() {
+        return isDisplayed(TITRE);
+    }
+
+    public void cliquerAvecRepli() {
+        waitIsElementVisibleAndClick(BOUTON, "bouton rechercher");
+    }
+
+    public void choisir(String ville) {
+        selectByVisibleText(OPTIONS, ville);
+    }
+}
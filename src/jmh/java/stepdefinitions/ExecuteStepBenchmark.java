@@ -0,0 +1,49 @@
+package stepdefinitions;
+
+import org.openjdk.jmh.annotations.*;
+import org.openqa.selenium.WebDriver;
+import pages.PageFactice;
+import utils.CommandTimer;
+import utils.Driver;
+import utils.FakeWebDriver;
+import utils.OS;
+
+import java.util.concurrent.TimeUnit;
+
+// Coût d'enveloppe de PlanityStep.executeStep (rapport, Web Vitals, métriques, budget d'appels)
+// autour d'une action vide puis d'un clic, sur un FakeWebDriver sans latence.
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExecuteStepBenchmark {
+    private PlanityStep etape;
+    private PageFactice page;
+
+    @Setup(Level.Trial)
+    public void preparer() {
+        OS.OS = "Web";
+        WebDriver driver = CommandTimer.instrumenter(PageFactice.declarer(new FakeWebDriver(0), 0));
+        Driver.setCurrentDriver(driver);
+        etape = new PlanityStep();
+        page = new PageFactice(driver);
+    }
+
+    @TearDown(Level.Trial)
+    public void terminer() {
+        Driver.setCurrentDriver(null);
+    }
+
+    @Benchmark
+    public void etapeVide() {
+        etape.executeStep("Étape vide", "Aucun effet", () -> {
+        });
+    }
+
+    @Benchmark
+    public void etapeClic() {
+        etape.executeStep("Clic sur le bouton Rechercher", "Le bouton doit être cliqué", page::cliquer);
+    }
+}
@@ -0,0 +1,77 @@
+package stepdefinitions;
+
+import org.openqa.selenium.WebDriver;
+import pages.PageFactice;
+import utils.CommandTimer;
+import utils.Driver;
+import utils.FakeWebDriver;
+import utils.OS;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Banc d'essai au niveau scénario: latence réseau et délais d'apparition réalistes, hors JMH.
+// Le temps de chaque action est décomposé en latence simulée, attente utile (élément pas encore là),
+// attente perdue (élément là mais pas encore remarqué par le sondage) et surcoût du framework.
+//   -Dbench.latenceMicros=2000  -Dbench.apparitionMs=300  -Dbench.repetitions=10
+// Lancement: mvn -P benchmarks test-compile exec:exec -Dbench.main=stepdefinitions.SurcoutFrameworkRunner
+public class SurcoutFrameworkRunner {
+
+    public static void main(String[] args) {
+        long latenceMicros = Long.getLong("bench.latenceMicros", 2000);
+        long apparitionMs = Long.getLong("bench.apparitionMs", 300);
+        int repetitions = Integer.getInteger("bench.repetitions", 10);
+
+        OS.OS = "Web";
+        FakeWebDriver faux = PageFactice.declarer(new FakeWebDriver(latenceMicros), apparitionMs);
+        WebDriver driver = CommandTimer.instrumenter(faux);
+        Driver.setCurrentDriver(driver);
+        PageFactice page = new PageFactice(driver);
+        PlanityStep etape = new PlanityStep();
+
+        Map<String, Runnable> actions = new LinkedHashMap<>();
+        actions.put("click", page::cliquer);
+        actions.put("sendKeys", () -> page.saisir("Paris"));
+        actions.put("waitForElementVisible", page::attendreTitre);
+        actions.put("isDisplayed", page::titreAffiche);
+        actions.put("waitIsElementVisibleAndClick", page::cliquerAvecRepli);
+        actions.put("selectByVisibleText", () -> page.choisir("Paris"));
+        actions.put("executeStep(click)", () -> etape.executeStep("Clic sur le bouton Rechercher",
+                "Le bouton doit être cliqué", page::cliquer));
+
+        System.out.printf(Locale.ROOT, "%n🧪 Surcoût framework (latence %d µs/commande, apparition %d ms, %d répétitions)%n",
+                latenceMicros, apparitionMs, repetitions);
+        System.out.printf(Locale.ROOT, "%-30s %10s %10s %12s %12s %14s%n",
+                "Action", "Total ms", "Commandes", "Latence ms", "Perdue ms", "Surcoût µs");
+        actions.forEach((nom, action) -> {
+            // Un passage à vide pour charger les classes et l'empreinte du locator
+            faux.recharger();
+            action.run();
+
+            long total = 0, commandes = 0, latence = 0, perdue = 0, surcout = 0;
+            for (int i = 0; i < repetitions; i++) {
+                faux.recharger();
+                faux.remettreAZero();
+                long debut = System.nanoTime();
+                action.run();
+                long duree = System.nanoTime() - debut;
+                total += duree;
+                commandes += faux.getCommandes();
+                latence += faux.getLatenceTotaleNs();
+                perdue += faux.getAttentePerdueNs();
+                surcout += Math.max(0, duree - faux.getLatenceTotaleNs() - faux.getAttenteUtileNs() - faux.getAttentePerdueNs());
+            }
+            System.out.printf(Locale.ROOT, "%-30s %10.1f %10.1f %12.2f %12.1f %14.1f%n", nom,
+                    ms(total) / repetitions, (double) commandes / repetitions, ms(latence) / repetitions,
+                    ms(perdue) / repetitions, TimeUnit.NANOSECONDS.toMicros(surcout) / (double) repetitions);
+        });
+        Driver.setCurrentDriver(null);
+        System.exit(0);
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,379 @@
+package utils;
+
+import org.openqa.selenium.*;
+import org.openqa.selenium.NoSuchElementException;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// WebDriver en mémoire pour mesurer le coût du framework sans navigateur: chaque commande coûte une
+// latence fixe (attente active, déterministe) et chaque élément n'apparaît qu'après un délai donné
+// depuis le dernier recharger(). Compte les commandes, la latence simulée et l'attente perdue
+// (temps entre l'apparition réelle d'un élément et le sondage qui la remarque).
+public class FakeWebDriver implements WebDriver, JavascriptExecutor, TakesScreenshot {
+    private final long latenceNs;
+    private final Map<String, Element> elements = new HashMap<>();
+    private final Map<String, List<Element>> listes = new HashMap<>();
+    private final AtomicLong commandes = new AtomicLong();
+    private final AtomicLong latenceTotaleNs = new AtomicLong();
+    private final AtomicLong attentePerdueNs = new AtomicLong();
+    private final AtomicLong attenteUtileNs = new AtomicLong();
+    private volatile long chargementNs = System.nanoTime();
+    private String url = "about:blank";
+
+    public FakeWebDriver(long latenceMicros) {
+        this.latenceNs = latenceMicros * 1000;
+    }
+
+    // Un élément repérable par son locator, visible apparitionMs après le chargement de la page
+    public FakeWebDriver declarer(By locator, String tag, String texte, long apparitionMs) {
+        elements.put(cle(locator), new Element(tag, texte, apparitionMs));
+        return this;
+    }
+
+    // Plusieurs éléments pour un même locator (options d'une liste déroulante...)
+    public FakeWebDriver declarerListe(By locator, String tag, List<String> textes, long apparitionMs) {
+        List<Element> liste = new ArrayList<>();
+        textes.forEach(t -> liste.add(new Element(tag, t, apparitionMs)));
+        listes.put(cle(locator), liste);
+        return this;
+    }
+
+    // Nouvelle "page": les délais d'apparition repartent de maintenant
+    public void recharger() {
+        chargementNs = System.nanoTime();
+        elements.values().forEach(Element::reinitialiser);
+        listes.values().forEach(l -> l.forEach(Element::reinitialiser));
+    }
+
+    public long getCommandes() {
+        return commandes.get();
+    }
+
+    public long getLatenceTotaleNs() {
+        return latenceTotaleNs.get();
+    }
+
+    public long getAttentePerdueNs() {
+        return attentePerdueNs.get();
+    }
+
+    // Attente inévitable: du premier sondage infructueux jusqu'à l'apparition de l'élément
+    public long getAttenteUtileNs() {
+        return attenteUtileNs.get();
+    }
+
+    public void remettreAZero() {
+        commandes.set(0);
+        latenceTotaleNs.set(0);
+        attentePerdueNs.set(0);
+        attenteUtileNs.set(0);
+    }
+
+    private static String cle(By locator) {
+        if (locator instanceof By.Remotable) {
+            By.Remotable.Parameters p = ((By.Remotable) locator).getRemoteParameters();
+            return p.using() + ":" + p.value();
+        }
+        return locator.toString();
+    }
+
+    // Aller-retour simulé: attente active pour rester précis à la microseconde
+    private void commande() {
+        commandes.incrementAndGet();
+        if (latenceNs <= 0) return;
+        long fin = System.nanoTime() + latenceNs;
+        while (System.nanoTime() < fin) {
+            Thread.onSpinWait();
+        }
+        latenceTotaleNs.addAndGet(latenceNs);
+    }
+
+    private Element chercher(String cle) {
+        Element element = elements.get(cle);
+        if (element == null) {
+            List<Element> liste = listes.get(cle);
+            element = liste == null || liste.isEmpty() ? null : liste.get(0);
+        }
+        if (element == null || !element.present()) {
+            if (element != null && element.premierSondageNs == 0) {
+                element.premierSondageNs = System.nanoTime();
+            }
+            throw new NoSuchElementException("Élément absent: " + cle);
+        }
+        return element;
+    }
+
+    @Override
+    public void get(String url) {
+        commande();
+        this.url = url;
+        recharger();
+    }
+
+    @Override
+    public String getCurrentUrl() {
+        commande();
+        return url;
+    }
+
+    @Override
+    public String getTitle() {
+        commande();
+        return "Planity (factice)";
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        commande();
+        List<WebElement> resultat = new ArrayList<>();
+        List<Element> liste = listes.get(cle(by));
+        if (liste != null) {
+            liste.stream().filter(Element::present).forEach(resultat::add);
+        } else {
+            Element element = elements.get(cle(by));
+            if (element != null && element.present()) {
+                resultat.add(element);
+            }
+        }
+        return resultat;
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        commande();
+        return chercher(cle(by));
+    }
+
+    @Override
+    public String getPageSource() {
+        commande();
+        return "<html><body></body></html>";
+    }
+
+    @Override
+    public void close() {
+        commande();
+    }
+
+    @Override
+    public void quit() {
+        commande();
+    }
+
+    @Override
+    public Set<String> getWindowHandles() {
+        commande();
+        return Collections.singleton("fenetre");
+    }
+
+    @Override
+    public String getWindowHandle() {
+        commande();
+        return "fenetre";
+    }
+
+    @Override
+    public TargetLocator switchTo() {
+        throw new UnsupportedOperationException("switchTo");
+    }
+
+    @Override
+    public Navigation navigate() {
+        throw new UnsupportedOperationException("navigate");
+    }
+
+    @Override
+    public Options manage() {
+        throw new UnsupportedOperationException("manage");
+    }
+
+    // Reconnaît les scripts du framework (BasePage, LocatorHealer, WebVitalsCollector) par leur contenu
+    @Override
+    public Object executeScript(String script, Object... args) {
+        commande();
+        if (script.contains("getBoundingClientRect") && script.contains("querySelector")) {
+            try {
+                // Les éléments de la page factice sont visibles dès qu'ils sont présents
+                return Map.of("element", chercher(args[0] + ":" + args[1]), "visible", true);
+            } catch (NoSuchElementException e) {
+                return null;
+            }
+        }
+        if (script.contains("return decrire(arguments[0])") && args.length > 0 && args[0] instanceof Element) {
+            Element element = (Element) args[0];
+            Map<String, Object> descripteur = new HashMap<>();
+            descripteur.put("tag", element.tag);
+            descripteur.put("attributs", Collections.emptyMap());
+            descripteur.put("classes", Collections.emptyList());
+            descripteur.put("texte", element.texte);
+            descripteur.put("voisinage", "");
+            descripteur.put("x", 0);
+            descripteur.put("y", 0);
+            return descripteur;
+        }
+        if (script.contains("document.readyState")) {
+            return "complete";
+        }
+        if (args.length > 0 && args[0] instanceof Element) {
+            Element element = (Element) args[0];
+            if (script.contains(".click()")) {
+                element.clics++;
+            } else if (script.contains("getOwnPropertyDescriptor") || script.contains(".value = ''")) {
+                element.valeur.setLength(0);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Object executeAsyncScript(String script, Object... args) {
+        commande();
+        return null;
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        commande();
+        return target.convertFromPngBytes(new byte[0]);
+    }
+
+    private class Element implements WebElement {
+        final String tag;
+        final String texte;
+        final long apparitionNs;
+        final StringBuilder valeur = new StringBuilder();
+        int clics;
+        // Un sondage a échoué avant l'apparition; la première découverte mesure alors l'attente perdue
+        long premierSondageNs;
+        boolean vu;
+
+        Element(String tag, String texte, long apparitionMs) {
+            this.tag = tag;
+            this.texte = texte;
+            this.apparitionNs = apparitionMs * 1_000_000;
+        }
+
+        void reinitialiser() {
+            premierSondageNs = 0;
+            vu = false;
+            clics = 0;
+            valeur.setLength(0);
+        }
+
+        boolean present() {
+            long maintenant = System.nanoTime();
+            long apparition = chargementNs + apparitionNs;
+            if (maintenant < apparition) return false;
+            if (!vu) {
+                vu = true;
+                if (premierSondageNs != 0) {
+                    attentePerdueNs.addAndGet(maintenant - apparition);
+                    attenteUtileNs.addAndGet(Math.max(0, apparition - premierSondageNs));
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void click() {
+            commande();
+            clics++;
+        }
+
+        @Override
+        public void submit() {
+            commande();
+        }
+
+        @Override
+        public void sendKeys(CharSequence... keysToSend) {
+            commande();
+            for (CharSequence s : keysToSend) {
+                valeur.append(s);
+            }
+        }
+
+        @Override
+        public void clear() {
+            commande();
+            valeur.setLength(0);
+        }
+
+        @Override
+        public String getTagName() {
+            commande();
+            return tag;
+        }
+
+        @Override
+        public String getAttribute(String name) {
+            commande();
+            return "value".equals(name) ? valeur.toString() : null;
+        }
+
+        @Override
+        public boolean isSelected() {
+            commande();
+            return false;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            commande();
+            return true;
+        }
+
+        @Override
+        public String getText() {
+            commande();
+            return texte;
+        }
+
+        @Override
+        public List<WebElement> findElements(By by) {
+            return FakeWebDriver.this.findElements(by);
+        }
+
+        @Override
+        public WebElement findElement(By by) {
+            return FakeWebDriver.this.findElement(by);
+        }
+
+        @Override
+        public boolean isDisplayed() {
+            commande();
+            return present();
+        }
+
+        @Override
+        public Point getLocation() {
+            commande();
+            return new Point(0, 0);
+        }
+
+        @Override
+        public Dimension getSize() {
+            commande();
+            return new Dimension(100, 20);
+        }
+
+        @Override
+        public Rectangle getRect() {
+            commande();
+            return new Rectangle(0, 0, 20, 100);
+        }
+
+        @Override
+        public String getCssValue(String propertyName) {
+            commande();
+            return "";
+        }
+
+        @Override
+        public <X> X getScreenshotAs(OutputType<X> target) {
+            commande();
+            return target.convertFromPngBytes(new byte[0]);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package utils;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Pic d'occupation du tas par itération, dans la JVM du benchmark: GCProfiler ne donne que le débit d'allocation.
+// Somme des pics de chaque pool de tas (majorant du pic simultané), remis à zéro avant chaque itération.
+//   tas.pic         pic absolu, données du @Setup comprises
+//   tas.pic.ajoute  pic moins le tas occupé au début de l'itération: ce que la mesure elle-même a demandé
+public class PicTasProfiler implements InternalProfiler {
+    public static final String PIC = "tas.pic";
+    public static final String PIC_AJOUTE = "tas.pic.ajoute";
+    private static final double MO = 1024.0 * 1024.0;
+
+    private final List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(p -> p.getType() == MemoryType.HEAP && p.isValid())
+            .collect(Collectors.toList());
+    private long occupeAuDebut;
+
+    @Override
+    public String getDescription() {
+        return "Pic d'occupation du tas par itération (MemoryPoolMXBean)";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        // Les déchets de l'itération précédente ne comptent pas dans le pic de celle-ci
+        System.gc();
+        occupeAuDebut = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            pool.resetPeakUsage();
+            occupeAuDebut += pool.getUsage().getUsed();
+        }
+    }
+
+    // Result brut imposé par la signature d'InternalProfiler.afterIteration
+    @SuppressWarnings("rawtypes")
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                                       IterationResult result) {
+        long pic = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            pic += pool.getPeakUsage().getUsed();
+        }
+        return Arrays.asList(
+                new ScalarResult(PIC, pic / MO, "Mo", AggregationPolicy.MAX),
+                new ScalarResult(PIC_AJOUTE, Math.max(0, pic - occupeAuDebut) / MO, "Mo", AggregationPolicy.MAX));
+    }
+}
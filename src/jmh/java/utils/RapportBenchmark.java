@@ -0,0 +1,121 @@
+package utils;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Passage à l'échelle du chemin de rapport de TestManager: N étapes synthétiques déjà enregistrées,
+// puis mesure d'un ajout, des analyses et de la génération du fichier Excel (pic de tas via PicTasProfiler).
+// Lancement: mvn -P benchmarks test-compile exec:exec (voir RapportBenchmarkRunner)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RapportBenchmark {
+    private static final String[] ETAPES = {
+            "Accès à la page d'accueil", "Saisie de la recherche", "Clic sur le bouton Rechercher",
+            "Vérification des résultats", "Clic sur le lien Coiffeur", "Fin du Test"
+    };
+    private static final String[] ERREURS = {
+            "element not found: //button", "Timeout after 15 seconds", "click intercepted", "unexpected alert"
+    };
+    private static final int LOT = 100;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int taille;
+
+    private List<TestManager> enregistrements;
+    private TestManager rapport;
+    private TestManager echec;
+    private List<TestManager> ajouts;
+    private int suivant;
+
+    @Setup(Level.Trial)
+    public void genererEnregistrements() {
+        enregistrements = new ArrayList<>(taille);
+        for (int i = 0; i < taille; i++) {
+            enregistrements.add(enregistrement(i));
+        }
+        echec = enregistrement(-1);
+        echec.setMessageErreur(ERREURS[0]);
+    }
+
+    // Rapport neuf à chaque itération: les ajouts mesurés ne s'accumulent pas d'une itération à l'autre
+    @Setup(Level.Iteration)
+    public void preparerRapport() {
+        rapport = new TestManager();
+        rapport.importerEnregistrements(enregistrements);
+        rapport.setNomEtape(ETAPES[3]);
+        rapport.setMessageErreur(ERREURS[1]);
+        // Étapes à ajouter créées hors mesure
+        ajouts = new ArrayList<>(LOT);
+        for (int i = 0; i < LOT; i++) {
+            ajouts.add(enregistrement(taille + i));
+        }
+        suivant = 0;
+    }
+
+    // Fabrique sans disque: le constructeur public crée le répertoire des rapports, un million de fois sinon
+    private static TestManager enregistrement(int i) {
+        TestManager t = TestManager.enregistrement(LocalDateTime.now());
+        t.setNomScenario("Scénario " + (i / ETAPES.length));
+        t.setNomEtape(ETAPES[Math.floorMod(i, ETAPES.length)] + " #" + i);
+        t.setResultatAttendu("Résultat attendu " + i);
+        t.setResultatReel("Résultat obtenu " + i);
+        t.setUrl("https://www.planity.com/page/" + (i % 50));
+        if (i % 10 == 0) {
+            t.setMessageErreur(ERREURS[Math.floorMod(i, ERREURS.length)]);
+            t.setStatut("ECHEC");
+        } else {
+            t.setStatut("REUSSI");
+        }
+        return t;
+    }
+
+    // L'ajout n'est pas un régime stationnaire (la liste grandit): lots de 100 ajouts par itération
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3, batchSize = LOT)
+    @Measurement(iterations = 5, batchSize = LOT)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void ajouterInfosTest() {
+        rapport.ajouterInfosTest(ajouts.get(suivant++ % LOT));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void updateAnalysis() {
+        rapport.updateAnalysis(echec);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void suggestNextSteps(Blackhole trou) {
+        rapport.suggestNextSteps(echec);
+        trou.consume(rapport.getTestSuggestions());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void analyzeFailure() {
+        rapport.analyzeFailure();
+    }
+
+    // Génération complète du classeur en flux (SXSSF), écriture du fichier comprise; une invocation par itération,
+    // donc le pic de tas relevé par PicTasProfiler est celui d'une génération
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void genererRapport() {
+        rapport.genererRapport("Benchmark");
+    }
+}
@@ -0,0 +1,117 @@
+package utils;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+// Lance RapportBenchmark avec le profileur GC et PicTasProfiler, archive le résultat JSON dans benchmarks/resultats
+// et le compare à benchmarks/reference-rapport.json: code de sortie 1 si une mesure régresse.
+//   -Dbench.tailles=1000,10000       tailles de rapport (défaut: 1k, 10k, 100k, 1M)
+//   -Dbench.tolerance=0.25            écart toléré avant de parler de régression
+//   -Dbench.majReference=true         le résultat devient la nouvelle référence
+public class RapportBenchmarkRunner {
+    private static final Path DOSSIER = Paths.get("benchmarks");
+    private static final Path REFERENCE = DOSSIER.resolve("reference-rapport.json");
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String horodatage = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        Path resultat = DOSSIER.resolve("resultats").resolve("rapport_" + horodatage + ".json");
+        Files.createDirectories(resultat.getParent());
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(RapportBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .addProfiler(PicTasProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultat.toString());
+        String tailles = System.getProperty("bench.tailles", "");
+        if (!tailles.isEmpty()) {
+            options.param("taille", tailles.split(","));
+        }
+        new Runner(options.build()).run();
+        System.out.println("📊 Résultats des benchmarks: " + resultat);
+
+        if (!Files.exists(REFERENCE) || Boolean.getBoolean("bench.majReference")) {
+            Files.copy(resultat, REFERENCE, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("📌 Nouvelle référence: " + REFERENCE);
+            return;
+        }
+
+        double tolerance = Double.parseDouble(System.getProperty("bench.tolerance", "0.25"));
+        List<String> regressions = comparer(lire(REFERENCE), lire(resultat), tolerance);
+        if (regressions.isEmpty()) {
+            System.out.println("✅ Aucune régression par rapport à " + REFERENCE);
+            return;
+        }
+        System.out.println("❌ Régressions du chemin de rapport (tolérance " + Math.round(tolerance * 100) + " %):");
+        regressions.forEach(r -> System.out.println("• " + r));
+        System.exit(1);
+    }
+
+    // "benchmark [taille=N]" -> {mode, score principal, allocation par opération, pic de tas ajouté (Mo)}
+    private static Map<String, Object[]> lire(Path fichier) throws IOException {
+        List<Map<String, Object>> entrees = new Json().toType(
+                new String(Files.readAllBytes(fichier), StandardCharsets.UTF_8), Json.LIST_OF_MAPS_TYPE);
+        Map<String, Object[]> mesures = new TreeMap<>();
+        for (Map<String, Object> entree : entrees) {
+            String nom = String.valueOf(entree.get("benchmark"));
+            nom = nom.substring(nom.lastIndexOf('.') + 1) + " " + entree.getOrDefault("params", Collections.emptyMap());
+            Map<?, ?> principal = (Map<?, ?>) entree.get("primaryMetric");
+            Map<?, ?> secondaires = (Map<?, ?>) entree.getOrDefault("secondaryMetrics", Collections.emptyMap());
+            Map<?, ?> allocation = (Map<?, ?>) secondaires.get(ALLOCATION);
+            Map<?, ?> picTas = (Map<?, ?>) secondaires.get(PicTasProfiler.PIC_AJOUTE);
+            mesures.put(nom, new Object[]{
+                    entree.get("mode"),
+                    ((Number) principal.get("score")).doubleValue(),
+                    allocation == null ? Double.NaN : ((Number) allocation.get("score")).doubleValue(),
+                    picTas == null ? Double.NaN : ((Number) picTas.get("score")).doubleValue()});
+        }
+        return mesures;
+    }
+
+    private static List<String> comparer(Map<String, Object[]> reference, Map<String, Object[]> courant, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        courant.forEach((nom, mesure) -> {
+            Object[] base = reference.get(nom);
+            if (base == null) return;
+            double avant = (Double) base[1];
+            double apres = (Double) mesure[1];
+            // Débit (thrpt): plus bas est pire; temps (avgt, ss, sample): plus haut est pire
+            boolean debit = "thrpt".equals(mesure[0]);
+            double ecart = debit ? (avant - apres) / avant : (apres - avant) / avant;
+            if (ecart > tolerance) {
+                regressions.add(String.format(Locale.ROOT, "%s: %.3f -> %.3f (%s%.0f %%)",
+                        nom, avant, apres, debit ? "-" : "+", ecart * 100));
+            }
+            double allocAvant = (Double) base[2];
+            double allocApres = (Double) mesure[2];
+            if (!Double.isNaN(allocAvant) && allocAvant > 0 && (allocApres - allocAvant) / allocAvant > tolerance) {
+                regressions.add(String.format(Locale.ROOT, "%s: allocation %.0f -> %.0f octets/op",
+                        nom, allocAvant, allocApres));
+            }
+            // Référence antérieure au profileur de tas: NaN, rien à comparer
+            double tasAvant = (Double) base[3];
+            double tasApres = (Double) mesure[3];
+            if (!Double.isNaN(tasAvant) && tasAvant > 0 && (tasApres - tasAvant) / tasAvant > tolerance) {
+                regressions.add(String.format(Locale.ROOT, "%s: pic de tas %.0f -> %.0f Mo",
+                        nom, tasAvant, tasApres));
+            }
+        });
+        return regressions;
+    }
+}
@@ -1,57 +1,93 @@
 package pages;
 
-import io.appium.java_client.AppiumBy;
 import io.appium.java_client.AppiumDriver;
-import io.appium.java_client.PerformsTouchActions;
-import io.appium.java_client.TouchAction;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.ios.IOSDriver;
-import io.appium.java_client.touch.WaitOptions;
-import io.appium.java_client.touch.offset.PointOption;
+import io.qameta.allure.Allure;
 import org.openqa.selenium.*;
 import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
+import utils.CommandTimer;
+import utils.GestureEngine;
+import utils.LocatorHealer;
+import utils.LocatorRepository;
+import utils.TimedWait;
+import utils.VisualChecker;
+
+import java.io.ByteArrayInputStream;
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 public class BasePage {
+    private static final Duration DELAI = Duration.ofSeconds(15);
+
+    // Recherche + visibilité en un seul aller-retour par sondage (au lieu de findElement puis isDisplayed).
+    // visibility et display se propagent au style calculé (ou à la taille); l'opacité non: ancêtres compris
+    private static final String ETAT_JS =
+            "var e = arguments[0] === 'xpath'" +
+            "  ? document.evaluate(arguments[1], document, null, 9, null).singleNodeValue" +
+            "  : document.querySelector(arguments[1]);" +
+            "if (!e) return null;" +
+            "var r = e.getBoundingClientRect(), s = getComputedStyle(e);" +
+            "var v = r.width > 0 && r.height > 0 && s.visibility !== 'hidden' && s.display !== 'none';" +
+            "for (var p = e; v && p && p.nodeType === 1; p = p.parentElement) {" +
+            "  if (getComputedStyle(p).opacity === '0') v = false;" +
+            "}" +
+            "return {element: e, visible: v};";
+
+    // Vide le champ en un seul script en passant par le setter natif, pour que React voie l'événement input
+    private static final String VIDER_JS =
+            "var e = arguments[0];" +
+            "var setter = Object.getOwnPropertyDescriptor(Object.getPrototypeOf(e), 'value');" +
+            "if (setter && setter.set) { setter.set.call(e, ''); } else { e.value = ''; }" +
+            "e.dispatchEvent(new Event('input', {bubbles: true}));" +
+            "e.dispatchEvent(new Event('change', {bubbles: true}));";
+
     protected WebDriver driver;
     protected WebDriverWait wait;
     protected WebDriverWait shortWait;
     protected WebDriverWait longWait;
     protected JavascriptExecutor js;
+    protected final LocatorHealer healer = LocatorHealer.getInstance();
+    private GestureEngine gestes;
 
     public BasePage(WebDriver driver) {
         this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(15));
-        this.shortWait = new WebDriverWait(driver, Duration.ofSeconds(5));
-        this.longWait = new WebDriverWait(driver, Duration.ofSeconds(30));
+        this.wait = new TimedWait(driver, DELAI);
+        this.shortWait = new TimedWait(driver, Duration.ofSeconds(5));
+        this.longWait = new TimedWait(driver, Duration.ofSeconds(30));
         this.js = (JavascriptExecutor) driver;
     }
 
+    // Locator déclaré dans src/test/resources/locators/<Page>.properties, résolu pour la plateforme courante
+    protected By locator(String cle, String... parametres) {
+        return LocatorRepository.getInstance().get(getClass().getSimpleName(), cle, parametres);
+    }
+
     // Attente améliorée avec gestion des erreurs
     protected void waitForElement(By locator) {
-        try {
-            wait.until(ExpectedConditions.presenceOfElementLocated(locator));
-        } catch (TimeoutException e) {
-            throw new TimeoutException("L'élément n'a pas été trouvé après 15 secondes: " + locator);
-        }
+        attendre(locator, ExpectedConditions::presenceOfElementLocated, "L'élément n'a pas été trouvé");
     }
 
 
     protected void waitForElements(By locator) {
         try {
-            wait.until(ExpectedConditions.presenceOfAllElementsLocatedBy(locator));
+            wait.until(ExpectedConditions.presenceOfAllElementsLocatedBy(healer.locatorActif(locator)));
         } catch (TimeoutException e) {
-            throw new TimeoutException("Les éléments n'ont pas été trouvés après 15 secondes: " + locator);
+            throw new TimeoutException("Les éléments n'ont pas été trouvés après " + DELAI.getSeconds() + " secondes: " + locator);
         }
     }
 
+    // Sondage de la présence (réparation comprise), la visibilité lue dans le même aller-retour: l'attente
+    // s'arrête dès que l'élément existe, et un élément présent mais masqué répond false sans autre commande
     protected boolean isDisplayed(By locator) {
+        boolean[] visible = {false};
         try {
-            WebElement element = wait.until(ExpectedConditions.presenceOfElementLocated(locator));
-            return element.isDisplayed();
+            attendre(locator, l -> present(l, visible), "L'élément n'a pas été trouvé");
+            return visible[0];
         } catch (TimeoutException | NoSuchElementException | StaleElementReferenceException e) {
             return false;
         }
@@ -59,29 +95,122 @@ public class BasePage {
 
     // Méthodes d'attente avancées
     protected WebElement waitForElementClickable(By locator) {
-        try {
-            return wait.until(ExpectedConditions.elementToBeClickable(locator));
-        } catch (TimeoutException e) {
-            throw new TimeoutException("L'élément n'est pas cliquable après 15 secondes: " + locator);
-        }
+        return attendre(locator, ExpectedConditions::elementToBeClickable, "L'élément n'est pas cliquable");
     }
 
     protected WebElement waitForElementVisible(By locator) {
-        try {
-            return wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
-        } catch (TimeoutException e) {
-            throw new TimeoutException("L'élément n'est pas visible après 15 secondes: " + locator);
-        }
+        return attendre(locator, this::visible, "L'élément n'est pas visible");
     }
 
     protected WebElement waitForElementPresent(By locator) {
+        return attendre(locator, ExpectedConditions::presenceOfElementLocated, "L'élément n'est pas présent");
+    }
+
+    // Sur le web, css/xpath/id sont sondés par un script unique; sinon condition Selenium standard
+    private ExpectedCondition<WebElement> visible(By locator) {
+        By.Remotable.Parameters parametres = parametresScript(locator);
+        if (parametres == null) {
+            return ExpectedConditions.visibilityOfElementLocated(locator);
+        }
+        return new ExpectedCondition<WebElement>() {
+            @Override
+            public WebElement apply(WebDriver webDriver) {
+                Map<?, ?> etat = etat(webDriver, parametres);
+                return etat != null && Boolean.TRUE.equals(etat.get("visible")) ? (WebElement) etat.get("element") : null;
+            }
+
+            @Override
+            public String toString() {
+                return "visibility of element located by " + locator;
+            }
+        };
+    }
+
+    // Présent, visible ou non: la visibilité est notée au passage (même script sur le web, isDisplayed sinon)
+    private ExpectedCondition<WebElement> present(By locator, boolean[] visible) {
+        By.Remotable.Parameters parametres = parametresScript(locator);
+        return new ExpectedCondition<WebElement>() {
+            @Override
+            public WebElement apply(WebDriver webDriver) {
+                if (parametres == null) {
+                    WebElement element = webDriver.findElement(locator);
+                    visible[0] = element.isDisplayed();
+                    return element;
+                }
+                Map<?, ?> etat = etat(webDriver, parametres);
+                if (etat == null) return null;
+                visible[0] = Boolean.TRUE.equals(etat.get("visible"));
+                return (WebElement) etat.get("element");
+            }
+
+            @Override
+            public String toString() {
+                return "presence of element located by " + locator;
+            }
+        };
+    }
+
+    // Paramètres du locator si ETAT_JS sait le résoudre (web, css ou xpath), null sinon
+    private By.Remotable.Parameters parametresScript(By locator) {
+        if (!isWeb() || !(locator instanceof By.Remotable)) return null;
+        By.Remotable.Parameters parametres = ((By.Remotable) locator).getRemoteParameters();
+        String using = parametres.using();
+        return "xpath".equals(using) || "css selector".equals(using) ? parametres : null;
+    }
+
+    private static Map<?, ?> etat(WebDriver webDriver, By.Remotable.Parameters parametres) {
+        Object etat = ((JavascriptExecutor) webDriver).executeScript(ETAT_JS, parametres.using(), parametres.value());
+        return etat instanceof Map ? (Map<?, ?>) etat : null;
+    }
+
+    // Attente avec auto-réparation: si une empreinte est connue, on n'attend que shortWait sur le locator
+    // principal puis on cherche un remplaçant dans un seul instantané du DOM. Sans remplaçant fiable (élément
+    // simplement lent), l'attente reprend sur le locator d'origine jusqu'au bout du délai normal.
+    private WebElement attendre(By locator, Function<By, ExpectedCondition<WebElement>> condition, String message) {
+        long limite = System.nanoTime() + DELAI.toNanos();
+        By actif = healer.locatorActif(locator);
+        WebDriverWait attente = wait;
+        if (healer.connait(locator)) {
+            try {
+                WebElement element = shortWait.until(condition.apply(actif));
+                healer.enregistrer(driver, locator, element);
+                return element;
+            } catch (TimeoutException e) {
+                By repare = healer.reparer(driver, locator);
+                if (repare != null && !repare.equals(actif)) {
+                    try {
+                        WebElement element = attenteRestante(limite).until(condition.apply(repare));
+                        // Page lente: si l'original est apparu entre-temps, le remplaçant n'est pas retenu
+                        if (driver.findElements(locator).isEmpty()) {
+                            healer.confirmer(locator, repare);
+                            healer.enregistrer(driver, locator, element);
+                            return element;
+                        }
+                    } catch (TimeoutException ignored) {
+                        // On continue sur le locator d'origine
+                    }
+                }
+                if (!actif.equals(locator)) {
+                    healer.oublier(locator);
+                    actif = locator;
+                }
+                attente = attenteRestante(limite);
+            }
+        }
         try {
-            return wait.until(ExpectedConditions.presenceOfElementLocated(locator));
+            WebElement element = attente.until(condition.apply(actif));
+            healer.enregistrer(driver, locator, element);
+            return element;
         } catch (TimeoutException e) {
-            throw new TimeoutException("L'élément n'est pas présent après 15 secondes: " + locator);
+            throw new TimeoutException(message + " après " + DELAI.getSeconds() + " secondes: " + locator);
         }
     }
 
+    // Reste du délai normal (au moins un dernier essai)
+    private WebDriverWait attenteRestante(long limite) {
+        return new TimedWait(driver, Duration.ofNanos(Math.max(0, limite - System.nanoTime())));
+    }
+
     protected boolean waitForElementToDisappear(By locator) {
         try {
             return wait.until(ExpectedConditions.invisibilityOfElementLocated(locator));
@@ -122,7 +251,7 @@ public class BasePage {
     // Méthodes de vérification améliorées
     protected boolean isElementDisplayed(By locator) {
         try {
-            return shortWait.until(ExpectedConditions.visibilityOfElementLocated(locator)).isDisplayed();
+            return shortWait.until(visible(locator)) != null;
         } catch (Exception e) {
             return false;
         }
@@ -148,46 +277,49 @@ public class BasePage {
     protected void scrollToElement(By locator) {
         try {
             if (isWeb()) {
-                WebElement element = driver.findElement(locator);
+                WebElement element = driver.findElement(healer.locatorActif(locator));
                 js.executeScript("arguments[0].scrollIntoView({behavior: 'smooth', block: 'center'});", element);
-            } else if (isAndroid()) {
-                ((AndroidDriver) driver).findElement(new AppiumBy.ByAndroidUIAutomator(
-                        "new UiScrollable(new UiSelector().scrollable(true).instance(0))" +
-                                ".scrollIntoView(new UiSelector().descriptionContains(\"" + locator + "\").instance(0))"
-                ));
-            } else if (isIOS()) {
-                // Implement iOS scroll
-                WebElement element = driver.findElement(locator);
-                String elementID = element.getAttribute("id");
-                js.executeScript("mobile: scroll", "{direction: 'down', element: '" + elementID + "'}");
+            } else {
+                gestes().defilerJusqua(healer.locatorActif(locator), GestureEngine.Direction.BAS);
             }
         } catch (Exception e) {
             throw new RuntimeException("Impossible de faire défiler jusqu'à l'élément: " + locator, e);
         }
     }
 
-    // Gestes tactiles améliorés
+    // Gestes tactiles (W3C Actions)
     protected void swipeVertical(double startPercentage, double endPercentage, double anchorPercentage) {
         if (driver instanceof AppiumDriver) {
             try {
-                AppiumDriver appiumDriver = (AppiumDriver) driver;
-                Dimension size = driver.manage().window().getSize();
-                int anchor = (int) (size.width * anchorPercentage);
-                int startPoint = (int) (size.height * startPercentage);
-                int endPoint = (int) (size.height * endPercentage);
-
-                new TouchAction((PerformsTouchActions) appiumDriver)
-                        .press(PointOption.point(anchor, startPoint))
-                        .waitAction(WaitOptions.waitOptions(Duration.ofMillis(1000)))
-                        .moveTo(PointOption.point(anchor, endPoint))
-                        .release()
-                        .perform();
+                gestes().swipeVertical(startPercentage, endPercentage, anchorPercentage);
             } catch (Exception e) {
                 throw new RuntimeException("Erreur lors du swipe vertical", e);
             }
         }
     }
 
+    protected GestureEngine gestes() {
+        if (gestes == null) {
+            gestes = new GestureEngine(driver);
+        }
+        return gestes;
+    }
+
+    // Régression visuelle: compare l'écran courant à la référence de cette page (visual.updateBaselines=true pour l'enregistrer)
+    protected VisualChecker.Resultat verifierVisuel(String nom) {
+        byte[] capture = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+        VisualChecker.Resultat resultat = VisualChecker.getInstance()
+                .comparer(getClass().getSimpleName() + "." + nom, capture);
+        if (resultat.getImageDiff() != null) {
+            Allure.addAttachment("diff-visuel " + nom, "image/png",
+                    new ByteArrayInputStream(resultat.getImageDiff()), "png");
+        }
+        if (!resultat.isConforme()) {
+            throw new AssertionError("Différence visuelle sur " + nom + ": " + resultat);
+        }
+        return resultat;
+    }
+
     // Nouvelles méthodes utiles
     protected void waitForPageLoad() {
         wait.until(webDriver -> ((JavascriptExecutor) webDriver)
@@ -202,24 +334,24 @@ public class BasePage {
     protected void waitIsElementVisibleAndClick(By locator, String errorMessage) {
         try {
             // 1. Normal yol: Elemanın görünür ve tıklanabilir olmasını bekle
-            WebElement element = wait.until(ExpectedConditions.elementToBeClickable(locator));
+            WebElement element = waitForElementClickable(locator);
             element.click();
         } catch (TimeoutException | ElementClickInterceptedException e1) {
             try {
                 // 2. JavaScript ile scroll ve click
-                WebElement element = driver.findElement(locator);
+                WebElement element = driver.findElement(healer.locatorActif(locator));
                 js.executeScript("arguments[0].scrollIntoView(true);", element);
-                Thread.sleep(500); // Scroll işleminin tamamlanması için kısa bekleme
+                CommandTimer.pause(500); // Scroll işleminin tamamlanması için kısa bekleme
                 js.executeScript("arguments[0].click();", element);
             } catch (Exception e2) {
                 try {
                     // 3. JavaScript ile direk click
-                    WebElement element = driver.findElement(locator);
+                    WebElement element = driver.findElement(healer.locatorActif(locator));
                     js.executeScript("arguments[0].click();", element);
                 } catch (Exception e3) {
                     try {
                         // 4. JavaScript ile tüm engelleri kaldırıp click
-                        WebElement element = driver.findElement(locator);
+                        WebElement element = driver.findElement(healer.locatorActif(locator));
                         js.executeScript(
                                 "arguments[0].style.border='2px solid red';" +
                                         "arguments[0].style.visibility='visible';" +
@@ -248,9 +380,11 @@ public class BasePage {
 
     protected void clearField(By locator) {
         WebElement element = waitForElementVisible(locator);
-        element.clear();
-        // Double check clear with JavaScript
-        js.executeScript("arguments[0].value = '';", element);
+        if (isWeb()) {
+            js.executeScript(VIDER_JS, element);
+        } else {
+            element.clear();
+        }
     }
 
     // Utilitaires pour le type de driver
@@ -0,0 +1,141 @@
+package runner;
+
+import utils.CommandTimer;
+import utils.ConfigReader;
+import utils.FakePlanityServer;
+import utils.SuiteLifecycle;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Non-régression des performances du framework: les scénarios Planity tournent contre le faux site local
+// (FakePlanityServer); durée totale, commandes WebDriver, temps distant, attentes et pauses sont ajoutés
+// à l'historique par build puis comparés à la médiane des builds précédents.
+// Lancement: mvn test-compile exec:java -Pperf-regression
+public class PerfRegressionRunner {
+    private static final String GLUE = "stepdefinitions";
+    private static final String ENTETE = "date;build;scenarios;echecs;dureeMs;commandes;remoteMs;attenteMs;pauseMs";
+    // Colonnes comparées d'un build à l'autre
+    private static final String[] SUIVIES = {"dureeMs", "commandes", "attenteMs"};
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("fixture.enabled", "true");
+        String features = args.length > 0 ? args[0] : ConfigReader.getProperty("perf.features", "src/test/resources/features");
+        int repetitions = Integer.parseInt(ConfigReader.getProperty("perf.repetitions", "1"));
+        Path historique = Paths.get(ConfigReader.getProperty("perf.history", "benchmarks/perf-fixtures.csv"));
+        double tolerance = Double.parseDouble(ConfigReader.getProperty("perf.tolerance", "0.2"));
+        int fenetre = Integer.parseInt(ConfigReader.getProperty("perf.window", "5"));
+
+        FakePlanityServer.getInstance().demarrer();
+        int scenarios = VirtualThreadRunner.decouvrirScenarios(Paths.get(features)).size() * repetitions;
+        int echecs = 0;
+        long debut = System.nanoTime();
+        // Un runtime par répétition: la clôture (métriques, artefacts) n'a lieu qu'après la dernière
+        SuiteLifecycle.orchestrer();
+        for (int i = 0; i < repetitions; i++) {
+            byte statut = io.cucumber.core.cli.Main.run(new String[]{"--glue", GLUE, "--monochrome", features},
+                    Thread.currentThread().getContextClassLoader());
+            if (statut != 0) {
+                echecs++;
+            }
+        }
+        SuiteLifecycle.terminer();
+        long dureeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debut);
+
+        Map<String, long[]> totaux = CommandTimer.totauxParCategorie();
+        Map<String, Long> mesure = new LinkedHashMap<>();
+        mesure.put("dureeMs", dureeMs);
+        mesure.put("commandes", total(totaux, CommandTimer.REMOTE)[0]);
+        mesure.put("remoteMs", total(totaux, CommandTimer.REMOTE)[1]);
+        mesure.put("attenteMs", total(totaux, CommandTimer.ATTENTE)[1]);
+        mesure.put("pauseMs", total(totaux, CommandTimer.PAUSE)[1]);
+
+        List<Map<String, Long>> precedents = lire(historique);
+        String build = System.getenv().getOrDefault("CI_PIPELINE_ID", System.getenv().getOrDefault("BUILD_NUMBER", "local"));
+        ajouter(historique, build, scenarios, echecs, mesure);
+
+        System.out.printf("%n📈 Performances du framework sur le faux site (%d scénario(s), %d échec(s), build %s)%n",
+                scenarios, echecs, build);
+        mesure.forEach((nom, valeur) -> System.out.printf("• %s: %d%n", nom, valeur));
+        System.out.println("• pages servies: " + FakePlanityServer.getInstance().getPagesServies()
+                + ", erreurs injectées: " + FakePlanityServer.getInstance().getErreursInjectees());
+
+        List<String> regressions = comparer(precedents.subList(Math.max(0, precedents.size() - fenetre), precedents.size()),
+                mesure, tolerance);
+        FakePlanityServer.getInstance().arreter();
+        if (echecs > 0) {
+            System.out.println("❌ Scénarios en échec contre le faux site");
+            System.exit(1);
+        }
+        if (!regressions.isEmpty()) {
+            System.out.println("❌ Régressions (tolérance " + Math.round(tolerance * 100) + " % sur la médiane des "
+                    + fenetre + " derniers builds):");
+            regressions.forEach(r -> System.out.println("• " + r));
+            System.exit(1);
+        }
+        System.out.println("✅ Aucune régression, historique: " + historique);
+        System.exit(0);
+    }
+
+    private static long[] total(Map<String, long[]> totaux, String categorie) {
+        return totaux.getOrDefault(categorie, new long[2]);
+    }
+
+    private static List<String> comparer(List<Map<String, Long>> precedents, Map<String, Long> mesure, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        if (precedents.isEmpty()) return regressions;
+        for (String colonne : SUIVIES) {
+            List<Long> valeurs = precedents.stream().map(p -> p.get(colonne)).sorted().collect(Collectors.toList());
+            long mediane = valeurs.get(valeurs.size() / 2);
+            long courant = mesure.get(colonne);
+            if (mediane > 0 && courant > mediane * (1 + tolerance)) {
+                regressions.add(String.format(Locale.ROOT, "%s: %d -> %d (+%.0f %%)",
+                        colonne, mediane, courant, (courant - mediane) * 100.0 / mediane));
+            }
+        }
+        return regressions;
+    }
+
+    // Seuls les builds sans échec servent de référence
+    private static List<Map<String, Long>> lire(Path historique) throws IOException {
+        List<Map<String, Long>> lignes = new ArrayList<>();
+        if (!Files.exists(historique)) return lignes;
+        String[] colonnes = ENTETE.split(";");
+        for (String ligne : Files.readAllLines(historique, StandardCharsets.UTF_8)) {
+            String[] valeurs = ligne.split(";");
+            if (ligne.startsWith("date;") || valeurs.length != colonnes.length || !valeurs[3].equals("0")) continue;
+            Map<String, Long> entree = new HashMap<>();
+            for (int i = 4; i < colonnes.length; i++) {
+                entree.put(colonnes[i], Long.parseLong(valeurs[i]));
+            }
+            lignes.add(entree);
+        }
+        return lignes;
+    }
+
+    private static void ajouter(Path historique, String build, int scenarios, int echecs, Map<String, Long> mesure)
+            throws IOException {
+        if (historique.getParent() != null) {
+            Files.createDirectories(historique.getParent());
+        }
+        StringBuilder ligne = new StringBuilder();
+        if (!Files.exists(historique)) {
+            ligne.append(ENTETE).append('\n');
+        }
+        ligne.append(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss")))
+                .append(';').append(build).append(';').append(scenarios).append(';').append(echecs);
+        mesure.values().forEach(v -> ligne.append(';').append(v));
+        ligne.append('\n');
+        Files.write(historique, ligne.toString().getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,213 @@
+package runner;
+
+import utils.ConfigReader;
+import utils.PinningMonitor;
+import utils.ScenarioHistory;
+import utils.SuiteLifecycle;
+import utils.TestManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Orchestration: chaque scénario tourne dans son propre runtime Cucumber, sur un thread virtuel (JDK 21+).
+// Mise en place et clôture de l'exécution (métriques, appareils, artefacts) une seule fois ici (SuiteLifecycle),
+// pas dans les @AfterAll de chaque runtime; l'état d'un scénario (étape du rapport, plateforme, session) est par thread
+// Relances, quarantaine et ordonnancement n'existent que sur ce chemin, point d'entrée de la CI (Jenkinsfile):
+// code de sortie 1 dès qu'un scénario de la voie principale reste en échec après ses relances
+// Lancement: mvn test-compile exec:java -Pvirtual-threads
+public class VirtualThreadRunner {
+    private static final String FEATURES_DIR = "src/test/resources/features";
+    private static final String GLUE = "stepdefinitions";
+    // Un fichier JSON Cucumber par tentative: chaque scénario a son runtime, un fichier commun serait écrasé
+    private static final String JSON_DIR = "target/cucumber-json";
+
+    public static void main(String[] args) throws Exception {
+        boolean virtuels = Boolean.parseBoolean(ConfigReader.getProperty("orchestration.virtualThreads", "true"));
+        int maxSessions = Integer.parseInt(ConfigReader.getProperty("orchestration.maxSessions", "50"));
+        int maxEchecs = Integer.parseInt(ConfigReader.getProperty("orchestration.maxFailures", "0"));
+        String politique = ConfigReader.getProperty("orchestration.order", "file");
+        ScenarioHistory historique = ScenarioHistory.charger();
+        List<String> scenarios = historique.ordonner(
+                decouvrirScenarios(Paths.get(args.length > 0 ? args[0] : FEATURES_DIR)), politique);
+
+        // Scénarios instables connus: voie séparée après la voie principale, sans effet sur le code de sortie
+        List<String> quarantaine = scenarios.stream().filter(historique::estInstable).collect(Collectors.toList());
+        List<String> principaux = new ArrayList<>(scenarios);
+        principaux.removeAll(quarantaine);
+        int relancesMax = Integer.parseInt(ConfigReader.getProperty("orchestration.retries", "1"));
+        AtomicInteger relancesRestantes = new AtomicInteger(
+                Integer.parseInt(ConfigReader.getProperty("orchestration.retryBudget", "5")));
+
+        ExecutorService executeur = creerExecuteur(virtuels);
+        boolean modeVirtuel = executeur != null;
+        if (!modeVirtuel) {
+            executeur = Executors.newFixedThreadPool(Math.min(maxSessions, Math.max(1, scenarios.size())));
+        }
+
+        System.out.println("🧵 " + scenarios.size() + " scénarios, " + maxSessions + " sessions max, threads "
+                + (modeVirtuel ? "virtuels" : "plateforme (JDK " + Runtime.version().feature() + ")")
+                + ", ordre " + politique + (maxEchecs > 0 ? ", arrêt après " + maxEchecs + " échec(s)" : "")
+                + ", " + relancesMax + " relance(s) par scénario (budget " + relancesRestantes.get() + ")"
+                + (quarantaine.isEmpty() ? "" : ", " + quarantaine.size() + " en quarantaine"));
+
+        // Les threads virtuels sont illimités: le sémaphore borne le nombre de sessions distantes. Le permis est pris
+        // par la boucle de soumission: les scénarios démarrent dans l'ordre calculé, sans N threads en attente
+        Semaphore sessions = new Semaphore(maxSessions);
+        AtomicInteger echecs = new AtomicInteger();
+        AtomicInteger ignores = new AtomicInteger();
+        AtomicInteger reussisApresRelance = new AtomicInteger();
+        AtomicInteger echecsQuarantaine = new AtomicInteger();
+        AtomicBoolean arret = new AtomicBoolean();
+        long debut = System.nanoTime();
+        SuiteLifecycle.orchestrer();
+
+        PinningMonitor moniteur = modeVirtuel ? new PinningMonitor(Duration.ofMillis(
+                Long.parseLong(ConfigReader.getProperty("orchestration.pinningThresholdMs", "20")))).demarrer() : null;
+        try {
+            List<Future<?>> resultats = new ArrayList<>();
+            for (String scenario : principaux) {
+                sessions.acquireUninterruptibly();
+                resultats.add(soumettre(executeur, sessions, () -> {
+                    // Arrêt anticipé: les scénarios pas encore démarrés ne le seront pas
+                    if (arret.get()) {
+                        ignores.incrementAndGet();
+                        return;
+                    }
+                    boolean echec = executer(scenario, 1, "principale", historique);
+                    // Seul le scénario en échec est relancé, dans un nouveau runtime donc sur une session neuve
+                    for (int tentative = 2; echec && tentative <= relancesMax + 1
+                            && relancesRestantes.getAndUpdate(n -> Math.max(0, n - 1)) > 0; tentative++) {
+                        System.out.println("🔁 Relance " + (tentative - 1) + "/" + relancesMax + ": " + scenario);
+                        echec = executer(scenario, tentative, "relance", historique);
+                        if (!echec) {
+                            reussisApresRelance.incrementAndGet();
+                        }
+                    }
+                    if (echec && echecs.incrementAndGet() == maxEchecs) {
+                        arret.set(true);
+                        System.out.println("⛔ " + maxEchecs + " échec(s): arrêt de l'exécution");
+                    }
+                }));
+            }
+            for (Future<?> resultat : resultats) {
+                resultat.get();
+            }
+
+            resultats.clear();
+            // Exécution arrêtée par orchestration.maxFailures: la voie de quarantaine n'est pas lancée non plus
+            if (arret.get() && !quarantaine.isEmpty()) {
+                ignores.addAndGet(quarantaine.size());
+                System.out.println("⛔ Quarantaine ignorée (" + quarantaine.size() + " scénario(s)): exécution arrêtée");
+            }
+            for (String scenario : arret.get() ? List.<String>of() : quarantaine) {
+                sessions.acquireUninterruptibly();
+                resultats.add(soumettre(executeur, sessions, () -> {
+                    if (executer(scenario, 1, "quarantaine", historique)) {
+                        echecsQuarantaine.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> resultat : resultats) {
+                resultat.get();
+            }
+        } finally {
+            executeur.shutdown();
+            historique.sauvegarder();
+            SuiteLifecycle.terminer();
+            if (moniteur != null) {
+                moniteur.close();
+            }
+        }
+        // Le rapport des derniers scénarios précède leurs tentatives: régénéré une dernière fois
+        TestManager.getInstance().genererRapport("Planity");
+
+        System.out.printf("%n🏁 %d scénarios en %d s, %d échec(s)%s%s%s%n", scenarios.size() - ignores.get(),
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - debut), echecs.get(),
+                reussisApresRelance.get() > 0 ? ", " + reussisApresRelance.get() + " réussi(s) après relance" : "",
+                quarantaine.isEmpty() || arret.get() ? "" : ", quarantaine " + echecsQuarantaine.get() + "/" + quarantaine.size() + " en échec",
+                ignores.get() > 0 ? ", " + ignores.get() + " non exécuté(s)" : "");
+        if (moniteur != null) {
+            moniteur.afficherRapport();
+        }
+        System.exit(echecs.get() == 0 ? 0 : 1);
+    }
+
+    // Permis déjà acquis par l'appelant: rendu à la fin de la tâche, ou tout de suite si elle est refusée
+    private static Future<?> soumettre(ExecutorService executeur, Semaphore sessions, Runnable tache) {
+        try {
+            return executeur.submit(() -> {
+                try {
+                    tache.run();
+                } finally {
+                    sessions.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            sessions.release();
+            throw e;
+        }
+    }
+
+    // Une exécution complète du scénario (runtime Cucumber, hooks et session propres), tracée dans
+    // l'historique et dans l'onglet Tentatives du rapport
+    private static boolean executer(String scenario, int tentative, String voie, ScenarioHistory historique) {
+        long debut = System.nanoTime();
+        String json = JSON_DIR + "/" + historique.cle(scenario).replaceAll("[^a-zA-Z0-9-_\\.]", "_")
+                + "_" + tentative + ".json";
+        byte statut = io.cucumber.core.cli.Main.run(new String[]{
+                "--glue", GLUE,
+                "--plugin", "io.qameta.allure.cucumber7jvm.AllureCucumber7Jvm",
+                "--plugin", "json:" + json,
+                "--monochrome",
+                scenario
+        }, Thread.currentThread().getContextClassLoader());
+        long dureeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debut);
+        boolean echec = statut != 0;
+        historique.enregistrer(scenario, tentative, dureeMs, echec);
+        TestManager.getInstance().enregistrerTentative(historique.cle(scenario), tentative, echec, dureeMs, voie,
+                historique.scoreInstabilite(scenario));
+        return echec;
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() par réflexion: le projet compile en Java 17
+    private static ExecutorService creerExecuteur(boolean virtuels) {
+        if (!virtuels || Runtime.version().feature() < 21) {
+            return null;
+        }
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            System.err.println("⚠️ Threads virtuels indisponibles: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Un identifiant chemin:ligne par scénario, sans réordonner ni réécrire les fichiers .feature
+    static List<String> decouvrirScenarios(Path dossier) throws IOException {
+        List<String> scenarios = new ArrayList<>();
+        List<Path> fichiers;
+        try (Stream<Path> flux = Files.walk(dossier)) {
+            fichiers = flux.filter(f -> f.toString().endsWith(".feature")).sorted().collect(Collectors.toList());
+        }
+        for (Path fichier : fichiers) {
+            List<String> lignes = Files.readAllLines(fichier, StandardCharsets.UTF_8);
+            for (int i = 0; i < lignes.size(); i++) {
+                if (ScenarioHistory.estScenario(lignes, i)) {
+                    scenarios.add(fichier + ":" + (i + 1));
+                }
+            }
+        }
+        return scenarios;
+    }
+}
@@ -1,7 +1,10 @@
 package stepdefinitions;
 
 import io.cucumber.java.After;
+import io.cucumber.java.AfterAll;
+import io.cucumber.java.AfterStep;
 import io.cucumber.java.Before;
+import io.cucumber.java.BeforeAll;
 import io.cucumber.java.Scenario;
 import io.cucumber.java.en.Given;
 import io.qameta.allure.Allure;
@@ -11,20 +14,40 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
+import utils.ArtifactPipeline;
+import utils.ArtifactStore;
+import utils.CommandTimer;
 import utils.ConfigReader;
+import utils.DevToolsSupport;
+import utils.DevicePool;
 import utils.Driver;
+import utils.EmulationProfile;
+import utils.FakePlanityServer;
+import utils.FrameRingBuffer;
+import utils.FrameSink;
+import utils.GridRouter;
+import utils.LeakTracker;
+import utils.LiveMetrics;
+import utils.NetworkRecorder;
 import utils.OS;
+import utils.ResourceBlocker;
+import utils.ScreencastRecorder;
+import utils.SuiteLifecycle;
 import utils.TestManager;
+import utils.TimedWait;
+import utils.VideoEncoder;
+import utils.WebVitalsCollector;
 import org.openqa.selenium.By;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.time.Duration;
 import java.util.Date;
+import java.util.List;
 import java.util.Properties;
-import java.util.concurrent.TimeUnit;
 
 
 public class Hooks {
@@ -34,43 +57,93 @@ public class Hooks {
     protected WebDriverWait attente;
     private TestManager infosTest;
     private static boolean isFirstTest = true;
+    private DevicePool.Device appareil;
+    private WebDriver navigateur;
 
-    // Configuration de l'enregistrement vidéo
-    private Process videoProcess;
+    // Enregistrement vidéo par session (screencast DevTools)
+    private ScreencastRecorder enregistreur;
+    private File fichierVideo;
     private static final String VIDEO_DIR = "target/videos";
-    private static final String FFMPEG_COMMAND = "ffmpeg";
-    private static final int FRAME_RATE = 30;
-    private static final String VIDEO_RESOLUTION = "1920x1080";
+
+    @BeforeAll
+    public static void demarrerExecution() {
+        // Idempotent: déjà fait par l'orchestrateur s'il y en a un
+        SuiteLifecycle.demarrer();
+    }
+
+    @AfterAll
+    public static void terminerExecution() {
+        // Sous orchestration chaque scénario a son runtime: la clôture revient à l'orchestrateur, une seule fois
+        if (!SuiteLifecycle.isOrchestre()) {
+            SuiteLifecycle.terminer();
+        }
+    }
 
     @Before
     public void avantTout(Scenario scenario) {
         try {
             loadConfigurationProperties();
-            OS.OS = ConfigReader.getProperty("platformName");
+            // Plateforme, étape du rapport et session sont propres au thread du scénario
+            OS.definir(ConfigReader.getProperty("platformName"));
 
             infosTest = TestManager.getInstance();
+            infosTest.debutScenario();
             infosTest.setNomScenario(scenario.getName());
             infosTest.setNomEtape("Début du Test");
-            infosTest.setPlateforme(OS.OS);
+            infosTest.setPlateforme(OS.courant());
             infosTest.setStatut("DÉMARRÉ");
 
+            long debutSession = System.nanoTime();
+            CommandTimer.debutScenario();
             if (OS.isWeb()) {
-                startVideoRecording(scenario.getName());
-
-                if (Driver.Web == null) {
-                    Driver.Web = Driver.getWebDriver(ConfigReader.getProperty("browser"));
-                    this.attente = new WebDriverWait(Driver.Web, Duration.ofSeconds(10));
+                // Une session par scénario et par thread (locale ou routée vers la grid)
+                if (GridRouter.isConfigure()) {
+                    LiveMetrics.getInstance().enregistrerJauge("planity_pool_utilization_ratio",
+                            "Occupation des pools de sessions", "pool=\"grid\"", () -> {
+                                GridRouter grid = GridRouter.getInstance();
+                                return grid.getCapaciteTotale() == 0 ? 0 : (double) grid.getSessionsActives() / grid.getCapaciteTotale();
+                            });
+                }
+                navigateur = Driver.getWebDriver(ConfigReader.getProperty("browser"));
+                Driver.setCurrentDriver(navigateur);
+                this.attente = new TimedWait(navigateur, Duration.ofSeconds(10));
+
+                String profil = EmulationProfile.appliquer(navigateur,
+                        EmulationProfile.selectionner(scenario.getSourceTagNames()));
+                if (!profil.isEmpty()) {
+                    Allure.parameter("Profil d'émulation", profil);
                 }
+                String ressources = ResourceBlocker.appliquer(navigateur,
+                        ResourceBlocker.selectionner(scenario.getSourceTagNames()));
+                if (!ressources.isEmpty()) {
+                    Allure.parameter("Ressources", ressources);
+                }
+                WebVitalsCollector.getInstance().installer(navigateur);
+                if (Boolean.parseBoolean(ConfigReader.getProperty("network.enabled", "true"))) {
+                    NetworkRecorder.demarrer(navigateur);
+                }
+                if (Boolean.parseBoolean(ConfigReader.getProperty("leak.enabled", "true"))) {
+                    LeakTracker.demarrer(navigateur);
+                }
+                startVideoRecording(scenario.getName());
+                LiveMetrics.getInstance().sessionOuverte(System.nanoTime() - debutSession);
             } else if (OS.isAndroid()) {
                 infosTest.setResultatAttendu("L'application Android doit être lancée");
-                if (Driver.Android == null) {
-                    Driver.Android = Driver.getAndroidDriver(Driver.getAndroidApps());
-                }
+                appareil = DevicePool.getInstance().acquerir(OS.courant());
+                Driver.setCurrentDriver(appareil.getSession());
+                LiveMetrics.getInstance().sessionOuverte(System.nanoTime() - debutSession);
             } else if (OS.isIOS()) {
                 infosTest.setResultatAttendu("L'application iOS doit être lancée");
-                if (Driver.iOS == null) {
-                    Driver.iOS = Driver.getIOSDriver(Driver.getIOSApps());
-                }
+                appareil = DevicePool.getInstance().acquerir(OS.courant());
+                Driver.setCurrentDriver(appareil.getSession());
+                LiveMetrics.getInstance().sessionOuverte(System.nanoTime() - debutSession);
+            }
+            if (appareil != null) {
+                LiveMetrics.getInstance().enregistrerJauge("planity_pool_utilization_ratio",
+                        "Occupation des pools de sessions", "pool=\"appium\"", () -> {
+                            DevicePool pool = DevicePool.getInstance();
+                            return pool.getTaille() == 0 ? 0 : (double) pool.getOccupes() / pool.getTaille();
+                        });
             }
 
             TestManager.getInstance().ajouterInfosTest(infosTest);
@@ -88,88 +161,128 @@ public class Hooks {
         }
     }
 
+    @AfterStep
+    public void echantillonnerMemoire() {
+        LeakTracker fuites = LeakTracker.pour(Driver.getCurrentDriver());
+        if (fuites == null) return;
+        try {
+            fuites.echantillonner(TestManager.getInstance().getNomEtape());
+        } catch (Exception e) {
+            System.err.println("⚠️ Échantillon mémoire impossible: " + e.getMessage());
+        }
+    }
+
+    private void analyserFuites(Scenario scenario, WebDriver driver) {
+        LeakTracker fuites = LeakTracker.pour(driver);
+        if (fuites == null) return;
+        List<String> suspects = fuites.analyser();
+        if (!suspects.isEmpty()) {
+            System.out.println("\n💧 Fuite mémoire suspectée (" + fuites.getEchantillons() + " échantillons):");
+            suspects.forEach(s -> System.out.println("• " + s));
+            scenario.attach(String.join("\n", suspects) + "\n\n" + fuites.tableau(), "text/plain", "fuites-memoire");
+            TestManager.getInstance().signalerFuites(scenario.getName(), suspects);
+        }
+    }
+
     private void startVideoRecording(String scenarioName) {
+        String mode = ConfigReader.getProperty("video.mode", "failure");
+        if ("off".equalsIgnoreCase(mode)) return;
         try {
-            // Création du répertoire vidéo
-            new File(VIDEO_DIR).mkdirs();
-
-            // Génération du nom de fichier vidéo
-            String videoFileName = VIDEO_DIR + File.separator +
-                    scenarioName.replaceAll("[^a-zA-Z0-9-_\\.]", "_") + "_" +
-                    new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date()) + ".mp4";
-
-            // Configuration de la commande ffmpeg selon l'OS
-            String[] command;
-            if (System.getProperty("os.name").toLowerCase().contains("mac")) {
-                command = new String[]{
-                        FFMPEG_COMMAND,
-                        "-f", "avfoundation",
-                        "-i", "1",
-                        "-r", String.valueOf(FRAME_RATE),
-                        "-vcodec", "libx264",
-                        "-pix_fmt", "yuv420p",
-                        "-y",
-                        videoFileName
-                };
+            // Les images viennent du navigateur lui-même: indépendant de l'affichage et sûr en parallèle
+            fichierVideo = new File(VIDEO_DIR + File.separator + nomFichier(scenarioName) + ".mp4");
+            int fps = Integer.parseInt(ConfigReader.getProperty("video.fps", "10"));
+
+            FrameSink destination;
+            if ("failure".equalsIgnoreCase(mode)) {
+                // Seules les dernières secondes sont gardées en mémoire, écrites uniquement en cas d'échec
+                destination = new FrameRingBuffer(
+                        Integer.parseInt(ConfigReader.getProperty("video.retentionSeconds", "30")), fps,
+                        Long.parseLong(ConfigReader.getProperty("video.bufferMaxMb", "64")) * 1024 * 1024);
             } else {
-                command = new String[]{
-                        FFMPEG_COMMAND,
-                        "-f", "x11grab",
-                        "-video_size", VIDEO_RESOLUTION,
-                        "-i", ":0.0",
-                        "-r", String.valueOf(FRAME_RATE),
-                        "-vcodec", "libx264",
-                        "-pix_fmt", "yuv420p",
-                        "-y",
-                        videoFileName
-                };
+                destination = new VideoEncoder(fichierVideo, fps);
+                System.out.println("📹 Enregistrement vidéo démarré: " + fichierVideo.getPath());
             }
-
-            // Démarrage de l'enregistrement
-            ProcessBuilder processBuilder = new ProcessBuilder(command);
-            processBuilder.redirectErrorStream(true);
-            videoProcess = processBuilder.start();
-
-            System.out.println("📹 Enregistrement vidéo démarré: " + videoFileName);
-
+            enregistreur = new ScreencastRecorder(navigateur, destination).demarrer();
         } catch (Exception e) {
             System.err.println("⚠️ Erreur lors du démarrage de l'enregistrement vidéo: " + e.getMessage());
         }
     }
-    private void stopVideoRecording() {
-        if (videoProcess != null) {
-            try {
-                // Determine the operating system
-                String osName = System.getProperty("os.name").toLowerCase();
-
-                // Stop ffmpeg based on OS
-                if (osName.contains("mac") || osName.contains("linux")) {
-                    // For MacOS and Linux systems
-                    Runtime.getRuntime().exec("pkill -SIGINT -f ffmpeg");
-                } else {
-                    // For Windows systems
-                    Runtime.getRuntime().exec("taskkill /F /IM ffmpeg.exe");
-                    videoProcess.destroy();
-                }
-
-                // Wait for the process to end
-                boolean processStopped = videoProcess.waitFor(5, TimeUnit.SECONDS);
 
-                if (processStopped) {
-                    System.out.println("📹 Enregistrement vidéo terminé avec succès");
+    private void stopVideoRecording(String scenario, boolean echec) {
+        if (enregistreur != null) {
+            try {
+                // La capture s'arrête avant le quit; l'encodage se termine dans le pipeline d'artefacts
+                enregistreur.arreter();
+                FrameSink destination = enregistreur.getDestination();
+                if (destination instanceof FrameRingBuffer && echec) {
+                    FrameRingBuffer tampon = (FrameRingBuffer) destination;
+                    System.out.println("📹 Échec: écriture des " + tampon.getTaille() + " dernières images");
+                    File fichier = fichierVideo;
+                    VideoEncoder encodeur = new VideoEncoder(fichier, enregistreur.getFps());
+                    ArtifactPipeline.getInstance().soumettre(fichier.getName(), () -> {
+                        tampon.vider(encodeur);
+                        importerVideo(scenario, fichier);
+                    });
+                } else if (destination instanceof VideoEncoder) {
+                    File fichier = fichierVideo;
+                    ArtifactPipeline.getInstance().soumettre(fichier.getName(), () -> {
+                        destination.close();
+                        importerVideo(scenario, fichier);
+                    });
                 } else {
-                    System.out.println("⚠️ Le processus d'enregistrement vidéo n'a pas pu être arrêté dans le délai imparti");
-                    videoProcess.destroyForcibly();
+                    destination.close();
                 }
-
             } catch (Exception e) {
                 System.err.println("⚠️ Erreur lors de l'arrêt de l'enregistrement vidéo: " + e.getMessage());
-                e.printStackTrace();
             } finally {
-                videoProcess = null;
+                enregistreur = null;
+                fichierVideo = null;
             }
         }
     }
+
+    private static ArtifactStore magasin() {
+        return ArtifactStore.getInstance();
+    }
+
+    // Le rapport Excel reprend l'empreinte dans sa colonne Artefacts
+    private void stockerArtefact(Scenario scenario, String type, byte[] contenu, String extension) {
+        String empreinte = ArtifactStore.hash(contenu);
+        TestManager.getInstance().ajouterArtefact(scenario.getName(), type, empreinte);
+        ArtifactPipeline.getInstance().soumettre(type + " " + empreinte.substring(0, 12),
+                () -> magasin().stocker(contenu, extension));
+    }
+
+    // Décodage, réduction et réencodage dans le pipeline: @After ne fait que joindre le PNG brut à Allure
+    private void stockerCapture(Scenario scenario, byte[] png) {
+        scenario.attach(png, "image/png", "capture");
+        String nom = scenario.getName();
+        ArtifactPipeline.getInstance().soumettre("capture " + nom, () -> {
+            String empreinte = magasin().stocker(magasin().compresserCapture(png), magasin().getFormatCapture());
+            TestManager.getInstance().ajouterArtefact(nom, "capture", empreinte);
+        });
+    }
+
+    // Exécuté dans le pipeline, une fois l'encodage terminé
+    private static void importerVideo(String scenario, File fichier) {
+        if (!fichier.exists()) return;
+        String empreinte = magasin().importer(fichier);
+        TestManager.getInstance().ajouterArtefact(scenario, "video", empreinte);
+        System.out.println("📹 Vidéo " + empreinte.substring(0, 12) + ": " + magasin().getChemin(empreinte));
+    }
+
+    // Unique par scénario et par thread: plusieurs scénarios peuvent finir dans la même seconde
+    private static String nomFichier(String scenarioName) {
+        return scenarioName.replaceAll("[^a-zA-Z0-9-_\\.]", "_") + "_" +
+                new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date()) + "_" +
+                Long.toHexString(Thread.currentThread().getId());
+    }
+
+    // Site réel, ou faux site Planity local (fixture.enabled) pour les mesures du framework
+    private static String urlWeb() {
+        return FakePlanityServer.isActive() ? FakePlanityServer.getInstance().demarrer().getUrl() : URL_WEB;
+    }
+
     private void loadConfigurationProperties() {
         Properties properties = new Properties();
         try (FileInputStream input = new FileInputStream("config/configuration.properties")) {
@@ -198,7 +311,7 @@ public class Hooks {
                         WebElement element = attente.until(ExpectedConditions.elementToBeClickable(By.xpath(xpath)));
                         element.click();
                         resultats.append("✓ Élément cliqué: ").append(xpath).append("\n");
-                        Thread.sleep(1000);
+                        CommandTimer.pause(1000);
                     } catch (Exception e) {
                         resultats.append("⚠️ Élément non trouvé ou déjà géré: ").append(xpath).append("\n");
                     }
@@ -222,7 +335,7 @@ public class Hooks {
                             ));
                             element.click();
                             resultats.append("✓ iOS permission handled: ").append(permission).append("\n");
-                            Thread.sleep(1000);
+                            CommandTimer.pause(1000);
                         } catch (Exception e) {
                             resultats.append("⚠️ iOS permission not found or already handled: ")
                                     .append(permission).append("\n");
@@ -246,31 +359,40 @@ public class Hooks {
     public void lanceApp() {
         infosTest = TestManager.getInstance();
         infosTest.setNomEtape("Lancement de l'Application");
+        CommandTimer.debutEtape();
+        long debut = System.nanoTime();
+        boolean echec = true;
 
         try {
             WebDriver driver = Driver.getCurrentDriver();
             if (driver != null) {
                 if (OS.isWeb()) {
-                    System.out.println("🚀 Lancement de l'application web : " + URL_WEB);
-                    driver.get(URL_WEB);
-                    this.attente = new WebDriverWait(driver, Duration.ofSeconds(10));
+                    String url = urlWeb();
+                    System.out.println("🚀 Lancement de l'application web : " + url);
+                    driver.get(url);
+                    this.attente = new TimedWait(driver, Duration.ofSeconds(10));
                     gererPopupsEtCookies();
+                    PlanityStep.mesurerPerformance(infosTest, "Lancement de l'Application");
                 } else if (OS.isAndroid() || OS.isIOS()) {
                     System.out.println("🚀 Lancement de l'application mobile");
                 }
                 infosTest.setStatut("REUSSI");
                 infosTest.setResultatReel("L'application a été lancée avec succès");
                 if (OS.isWeb()) {
-                    infosTest.setUrl(URL_WEB);
+                    infosTest.setUrl(urlWeb());
                 }
+                echec = false;
             } else {
                 throw new RuntimeException("Driver non initialisé");
             }
-        } catch (Exception e) {
+        } catch (Exception | AssertionError e) {
+            // AssertionError: budget Web Vitals du chargement en mode fail
             infosTest.setStatut("ECHEC");
             infosTest.setMessageErreur("Erreur de lancement: " + e.getMessage());
             throw e;
         } finally {
+            infosTest.setRepartitionTemps(CommandTimer.finEtape().toString());
+            LiveMetrics.getInstance().etapeTerminee(System.nanoTime() - debut, echec, infosTest.getMessageErreur());
             TestManager.getInstance().ajouterInfosTest(infosTest);
         }
     }
@@ -286,14 +408,22 @@ public class Hooks {
             WebDriver driver = Driver.getCurrentDriver();
             if (driver != null) {
                 if (OS.isWeb()) {
-                    infosTest.setUrl(driver.getCurrentUrl());
+                    analyserFuites(scenario, driver);
                 }
 
                 if (scenario.isFailed()) {
                     infosTest.setStatut("ECHEC");
+                    if (OS.isWeb()) {
+                        infosTest.setUrl(driver.getCurrentUrl());
+                    }
                     if (driver instanceof TakesScreenshot) {
+                        // Capture recompressée et référencée par son empreinte en arrière-plan
                         byte[] screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
-                        scenario.attach(screenshot, "image/png", "screenshot-erreur");
+                        stockerCapture(scenario, screenshot);
+                        if (OS.isWeb()) {
+                            stockerArtefact(scenario, "source", driver.getPageSource().getBytes(StandardCharsets.UTF_8),
+                                    "html");
+                        }
                         infosTest.setResultatReel("Test échoué - Capture d'écran ajoutée");
                         System.out.println("\n🔍 Analyse de l'échec:");
                         System.out.println(infosTest.getMessageErreur());
@@ -301,6 +431,9 @@ public class Hooks {
                 } else {
                     infosTest.setStatut("REUSSI");
                     infosTest.setResultatReel("Test terminé avec succès");
+                    if (CommandTimer.derniereUrl() != null) {
+                        infosTest.setUrl(CommandTimer.derniereUrl());
+                    }
                 }
             }
 
@@ -309,32 +442,55 @@ public class Hooks {
             infosTest.setMessageErreur("Erreur finale: " + e.getMessage());
         } finally {
             if (OS.isWeb()) {
-                stopVideoRecording();
+                stopVideoRecording(scenario.getName(), scenario.isFailed());
             }
             TestManager.getInstance().ajouterInfosTest(infosTest);
 
             System.out.println("\n📊 Résumé du test:");
             System.out.println("• Scénario: " + scenario.getName());
             System.out.println("• Statut: " + infosTest.getStatut());
+            System.out.println("• Appels WebDriver: " + CommandTimer.getCommandesScenario());
+            if (OS.isWeb()) {
+                String economies = ResourceBlocker.bilan(Driver.getCurrentDriver());
+                if (!economies.isEmpty()) {
+                    System.out.println("• Ressources: " + economies);
+                }
+            }
 
-            TestManager.getInstance().genererRapport("Planity");
-            quitterDriver();
+            LiveMetrics.getInstance().scenarioTermine(scenario.isFailed());
+            ArtifactPipeline.getInstance().planifierRapport("Planity");
+            quitterDriver(scenario.isFailed());
+            TestManager.getInstance().finScenario();
+            OS.definir(null);
         }
     }
 
-    private void quitterDriver() {
+    private void quitterDriver(boolean echec) {
         try {
-            WebDriver driver = Driver.getCurrentDriver();
-            if (driver != null) {
-                if (OS.isAndroid() && Driver.Android != null) {
-                    Driver.Android.terminateApp(getAppPackage());
-                    Driver.Android = null;
-                } else if (OS.isIOS() && Driver.iOS != null) {
-                    Driver.iOS.terminateApp(getBundleId());
-                    Driver.iOS = null;
-                } else if (OS.isWeb() && Driver.Web != null) {
-                    Driver.Web.quit();
-                    Driver.Web = null;
+            if (appareil != null) {
+                // La session reste ouverte: l'appareil retourne au pool (terminateApp)
+                DevicePool.getInstance().liberer(appareil, echec);
+                LiveMetrics.getInstance().sessionFermee();
+                appareil = null;
+                Driver.setCurrentDriver(null);
+            } else {
+                if (navigateur != null) {
+                    // Sur le thread du scénario: le navigateur et son slot de grid sont rendus avant le scénario
+                    // suivant, sans attendre derrière les encodages vidéo et rapports du pipeline d'artefacts
+                    WebDriver session = navigateur;
+                    navigateur = null;
+                    Driver.setCurrentDriver(null);
+                    NetworkRecorder.arreter(session);
+                    EmulationProfile.oublier(session);
+                    WebVitalsCollector.getInstance().oublier(session);
+                    ResourceBlocker.oublier(session);
+                    LeakTracker.arreter(session);
+                    DevToolsSupport.fermer(session);
+                    try {
+                        Driver.quitWebDriver(session);
+                    } finally {
+                        LiveMetrics.getInstance().sessionFermee();
+                    }
                 }
             }
         } catch (Exception e) {
@@ -2,39 +2,123 @@ package stepdefinitions;
 
 import io.cucumber.java.en.When;
 import io.cucumber.java.en.Then;
+import io.qameta.allure.Allure;
 import pages.PlanityPage;
+import utils.ArtifactPipeline;
+import utils.ArtifactStore;
+import utils.CommandTimer;
 import utils.Driver;
+import utils.LiveMetrics;
+import utils.NetworkRecorder;
 import utils.TestManager;
+import utils.WebVitalsCollector;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
 
 public class PlanityStep {
     private PlanityPage planityPage = new PlanityPage();
     private TestManager testManager;
-    private static String currentScenarioName;
 
     public PlanityStep() {
         testManager = TestManager.getInstance();
     }
 
-    private void executeStep(String stepName, String expectedResult, Runnable action) {
+    // Visible dans le package pour le banc d'essai du surcoût framework (src/jmh/java)
+    void executeStep(String stepName, String expectedResult, Runnable action) {
+        NetworkRecorder reseau = NetworkRecorder.pour(Driver.getCurrentDriver());
+        long debut = System.nanoTime();
+        boolean echec = true;
+        CommandTimer.debutEtape();
         try {
-            testManager.setNomScenario(currentScenarioName);
             testManager.setNomEtape(stepName);
             testManager.setResultatAttendu(expectedResult);
+            if (reseau != null) {
+                reseau.debutEtape();
+            }
             action.run();
+            mesurerPerformance(testManager, stepName);
+            CommandTimer.controlerBudget(stepName);
+            echec = false;
             testManager.setStatut("REUSSI");
-            String currentUrl = Driver.getCurrentDriver().getCurrentUrl();
+            // URL déjà connue par le flux de commandes; un getCurrentUrl seulement en cas d'échec
+            String currentUrl = CommandTimer.derniereUrl();
             if (currentUrl != null) {
                 testManager.setUrl(currentUrl);
             }
-        } catch (Exception e) {
+        } catch (Exception | AssertionError e) {
+            // AssertionError: vérifications de la glue et budgets en mode fail (Web Vitals, appels WebDriver)
             testManager.setStatut("ECHEC");
             testManager.setMessageErreur(e.getMessage());
+            testManager.setUrl(urlSurEchec());
             throw e;
         } finally {
+            long dureeNs = System.nanoTime() - debut;
+            analyserReseau(reseau, stepName, TimeUnit.NANOSECONDS.toMillis(dureeNs), echec);
+            testManager.setRepartitionTemps(CommandTimer.finEtape().toString());
+            LiveMetrics.getInstance().etapeTerminee(dureeNs, echec, testManager.getMessageErreur());
             TestManager.getInstance().ajouterInfosTest(testManager);
         }
     }
 
+    private static String urlSurEchec() {
+        try {
+            return Driver.getCurrentDriver().getCurrentUrl();
+        } catch (Exception e) {
+            return CommandTimer.derniereUrl();
+        }
+    }
+
+    // Cascade réseau de l'étape: export HAR uniquement si l'étape échoue, est lente ou contient une requête lente
+    private void analyserReseau(NetworkRecorder reseau, String stepName, long dureeMs, boolean echec) {
+        if (reseau == null) return;
+        try {
+            NetworkRecorder.Etape etape = reseau.finEtape(stepName, dureeMs, echec);
+            etape.getLentes().stream()
+                    .sorted(Comparator.comparingDouble(NetworkRecorder.Requete::getDureeMs).reversed())
+                    .limit(3)
+                    .forEach(r -> System.out.printf("🐢 %d ms [%d] %s%n", Math.round(r.getDureeMs()), r.getStatut(), r.getUrl()));
+            if (etape.getHar() != null) {
+                byte[] har = etape.getHar().getBytes(StandardCharsets.UTF_8);
+                Allure.addAttachment("Réseau - " + stepName, "application/json", etape.getHar(), ".har");
+                testManager.ajouterArtefact(testManager.getNomScenario(), "har", ArtifactStore.hash(har));
+                ArtifactPipeline.getInstance().soumettre("har " + stepName, () -> ArtifactStore.getInstance().stocker(har, "har"));
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Analyse réseau impossible: " + e.getMessage());
+        }
+    }
+
+    // Web Vitals de la page après l'action; budget dépassé => avertissement ou échec selon perf.budget.mode.
+    // Aussi appelé par Hooks.lanceApp: le chargement de la page d'accueil est mesuré à son étape
+    static void mesurerPerformance(TestManager testManager, String stepName) {
+        WebVitalsCollector collecteur = WebVitalsCollector.getInstance();
+        if (!collecteur.isActif()) return;
+        WebVitalsCollector.Mesure mesure;
+        try {
+            mesure = collecteur.mesurer(Driver.getCurrentDriver(), testManager.getNomScenario(), stepName);
+            if (mesure == null) return;
+            testManager.setPerformance(mesure.resume());
+            testManager.ajouterMesurePerformance(mesure);
+            Allure.addAttachment("Web Vitals - " + mesure.getPage(), "text/plain", mesure.resume()
+                    + (mesure.getDepassements().isEmpty() ? "" : "\n" + String.join("\n", mesure.getDepassements())));
+        } catch (RuntimeException e) {
+            // Mesure impossible (page en cours de navigation, script refusé...): l'étape elle-même a réussi
+            System.err.println("⚠️ Web Vitals non mesurés pour " + stepName + ": " + e.getMessage());
+            return;
+        }
+        // Seul un budget réellement dépassé, en mode fail, fait échouer l'étape
+        if (!mesure.getDepassements().isEmpty()) {
+            String message = "Budget de performance dépassé sur " + mesure.getPage() + ": "
+                    + String.join(", ", mesure.getDepassements());
+            if (collecteur.isBloquant()) {
+                throw new AssertionError(message);
+            }
+            System.out.println("⚠️ " + message);
+        }
+    }
+
     @When("Je clique sur le lien {string} dans le menu")
     public void jeCliqueSurLeLienDansLeMenu(String lien) {
         executeStep(
@@ -66,7 +150,7 @@ public class PlanityStep {
                 "Le bouton doit être cliqué",
                 () -> {
                     try {
-                        Thread.sleep(2000);
+                        CommandTimer.pause(2000);
                         planityPage.cliquerBtnRechercher();
                         testManager.setResultatReel("Clic effectué sur le bouton " + Rechercher);
                     } catch (InterruptedException e) {
@@ -89,7 +173,7 @@ public class PlanityStep {
                     testManager.setResultatReel("Liste des coiffeurs affichée avec succès");
                     planityPage.cliquerLienCoiffeurParis();
                     try {
-                        Thread.sleep(4000);
+                        CommandTimer.pause(4000);
                     } catch (InterruptedException e) {
                         throw new RuntimeException(e);
                     }
@@ -0,0 +1,111 @@
+package utils;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Écritures d'artefacts (captures, sources de page, vidéos, rapport Excel) hors du thread de test.
+// File bornée: quand elle est pleine, le thread de test exécute lui-même la tâche (contre-pression).
+public class ArtifactPipeline {
+    private final ThreadPoolExecutor executeur;
+    private final AtomicBoolean rapportPlanifie = new AtomicBoolean();
+    private final AtomicInteger enCours = new AtomicInteger();
+    private final AtomicInteger echecs = new AtomicInteger();
+    private final ReentrantLock verrou = new ReentrantLock();
+    private final Condition termine = verrou.newCondition();
+
+    private static class Holder {
+        private static final ArtifactPipeline INSTANCE = new ArtifactPipeline();
+    }
+
+    public static ArtifactPipeline getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private ArtifactPipeline() {
+        int ecrivains = Integer.parseInt(ConfigReader.getProperty("artifacts.writers", "2"));
+        int capacite = Integer.parseInt(ConfigReader.getProperty("artifacts.queueSize", "64"));
+        AtomicInteger numero = new AtomicInteger();
+        executeur = new ThreadPoolExecutor(ecrivains, ecrivains, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacite),
+                r -> {
+                    Thread t = new Thread(r, "artefacts-" + numero.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executeur.allowCoreThreadTimeOut(true);
+
+        // Filet de sécurité si @AfterAll n'est pas atteint (interruption, exécution hors Cucumber)
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> vider(Duration.ofSeconds(
+                Long.parseLong(ConfigReader.getProperty("artifacts.flushTimeout", "120")))), "artefacts-flush"));
+    }
+
+    public void soumettre(String description, Runnable tache) {
+        enCours.incrementAndGet();
+        executeur.execute(() -> {
+            try {
+                tache.run();
+            } catch (Exception e) {
+                echecs.incrementAndGet();
+                System.err.println("⚠️ Artefact non écrit (" + description + "): " + e.getMessage());
+            } finally {
+                terminer();
+            }
+        });
+    }
+
+    // Le rapport relit tout l'état du TestManager: une seule régénération en attente suffit
+    public void planifierRapport(String nomRapport) {
+        if (rapportPlanifie.compareAndSet(false, true)) {
+            soumettre("rapport " + nomRapport, () -> {
+                rapportPlanifie.set(false);
+                TestManager.getInstance().genererRapport(nomRapport);
+            });
+        }
+    }
+
+    private void terminer() {
+        if (enCours.decrementAndGet() == 0) {
+            verrou.lock();
+            try {
+                termine.signalAll();
+            } finally {
+                verrou.unlock();
+            }
+        }
+    }
+
+    // Attend l'écriture de tous les artefacts soumis; false si le délai est dépassé
+    public boolean vider(Duration delai) {
+        long restantNs = delai.toNanos();
+        verrou.lock();
+        try {
+            while (enCours.get() > 0) {
+                if (restantNs <= 0) {
+                    System.err.println("⚠️ " + enCours.get() + " artefact(s) encore en cours d'écriture");
+                    return false;
+                }
+                restantNs = termine.awaitNanos(restantNs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            verrou.unlock();
+        }
+        if (echecs.get() > 0) {
+            System.err.println("⚠️ " + echecs.get() + " artefact(s) en échec d'écriture");
+        }
+        return true;
+    }
+
+    public int getEnAttente() {
+        return enCours.get();
+    }
+}
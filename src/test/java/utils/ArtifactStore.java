@@ -0,0 +1,265 @@
+package utils;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Magasin d'artefacts adressé par contenu: objets/ab/abcdef....ext, un seul exemplaire par contenu (SHA-256).
+// Les captures sont recompressées; la taille totale est bornée avec éviction du moins récemment utilisé.
+public class ArtifactStore {
+    private final Path racine;
+    private final long budgetOctets;
+    private final String formatCapture;
+    private final double echelleCapture;
+    private final float qualiteCapture;
+
+    private final Map<String, Path> objets = new ConcurrentHashMap<>();
+    private final AtomicLong tailleTotale = new AtomicLong();
+    private final ReentrantLock eviction = new ReentrantLock();
+
+    private static class Holder {
+        private static final ArtifactStore INSTANCE = new ArtifactStore();
+    }
+
+    public static ArtifactStore getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private ArtifactStore() {
+        racine = Paths.get(ConfigReader.getProperty("artifacts.store.dir", "target/artefacts/objets"));
+        budgetOctets = Long.parseLong(ConfigReader.getProperty("artifacts.store.maxMb", "512")) * 1024 * 1024;
+        formatCapture = ConfigReader.getProperty("artifacts.screenshot.format", "jpg");
+        echelleCapture = Double.parseDouble(ConfigReader.getProperty("artifacts.screenshot.scale", "0.5"));
+        qualiteCapture = Float.parseFloat(ConfigReader.getProperty("artifacts.screenshot.quality", "0.7"));
+        indexer();
+    }
+
+    // Les objets des exécutions précédentes comptent dans le budget
+    private void indexer() {
+        if (!Files.isDirectory(racine)) return;
+        try (Stream<Path> flux = Files.walk(racine, 2)) {
+            flux.filter(Files::isRegularFile).filter(f -> !f.toString().endsWith(".tmp")).forEach(f -> {
+                objets.put(hashDepuisNom(f), f);
+                tailleTotale.addAndGet(f.toFile().length());
+            });
+        } catch (IOException e) {
+            System.err.println("⚠️ Indexation du magasin d'artefacts impossible: " + e.getMessage());
+        }
+    }
+
+    public static String hash(byte[] contenu) {
+        return hex(digest().digest(contenu));
+    }
+
+    // Taille et format de capture configurables: PNG plein écran -> JPEG réduit par défaut
+    public byte[] compresserCapture(byte[] png) {
+        try {
+            BufferedImage source = ImageIO.read(new ByteArrayInputStream(png));
+            if (source == null) return png;
+
+            int largeur = Math.max(1, (int) Math.round(source.getWidth() * echelleCapture));
+            int hauteur = Math.max(1, (int) Math.round(source.getHeight() * echelleCapture));
+            BufferedImage image = new BufferedImage(largeur, hauteur, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = image.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, 0, 0, largeur, hauteur, null);
+            g.dispose();
+
+            Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(formatCapture);
+            if (!writers.hasNext()) return png;
+            ImageWriter writer = writers.next();
+            ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+            try (ImageOutputStream ios = ImageIO.createImageOutputStream(sortie)) {
+                writer.setOutput(ios);
+                ImageWriteParam parametres = writer.getDefaultWriteParam();
+                if (parametres.canWriteCompressed()) {
+                    parametres.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    if (parametres.getCompressionType() == null) {
+                        parametres.setCompressionType(parametres.getCompressionTypes()[0]);
+                    }
+                    parametres.setCompressionQuality(qualiteCapture);
+                }
+                writer.write(null, new IIOImage(image, null, null), parametres);
+            } finally {
+                writer.dispose();
+            }
+            return sortie.toByteArray();
+        } catch (IOException e) {
+            System.err.println("⚠️ Recompression de la capture impossible: " + e.getMessage());
+            return png;
+        }
+    }
+
+    public String getFormatCapture() {
+        return formatCapture;
+    }
+
+    // Stocke le contenu s'il est nouveau; sinon marque l'objet existant comme récemment utilisé
+    public String stocker(byte[] contenu, String extension) {
+        String empreinte = hash(contenu);
+        Path existant = objets.get(empreinte);
+        if (existant != null && Files.exists(existant)) {
+            toucher(existant);
+            return empreinte;
+        }
+        Path cible = chemin(empreinte, extension);
+        try {
+            Files.createDirectories(cible.getParent());
+            Path temporaire = Files.createTempFile(cible.getParent(), empreinte, ".tmp");
+            Files.write(temporaire, contenu);
+            deplacer(temporaire, cible);
+        } catch (IOException e) {
+            throw new IllegalStateException("Écriture de l'artefact " + empreinte + " impossible: " + e.getMessage(), e);
+        }
+        enregistrer(empreinte, cible);
+        return empreinte;
+    }
+
+    // Déplace un fichier déjà écrit (vidéo, rapport) dans le magasin; le doublon éventuel est supprimé
+    public String importer(File fichier) {
+        String extension = extension(fichier.getName());
+        try {
+            String empreinte = hash(fichier.toPath());
+            Path existant = objets.get(empreinte);
+            if (existant != null && Files.exists(existant)) {
+                Files.deleteIfExists(fichier.toPath());
+                toucher(existant);
+                return empreinte;
+            }
+            Path cible = chemin(empreinte, extension);
+            Files.createDirectories(cible.getParent());
+            deplacer(fichier.toPath(), cible);
+            enregistrer(empreinte, cible);
+            return empreinte;
+        } catch (IOException e) {
+            throw new IllegalStateException("Import de " + fichier + " impossible: " + e.getMessage(), e);
+        }
+    }
+
+    public Path getChemin(String empreinte) {
+        return objets.get(empreinte);
+    }
+
+    public long getTailleTotale() {
+        return tailleTotale.get();
+    }
+
+    private void enregistrer(String empreinte, Path cible) {
+        if (objets.put(empreinte, cible) == null) {
+            tailleTotale.addAndGet(cible.toFile().length());
+        }
+        if (tailleTotale.get() > budgetOctets) {
+            evincer(empreinte);
+        }
+    }
+
+    // LRU sur la date de dernière utilisation (mtime), sans jamais supprimer l'objet qui vient d'arriver
+    private void evincer(String protege) {
+        eviction.lock();
+        try {
+            // Une lecture de mtime par fichier: le tri ne refait pas un stat à chaque comparaison
+            List<Map.Entry<String, Path>> entrees = new ArrayList<>(objets.entrySet());
+            Map<String, Long> dates = new HashMap<>(entrees.size() * 2);
+            entrees.forEach(e -> dates.put(e.getKey(), e.getValue().toFile().lastModified()));
+            entrees.sort(Comparator.comparingLong(e -> dates.get(e.getKey())));
+            Iterator<Map.Entry<String, Path>> anciens = entrees.iterator();
+            while (tailleTotale.get() > budgetOctets && anciens.hasNext()) {
+                Map.Entry<String, Path> entree = anciens.next();
+                if (entree.getKey().equals(protege)) continue;
+                long taille = entree.getValue().toFile().length();
+                try {
+                    Files.deleteIfExists(entree.getValue());
+                    objets.remove(entree.getKey());
+                    tailleTotale.addAndGet(-taille);
+                } catch (IOException e) {
+                    System.err.println("⚠️ Éviction impossible: " + entree.getValue());
+                }
+            }
+        } finally {
+            eviction.unlock();
+        }
+    }
+
+    private static void toucher(Path fichier) {
+        try {
+            Files.setLastModifiedTime(fichier, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+            // L'ordre LRU sera simplement moins précis
+        }
+    }
+
+    private static void deplacer(Path source, Path cible) throws IOException {
+        try {
+            Files.move(source, cible, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, cible, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private Path chemin(String empreinte, String extension) {
+        return racine.resolve(empreinte.substring(0, 2)).resolve(empreinte + (extension.isEmpty() ? "" : "." + extension));
+    }
+
+    private static String hashDepuisNom(Path fichier) {
+        String nom = fichier.getFileName().toString();
+        int point = nom.indexOf('.');
+        return point < 0 ? nom : nom.substring(0, point);
+    }
+
+    private static String extension(String nom) {
+        int point = nom.lastIndexOf('.');
+        return point < 0 ? "" : nom.substring(point + 1);
+    }
+
+    private static String hash(Path fichier) throws IOException {
+        MessageDigest md = digest();
+        byte[] tampon = new byte[64 * 1024];
+        try (InputStream entree = Files.newInputStream(fichier)) {
+            int lus;
+            while ((lus = entree.read(tampon)) > 0) {
+                md.update(tampon, 0, lus);
+            }
+        }
+        return hex(md.digest());
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] octets) {
+        StringBuilder sb = new StringBuilder(octets.length * 2);
+        for (byte b : octets) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,368 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.CommandExecutor;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.Response;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Attribution du temps d'une étape: commandes WebDriver distantes, attentes (polling), pauses explicites
+// et le reste (framework, glue). Compteurs par thread: chaque scénario parallèle a sa propre répartition.
+public class CommandTimer implements WebDriverListener {
+    private static final CommandTimer INSTANCE = new CommandTimer();
+    private static final boolean ACTIF = Boolean.parseBoolean(ConfigReader.getProperty("timing.enabled", "true"));
+    private static final Map<WebDriver, WebDriver> ORIGINAUX = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Compteurs> COURANT = ThreadLocal.withInitial(Compteurs::new);
+    private static final StackWalker PILE = StackWalker.getInstance();
+    private static final List<String> NOS_PACKAGES = Arrays.asList("pages.", "stepdefinitions.");
+    // Décorateur uniquement: méthodes qui renvoient un objet local sans partir sur le fil
+    private static final Set<String> HORS_FIL = new HashSet<>(Arrays.asList("manage", "switchTo", "navigate",
+            "window", "timeouts", "logs", "getWrappedDriver", "getWrappedElement", "toString", "hashCode", "equals"));
+    // Budget d'appels distants par étape (0 = pas de contrôle); au-delà: avertissement ou échec
+    private static final int BUDGET_ETAPE = Integer.parseInt(ConfigReader.getProperty("remote.budget.perStep", "0"));
+    private static final boolean BUDGET_BLOQUANT = "fail".equalsIgnoreCase(ConfigReader.getProperty("remote.budget.mode", "warn"));
+
+    // "catégorie|source" -> {appels, nanosecondes}, cumulés sur toute l'exécution
+    private static final Map<String, LongAdder[]> CONSOMMATEURS = new ConcurrentHashMap<>();
+    // {appels, nanosecondes} des commandes émises pendant une attente: déjà comptées dans remote et attente
+    private static final LongAdder[] REMOTE_ATTENTES = {new LongAdder(), new LongAdder()};
+
+    public static final String REMOTE = "remote";
+    public static final String ATTENTE = "attente";
+    public static final String PAUSE = "pause";
+    public static final String FRAMEWORK = "framework";
+    public static final String REMOTE_DANS_ATTENTES = "remote dans attentes";
+
+    private static class Compteurs {
+        long debutEtape = System.nanoTime();
+        long remote;
+        long remoteDansAttentes;
+        long attente;
+        long pause;
+        int commandes;
+        int commandesScenario;
+        // Dernière URL connue sans aller-retour: navigations et lectures déjà faites par le code
+        String derniereUrl;
+        int profondeur;
+        int profondeurAttente;
+        long debutCommande;
+    }
+
+    public static class Repartition {
+        private final long total;
+        private final long remote;
+        private final long attente;
+        private final long pause;
+        private final long framework;
+        private final int commandes;
+        // Part de l'attente passée dans des commandes distantes (polling): explique une attente longue
+        private final long remoteDansAttentes;
+
+        Repartition(long total, long remote, long attente, long pause, int commandes, long remoteDansAttentes) {
+            this.total = total;
+            this.remote = remote;
+            this.attente = attente;
+            this.remoteDansAttentes = remoteDansAttentes;
+            this.pause = pause;
+            this.framework = Math.max(0, total - remote - attente - pause);
+            this.commandes = commandes;
+        }
+
+        public long getTotalMs() {
+            return TimeUnit.NANOSECONDS.toMillis(total);
+        }
+
+        public long getRemoteMs() {
+            return TimeUnit.NANOSECONDS.toMillis(remote);
+        }
+
+        public long getAttenteMs() {
+            return TimeUnit.NANOSECONDS.toMillis(attente);
+        }
+
+        public long getRemoteDansAttentesMs() {
+            return TimeUnit.NANOSECONDS.toMillis(remoteDansAttentes);
+        }
+
+        public long getPauseMs() {
+            return TimeUnit.NANOSECONDS.toMillis(pause);
+        }
+
+        public long getFrameworkMs() {
+            return TimeUnit.NANOSECONDS.toMillis(framework);
+        }
+
+        public int getCommandes() {
+            return commandes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d ms = remote %d ms (%d cmd) + attente %d ms (dont remote %d ms) + pause %d ms + framework %d ms",
+                    getTotalMs(), getRemoteMs(), commandes, getAttenteMs(), getRemoteDansAttentesMs(), getPauseMs(),
+                    getFrameworkMs());
+        }
+    }
+
+    private CommandTimer() {
+    }
+
+    // Chaque session construite par Driver passe par ici. Un RemoteWebDriver est chronométré au niveau de son
+    // CommandExecutor: chaque commande sur le fil, du driver ou d'un élément, sans proxy (le décorateur génère
+    // une classe par élément trouvé, quelques ms par clic). Les autres drivers (faux drivers des benchmarks)
+    // passent par le décorateur; le driver d'origine reste accessible (grid, DevTools)
+    public static WebDriver instrumenter(WebDriver driver) {
+        if (!ACTIF || driver == null) return driver;
+        if (driver instanceof RemoteWebDriver && brancher((RemoteWebDriver) driver)) {
+            return driver;
+        }
+        WebDriver decore = new EventFiringDecorator<>(INSTANCE).decorate(driver);
+        ORIGINAUX.put(decore, driver);
+        return decore;
+    }
+
+    private static boolean brancher(RemoteWebDriver driver) {
+        try {
+            Method setter = RemoteWebDriver.class.getDeclaredMethod("setCommandExecutor", CommandExecutor.class);
+            setter.setAccessible(true);
+            setter.invoke(driver, new ExecuteurChronometre(driver.getCommandExecutor()));
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            System.err.println("⚠️ Chronométrage des commandes par décorateur (CommandExecutor inaccessible): " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static final class ExecuteurChronometre implements CommandExecutor {
+        private final CommandExecutor delegue;
+
+        ExecuteurChronometre(CommandExecutor delegue) {
+            this.delegue = delegue;
+        }
+
+        @Override
+        public Response execute(Command command) throws IOException {
+            debuterCommande();
+            Response reponse = null;
+            try {
+                reponse = delegue.execute(command);
+                return reponse;
+            } finally {
+                terminerCommande(command.getName());
+                if (DriverCommand.GET.equals(command.getName()) && command.getParameters().get("url") != null) {
+                    COURANT.get().derniereUrl = command.getParameters().get("url").toString();
+                } else if (DriverCommand.GET_CURRENT_URL.equals(command.getName())
+                        && reponse != null && reponse.getValue() != null) {
+                    COURANT.get().derniereUrl = reponse.getValue().toString();
+                }
+            }
+        }
+    }
+
+    public static WebDriver original(WebDriver driver) {
+        return driver == null ? null : ORIGINAUX.getOrDefault(driver, driver);
+    }
+
+    public static void oublier(WebDriver driver) {
+        if (driver != null) {
+            ORIGINAUX.remove(driver);
+        }
+    }
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        if (HORS_FIL.contains(method.getName())) return;
+        debuterCommande();
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        if (HORS_FIL.contains(method.getName())) return;
+        terminerCommande(method.getName());
+        String nom = method.getName();
+        if (("get".equals(nom) || "to".equals(nom)) && args != null && args.length == 1 && args[0] != null) {
+            COURANT.get().derniereUrl = args[0].toString();
+        } else if ("getCurrentUrl".equals(nom) && result != null) {
+            COURANT.get().derniereUrl = result.toString();
+        }
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        if (HORS_FIL.contains(method.getName())) return;
+        terminerCommande(method.getName());
+    }
+
+    private static void debuterCommande() {
+        Compteurs c = COURANT.get();
+        if (c.profondeur++ == 0) {
+            c.debutCommande = System.nanoTime();
+        }
+    }
+
+    private static void terminerCommande(String commande) {
+        Compteurs c = COURANT.get();
+        if (c.profondeur == 0 || --c.profondeur > 0) return;
+        long duree = System.nanoTime() - c.debutCommande;
+        c.commandes++;
+        c.commandesScenario++;
+        if (c.profondeurAttente > 0) {
+            c.remoteDansAttentes += duree;
+            REMOTE_ATTENTES[0].increment();
+            REMOTE_ATTENTES[1].add(duree);
+        } else {
+            c.remote += duree;
+        }
+        cumuler(REMOTE, commande, duree);
+    }
+
+    // Appelé par TimedWait: le polling (commandes comprises) est compté comme attente
+    public static <V> V mesurerAttente(Supplier<V> attente) {
+        Compteurs c = COURANT.get();
+        boolean externe = c.profondeurAttente++ == 0;
+        long debut = System.nanoTime();
+        try {
+            return attente.get();
+        } finally {
+            c.profondeurAttente--;
+            if (externe) {
+                long duree = System.nanoTime() - debut;
+                c.attente += duree;
+                cumuler(ATTENTE, appelant(), duree);
+            }
+        }
+    }
+
+    // Remplace Thread.sleep dans la glue et les pages pour que les pauses fixes apparaissent dans le rapport
+    public static void pause(long millis) throws InterruptedException {
+        long debut = System.nanoTime();
+        try {
+            Thread.sleep(millis);
+        } finally {
+            long duree = System.nanoTime() - debut;
+            COURANT.get().pause += duree;
+            cumuler(PAUSE, appelant(), duree);
+        }
+    }
+
+    public static void debutScenario() {
+        Compteurs c = COURANT.get();
+        c.commandesScenario = 0;
+        c.derniereUrl = null;
+    }
+
+    public static int getCommandesScenario() {
+        return COURANT.get().commandesScenario;
+    }
+
+    // URL vue passer dans le flux des commandes (ou lue par un script déjà exécuté), null si inconnue
+    public static String derniereUrl() {
+        return COURANT.get().derniereUrl;
+    }
+
+    public static void noterUrl(String url) {
+        if (url != null) {
+            COURANT.get().derniereUrl = url;
+        }
+    }
+
+    // À appeler à la fin de l'action d'une étape: signale une étape trop bavarde avec le réseau
+    public static void controlerBudget(String etape) {
+        int commandes = COURANT.get().commandes;
+        if (BUDGET_ETAPE <= 0 || commandes <= BUDGET_ETAPE) return;
+        String message = "Budget d'appels WebDriver dépassé pour \"" + etape + "\": "
+                + commandes + " > " + BUDGET_ETAPE;
+        if (BUDGET_BLOQUANT) {
+            throw new AssertionError(message);
+        }
+        System.out.println("⚠️ " + message);
+    }
+
+    public static void debutEtape() {
+        Compteurs c = COURANT.get();
+        c.debutEtape = System.nanoTime();
+        c.remote = 0;
+        c.remoteDansAttentes = 0;
+        c.attente = 0;
+        c.pause = 0;
+        c.commandes = 0;
+    }
+
+    public static Repartition finEtape() {
+        Compteurs c = COURANT.get();
+        long total = System.nanoTime() - c.debutEtape;
+        Repartition repartition = new Repartition(total, c.remote, c.attente, c.pause, c.commandes, c.remoteDansAttentes);
+        cumuler(FRAMEWORK, "étapes", repartition.framework);
+        return repartition;
+    }
+
+    private static void cumuler(String categorie, String source, long nanos) {
+        LongAdder[] compteurs = CONSOMMATEURS.computeIfAbsent(categorie + "|" + source,
+                k -> new LongAdder[]{new LongAdder(), new LongAdder()});
+        compteurs[0].increment();
+        compteurs[1].add(nanos);
+    }
+
+    // Première frame de la glue ou des pages: uniquement pour les attentes et pauses, jamais par commande
+    private static String appelant() {
+        return PILE.walk(frames -> frames
+                .filter(f -> NOS_PACKAGES.stream().anyMatch(f.getClassName()::startsWith))
+                .findFirst()
+                .map(f -> f.getClassName().substring(f.getClassName().lastIndexOf('.') + 1)
+                        + "." + f.getMethodName() + ":" + f.getLineNumber())
+                .orElse("autre"));
+    }
+
+    // {catégorie, source, appels, total ms, moyenne ms}, du plus coûteux au moins coûteux
+    public static List<String[]> principauxConsommateurs(int limite) {
+        return CONSOMMATEURS.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder[]> e) -> e.getValue()[1].sum()).reversed())
+                .limit(limite)
+                .map(e -> {
+                    String[] cle = e.getKey().split("\\|", 2);
+                    long appels = e.getValue()[0].sum();
+                    long totalMs = TimeUnit.NANOSECONDS.toMillis(e.getValue()[1].sum());
+                    return new String[]{cle[0], cle[1], String.valueOf(appels), String.valueOf(totalMs),
+                            String.valueOf(appels == 0 ? 0 : totalMs / appels)};
+                })
+                .collect(Collectors.toList());
+    }
+
+    // catégorie -> {appels, total ms} sur toute l'exécution; "remote dans attentes" est inclus dans remote et attente
+    public static Map<String, long[]> totauxParCategorie() {
+        Map<String, long[]> totaux = new TreeMap<>();
+        CONSOMMATEURS.forEach((cle, compteurs) -> {
+            long[] total = totaux.computeIfAbsent(cle.substring(0, cle.indexOf('|')), k -> new long[2]);
+            total[0] += compteurs[0].sum();
+            total[1] += compteurs[1].sum();
+        });
+        if (REMOTE_ATTENTES[0].sum() > 0) {
+            totaux.put(REMOTE_DANS_ATTENTES, new long[]{REMOTE_ATTENTES[0].sum(), REMOTE_ATTENTES[1].sum()});
+        }
+        totaux.values().forEach(t -> t[1] = TimeUnit.NANOSECONDS.toMillis(t[1]));
+        return totaux;
+    }
+
+    public static void afficherResume(int limite) {
+        if (CONSOMMATEURS.isEmpty()) return;
+        System.out.println("\n⏱️ Répartition du temps de l'exécution:");
+        totauxParCategorie().forEach((categorie, total) ->
+                System.out.printf("• %s: %d ms%n", categorie, total[1]));
+        System.out.println("Principaux consommateurs:");
+        principauxConsommateurs(limite).forEach(l ->
+                System.out.printf("• [%s] %s — %s appel(s), %s ms (moy. %s ms)%n", l[0], l[1], l[2], l[3], l[4]));
+    }
+}
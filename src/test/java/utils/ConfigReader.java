@@ -24,4 +24,10 @@ public class ConfigReader {
     public static String getProperty(String key){
         return properties.getProperty(key);
     }
+
+    // Valeur avec surcharge possible par -Dcle=valeur et valeur par défaut
+    public static String getProperty(String key, String defaultValue){
+        String valeur = properties != null ? properties.getProperty(key) : null;
+        return System.getProperty(key, valeur != null ? valeur.trim() : defaultValue);
+    }
 }
\ No newline at end of file
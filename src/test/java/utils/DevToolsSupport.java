@@ -0,0 +1,137 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.remote.Augmenter;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+// Accès CDP sans dépendre d'une version précise des domaines (v120, v121...): commandes et événements bruts
+public class DevToolsSupport {
+    private static final Map<WebDriver, DevTools> SESSIONS = new ConcurrentHashMap<>();
+    private static final Map<DevTools, Interception> INTERCEPTIONS = new ConcurrentHashMap<>();
+
+    // Reçoit un événement Fetch.requestPaused; true si la requête a été servie, bloquée ou relâchée
+    public interface Intercepteur {
+        boolean traiter(DevTools devTools, Map<String, Object> evenement) throws Exception;
+    }
+
+    // Un seul Fetch.enable par session: les motifs des fonctionnalités (rejeu, blocage...) sont cumulés
+    // et chaque requête interceptée passe par les intercepteurs dans l'ordre de priorité
+    private static class Interception {
+        final List<Map<String, Object>> motifs = new CopyOnWriteArrayList<>();
+        final List<Object[]> intercepteurs = new CopyOnWriteArrayList<>();
+        // Les écouteurs DevTools ne font que transmettre: décisions et commandes sur un autre thread
+        final ExecutorService executeur = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "devtools-fetch");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private DevToolsSupport() {
+    }
+
+    // Session DevTools partagée par toutes les fonctionnalités (vidéo, réseau, performances...)
+    public static Optional<DevTools> ouvrir(WebDriver driver) {
+        if (driver == null || !OS.isWeb()) return Optional.empty();
+        DevTools existante = SESSIONS.get(driver);
+        if (existante != null) return Optional.of(existante);
+
+        try {
+            // Le proxy de CommandTimer ne peut pas être augmenté: on repart toujours du driver d'origine
+            WebDriver cible = CommandTimer.original(driver);
+            if (!(cible instanceof HasDevTools) && cible instanceof RemoteWebDriver) {
+                cible = new Augmenter().augment(cible);
+            }
+            if (!(cible instanceof HasDevTools)) return Optional.empty();
+
+            Optional<DevTools> devTools = ((HasDevTools) cible).maybeGetDevTools();
+            devTools.ifPresent(d -> {
+                d.createSessionIfThereIsNotOne();
+                SESSIONS.put(driver, d);
+            });
+            return devTools;
+        } catch (Exception e) {
+            System.err.println("⚠️ DevTools indisponible pour cette session: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public static boolean estDisponible(WebDriver driver) {
+        return ouvrir(driver).isPresent();
+    }
+
+    public static Map<String, Object> envoyer(DevTools devTools, String methode, Map<String, Object> parametres) {
+        return devTools.send(new Command<>(methode, parametres, input -> input.read(Json.MAP_TYPE)));
+    }
+
+    public static void ecouter(DevTools devTools, String evenement, Consumer<Map<String, Object>> consommateur) {
+        devTools.addListener(new Event<Map<String, Object>>(evenement, input -> input.read(Json.MAP_TYPE)), consommateur);
+    }
+
+    // Priorité croissante: le premier intercepteur qui renvoie true a traité la requête, sinon elle repart telle quelle
+    public static void intercepter(DevTools devTools, int priorite, List<Map<String, Object>> motifs, Intercepteur intercepteur) {
+        Interception interception = INTERCEPTIONS.computeIfAbsent(devTools, d -> {
+            Interception nouvelle = new Interception();
+            ecouter(d, "Fetch.requestPaused", e -> nouvelle.executeur.execute(() -> distribuer(d, nouvelle, e)));
+            return nouvelle;
+        });
+        interception.intercepteurs.add(new Object[]{priorite, intercepteur});
+        List<Object[]> tries = new ArrayList<>(interception.intercepteurs);
+        tries.sort(Comparator.comparingInt(i -> (Integer) i[0]));
+        interception.intercepteurs.clear();
+        interception.intercepteurs.addAll(tries);
+        interception.motifs.addAll(motifs);
+        envoyer(devTools, "Fetch.enable", Map.of("patterns", new ArrayList<>(interception.motifs)));
+    }
+
+    private static void distribuer(DevTools devTools, Interception interception, Map<String, Object> evenement) {
+        String id = String.valueOf(evenement.get("requestId"));
+        try {
+            for (Object[] intercepteur : interception.intercepteurs) {
+                if (((Intercepteur) intercepteur[1]).traiter(devTools, evenement)) return;
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Interception réseau: " + e.getMessage());
+        }
+        // Une requête laissée en pause figerait la page
+        try {
+            envoyer(devTools, "Fetch.continueRequest", Map.of("requestId", id));
+        } catch (Exception ignored) {
+            // Session fermée entre-temps
+        }
+    }
+
+    // À appeler avant de quitter le driver
+    public static void fermer(WebDriver driver) {
+        if (driver == null) return;
+        DevTools devTools = SESSIONS.remove(driver);
+        if (devTools != null) {
+            Interception interception = INTERCEPTIONS.remove(devTools);
+            if (interception != null) {
+                interception.executeur.shutdownNow();
+            }
+            try {
+                devTools.clearListeners();
+                devTools.close();
+            } catch (Exception ignored) {
+                // La session est fermée avec le driver de toute façon
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package utils;
+
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.InteractsWithApps;
+import io.appium.java_client.remote.options.BaseOptions;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class DevicePool {
+    private static volatile boolean initialise;
+
+    private final Map<String, BlockingQueue<Device>> libres = new ConcurrentHashMap<>();
+    private final List<Device> appareils = new ArrayList<>();
+    private final long attenteMaxSecondes;
+    private final int recyclageApresEchecs;
+
+    public static class Device {
+        private final String id;
+        private final URL url;
+        private final String plateforme;
+        private final Map<String, String> capacites;
+        private AppiumDriver session;
+        private int echecs;
+
+        Device(String id, URL url, String plateforme, Map<String, String> capacites) {
+            this.id = id;
+            this.url = url;
+            this.plateforme = plateforme;
+            this.capacites = capacites;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getPlateforme() {
+            return plateforme;
+        }
+
+        public AppiumDriver getSession() {
+            return session;
+        }
+
+        @Override
+        public String toString() {
+            return id + " (" + plateforme + " @ " + url + ")";
+        }
+    }
+
+    DevicePool(List<Device> appareils, long attenteMaxSecondes, int recyclageApresEchecs) {
+        this.attenteMaxSecondes = attenteMaxSecondes;
+        this.recyclageApresEchecs = recyclageApresEchecs;
+        for (Device device : appareils) {
+            this.appareils.add(device);
+            libres.computeIfAbsent(device.plateforme.toLowerCase(), k -> new LinkedBlockingQueue<>()).add(device);
+        }
+    }
+
+    private static class Holder {
+        private static final DevicePool INSTANCE = new DevicePool(lireConfiguration(),
+                Long.parseLong(ConfigReader.getProperty("appium.acquireTimeout", "300")),
+                Integer.parseInt(ConfigReader.getProperty("appium.recycleAfterFailures", "1")));
+
+        static {
+            initialise = true;
+        }
+    }
+
+    public static DevicePool getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    // Sans le créer: une exécution web n'a aucun appareil à fermer
+    public static boolean estInitialise() {
+        return initialise;
+    }
+
+    // Attribue un appareil libre; la session existante est réutilisée via activateApp
+    public Device acquerir(String plateforme) throws InterruptedException {
+        BlockingQueue<Device> file = libres.get(plateforme.toLowerCase());
+        if (file == null) {
+            throw new IllegalStateException("Aucun appareil configuré pour la plateforme " + plateforme);
+        }
+        Device device = file.poll(attenteMaxSecondes, TimeUnit.SECONDS);
+        if (device == null) {
+            throw new IllegalStateException("Aucun appareil " + plateforme + " libre après " + attenteMaxSecondes + " s");
+        }
+        try {
+            if (device.session != null) {
+                try {
+                    ((InteractsWithApps) device.session).activateApp(identifiantApp(device));
+                    System.out.println("📱 Session réutilisée sur " + device);
+                    return device;
+                } catch (RuntimeException e) {
+                    // Session expirée (newCommandTimeout, redémarrage d'Appium): une nouvelle reste possible
+                    System.err.println("⚠️ Session expirée sur " + device + ", recréation: " + e.getMessage());
+                    fermerSession(device);
+                }
+            }
+            device.session = creerSession(device);
+            System.out.println("📱 Nouvelle session Appium sur " + device);
+            return device;
+        } catch (RuntimeException e) {
+            fermerSession(device);
+            file.add(device);
+            throw e;
+        }
+    }
+
+    // Rend l'appareil au pool; après trop d'échecs consécutifs la session est recyclée
+    public void liberer(Device device, boolean echec) {
+        if (device == null) return;
+        try {
+            if (device.session != null) {
+                ((InteractsWithApps) device.session).terminateApp(identifiantApp(device));
+            }
+            if (!echec) {
+                device.echecs = 0;
+            } else if (++device.echecs >= recyclageApresEchecs) {
+                System.out.println("♻️ Recyclage de la session sur " + device);
+                fermerSession(device);
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Session inutilisable sur " + device + ", elle sera recréée: " + e.getMessage());
+            fermerSession(device);
+        } finally {
+            libres.get(device.plateforme.toLowerCase()).add(device);
+        }
+    }
+
+    public void fermerTout() {
+        appareils.forEach(this::fermerSession);
+    }
+
+    public int getTaille() {
+        return appareils.size();
+    }
+
+    public int getOccupes() {
+        return appareils.size() - libres.values().stream().mapToInt(BlockingQueue::size).sum();
+    }
+
+    private void fermerSession(Device device) {
+        if (device.session != null) {
+            try {
+                device.session.quit();
+            } catch (Exception ignored) {
+                // Session déjà perdue côté serveur
+            }
+            device.session = null;
+        }
+        device.echecs = 0;
+    }
+
+    private AppiumDriver creerSession(Device device) {
+        boolean android = "android".equalsIgnoreCase(device.plateforme);
+        BaseOptions<?> options = android ? Driver.getAndroidApps() : Driver.getIOSApps();
+        device.capacites.forEach((nom, valeur) -> {
+            if (!"appId".equals(nom)) {
+                options.amend("appium:" + nom, nom.endsWith("Port") ? (Object) Integer.valueOf(valeur) : valeur);
+            }
+        });
+        AppiumDriver session = android ? Driver.getAndroidDriver(device.url, options) : Driver.getIOSDriver(device.url, options);
+        // Chronométrée au CommandExecutor comme toute RemoteWebDriver: même instance, toujours une AppiumDriver
+        CommandTimer.instrumenter(session);
+        return session;
+    }
+
+    private static String identifiantApp(Device device) {
+        String appId = device.capacites.get("appId");
+        if (appId != null) return appId;
+        return "android".equalsIgnoreCase(device.plateforme) ? "com.planity.android" : "com.yourcompany.planity";
+    }
+
+    // appium.devices=id1,id2 puis appium.device.<id>.url|platform|udid|deviceName|platformVersion|systemPort|wdaLocalPort|appId
+    private static List<Device> lireConfiguration() {
+        List<Device> appareils = new ArrayList<>();
+        String liste = ConfigReader.getProperty("appium.devices", "");
+        try {
+            if (liste.isEmpty()) {
+                appareils.add(new Device("android-local", new URL(Driver.APPIUM_URL), "Android", new HashMap<>()));
+                appareils.add(new Device("ios-local", new URL(Driver.APPIUM_URL), "iOS", new HashMap<>()));
+                return appareils;
+            }
+            for (String id : liste.split(",")) {
+                id = id.trim();
+                String prefixe = "appium.device." + id + ".";
+                Map<String, String> capacites = new LinkedHashMap<>();
+                for (String cle : Arrays.asList("udid", "deviceName", "platformVersion", "systemPort", "wdaLocalPort", "appId")) {
+                    String valeur = ConfigReader.getProperty(prefixe + cle, null);
+                    if (valeur != null) capacites.put(cle, valeur);
+                }
+                appareils.add(new Device(id,
+                        new URL(ConfigReader.getProperty(prefixe + "url", Driver.APPIUM_URL)),
+                        ConfigReader.getProperty(prefixe + "platform", "Android"),
+                        capacites));
+            }
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException("URL Appium invalide dans la configuration: " + e.getMessage(), e);
+        }
+        return appareils;
+    }
+}
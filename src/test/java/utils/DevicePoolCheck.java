@@ -0,0 +1,126 @@
+package utils;
+
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Vérification du pool d'appareils contre le faux serveur Appium local, sans émulateur:
+// réutilisation des sessions entre scénarios concurrents, recyclage après échecs consécutifs,
+// recréation d'une session expirée, chronométrage des commandes, fermeture.
+// Lancement: mvn test-compile exec:java -Pdevice-pool
+public class DevicePoolCheck {
+    private static final List<String> ECARTS = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        FakeAppiumServer serveur = new FakeAppiumServer(0).demarrer();
+        try {
+            verifierReutilisation(serveur);
+            verifierRecyclage(serveur);
+            verifierExpiration(serveur);
+            verifierChronometrage(serveur);
+        } finally {
+            serveur.arreter();
+        }
+        if (!ECARTS.isEmpty()) {
+            System.out.println("❌ Pool d'appareils:");
+            ECARTS.forEach(e -> System.out.println("• " + e));
+            System.exit(1);
+        }
+        System.out.println("✅ Pool d'appareils conforme (faux serveur Appium " + serveur.getUrl() + ")");
+        System.exit(0);
+    }
+
+    // 12 scénarios sur 6 threads et 2 appareils: 2 sessions créées, puis activateApp à chaque réutilisation
+    private static void verifierReutilisation(FakeAppiumServer serveur) throws Exception {
+        int scenarios = 12;
+        DevicePool pool = new DevicePool(appareils(serveur, 2), 30, 1);
+        AtomicInteger enCours = new AtomicInteger();
+        AtomicInteger maximum = new AtomicInteger();
+        ExecutorService threads = Executors.newFixedThreadPool(6);
+        List<Future<?>> resultats = new ArrayList<>();
+        for (int i = 0; i < scenarios; i++) {
+            resultats.add(threads.submit(() -> {
+                DevicePool.Device device = pool.acquerir("Android");
+                maximum.accumulateAndGet(enCours.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } finally {
+                    enCours.decrementAndGet();
+                    pool.liberer(device, false);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> resultat : resultats) {
+            resultat.get();
+        }
+        threads.shutdown();
+
+        attendu("sessions créées", 2, serveur.getSessionsCreees());
+        attendu("réutilisations (activateApp)", scenarios - 2, serveur.getActivations());
+        attendu("terminateApp", scenarios, serveur.getTerminaisons());
+        attendu("appareils occupés en même temps (max)", 2, maximum.get());
+        attendu("appareils occupés à la fin", 0, pool.getOccupes());
+        pool.fermerTout();
+        attendu("sessions ouvertes après fermerTout", 0, serveur.getSessionsActives());
+    }
+
+    // Recyclage après 2 échecs consécutifs: un succès entre deux échecs remet le compteur à zéro
+    private static void verifierRecyclage(FakeAppiumServer serveur) throws Exception {
+        DevicePool pool = new DevicePool(appareils(serveur, 1), 30, 2);
+        int avant = serveur.getSessionsCreees();
+        for (boolean echec : new boolean[]{true, false, true, false}) {
+            pool.liberer(pool.acquerir("Android"), echec);
+        }
+        attendu("sessions créées avec des échecs non consécutifs", avant + 1, serveur.getSessionsCreees());
+        pool.liberer(pool.acquerir("Android"), true);
+        pool.liberer(pool.acquerir("Android"), true);
+        attendu("sessions ouvertes après 2 échecs consécutifs", 0, serveur.getSessionsActives());
+        pool.liberer(pool.acquerir("Android"), false);
+        attendu("sessions créées après recyclage", avant + 2, serveur.getSessionsCreees());
+        pool.fermerTout();
+    }
+
+    // Session expirée côté serveur: activateApp échoue, une nouvelle session est créée au lieu d'échouer le scénario
+    private static void verifierExpiration(FakeAppiumServer serveur) throws Exception {
+        DevicePool pool = new DevicePool(appareils(serveur, 1), 30, 1);
+        int avant = serveur.getSessionsCreees();
+        pool.liberer(pool.acquerir("Android"), false);
+        serveur.expirerSessions();
+        DevicePool.Device device = pool.acquerir("Android");
+        attendu("sessions créées après expiration", avant + 2, serveur.getSessionsCreees());
+        attendu("sessions ouvertes après expiration", 1, serveur.getSessionsActives());
+        pool.liberer(device, false);
+        pool.fermerTout();
+    }
+
+    // Les commandes d'une session du pool comptent dans la répartition de l'étape (remote)
+    private static void verifierChronometrage(FakeAppiumServer serveur) throws Exception {
+        DevicePool pool = new DevicePool(appareils(serveur, 1), 30, 1);
+        DevicePool.Device device = pool.acquerir("Android");
+        CommandTimer.debutEtape();
+        device.getSession().manage().window().getSize();
+        attendu("commandes chronométrées sur la session du pool", 1, CommandTimer.finEtape().getCommandes());
+        pool.liberer(device, false);
+        pool.fermerTout();
+    }
+
+    private static List<DevicePool.Device> appareils(FakeAppiumServer serveur, int nombre) throws Exception {
+        List<DevicePool.Device> appareils = new ArrayList<>();
+        for (int i = 0; i < nombre; i++) {
+            appareils.add(new DevicePool.Device("faux-" + i, new URL(serveur.getUrl()), "Android",
+                    new HashMap<>(Map.of("udid", "emulator-" + (5554 + 2 * i)))));
+        }
+        return appareils;
+    }
+
+    private static void attendu(String libelle, int attendu, int obtenu) {
+        System.out.println((attendu == obtenu ? "✓ " : "✗ ") + libelle + ": " + obtenu);
+        if (attendu != obtenu) {
+            ECARTS.add(libelle + ": attendu " + attendu + ", obtenu " + obtenu);
+        }
+    }
+}
@@ -8,6 +8,8 @@ import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.edge.EdgeDriver;
+import org.openqa.selenium.edge.EdgeOptions;
+import org.openqa.selenium.firefox.FirefoxOptions;
 
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -20,6 +22,9 @@ public class Driver {
     public static IOSDriver iOS;
     public static WebDriver Web;
 
+    public static final String APPIUM_URL = "http://127.0.0.1:4723/";
+    private static final ThreadLocal<WebDriver> SESSION = new ThreadLocal<>();
+
     public static BaseOptions getAndroidApps() {
         BaseOptions options = new BaseOptions()
                 .amend("appium:platformName", "Android")
@@ -55,20 +60,27 @@ public class Driver {
         return options;
     }
 
-    public static AndroidDriver getAndroidDriver(BaseOptions capabilities)
+    public static AndroidDriver getAndroidDriver(BaseOptions<?> capabilities)
             throws MalformedURLException {
-        URL remoteUrl = new URL("http://127.0.0.1:4723/");
+        return getAndroidDriver(new URL(APPIUM_URL), capabilities);
+    }
+
+    public static AndroidDriver getAndroidDriver(URL remoteUrl, BaseOptions<?> capabilities) {
         return new AndroidDriver(remoteUrl, capabilities);
     }
 
-    public static IOSDriver getIOSDriver(BaseOptions capabilities)
+    public static IOSDriver getIOSDriver(BaseOptions<?> capabilities)
             throws MalformedURLException {
-        URL remoteUrl = new URL("http://127.0.0.1:4723/");
+        return getIOSDriver(new URL(APPIUM_URL), capabilities);
+    }
+
+    public static IOSDriver getIOSDriver(URL remoteUrl, BaseOptions<?> capabilities) {
         return new IOSDriver(remoteUrl, capabilities);
     }
 
     public static WebDriver getWebDriver(String browser) {
         WebDriver driver;
+        boolean grid = GridRouter.isConfigure();
         switch (browser.toLowerCase()) {
             case "chrome":
                 ChromeOptions chromeOptions = new ChromeOptions();
@@ -77,32 +89,69 @@ public class Driver {
                 chromeOptions.addArguments("--disable-gpu");
                 chromeOptions.addArguments("--window-size=1920,1080");
 
-                driver = new ChromeDriver(chromeOptions);
+                driver = grid ? GridRouter.getInstance().creerSession(chromeOptions) : new ChromeDriver(chromeOptions);
                 break;
             case "firefox":
-                driver = new FirefoxDriver();
+                driver = grid ? GridRouter.getInstance().creerSession(new FirefoxOptions()) : new FirefoxDriver();
                 break;
             case "edge":
-                driver = new EdgeDriver();
+                driver = grid ? GridRouter.getInstance().creerSession(new EdgeOptions()) : new EdgeDriver();
                 break;
             default:
                 throw new IllegalArgumentException("Unsupported browser: " + browser);
         }
 
-        driver.manage().window().maximize();
+        // Un échec après la création (ex. replay sur firefox/edge) fermerait sinon jamais la session ni son slot de grid
+        WebDriver instrumente = driver;
+        try {
+            driver.manage().window().maximize();
+            instrumente = CommandTimer.instrumenter(driver);
+            ReplayProxy.brancher(instrumente);
+            return instrumente;
+        } catch (RuntimeException e) {
+            try {
+                quitWebDriver(instrumente);
+            } catch (RuntimeException fermeture) {
+                e.addSuppressed(fermeture);
+            }
+            throw e;
+        }
+    }
+
+    // Ferme la session web et rend son slot au noeud de la grid le cas échéant
+    public static void quitWebDriver(WebDriver driver) {
+        WebDriver original = CommandTimer.original(driver);
+        CommandTimer.oublier(driver);
+        if (GridRouter.isConfigure() && GridRouter.getInstance().gere(original)) {
+            GridRouter.getInstance().fermerSession(original);
+        } else {
+            original.quit();
+        }
+    }
 
-        return driver;
+    // Session attribuée au thread courant (appareil du pool), prioritaire sur les champs statiques
+    public static void setCurrentDriver(WebDriver driver) {
+        if (driver == null) {
+            SESSION.remove();
+        } else {
+            SESSION.set(driver);
+        }
     }
 
     public static WebDriver getCurrentDriver() {
-        if (OS.OS.equals("Android")) {
+        WebDriver session = SESSION.get();
+        if (session != null) {
+            return session;
+        }
+        String plateforme = OS.courant();
+        if ("Android".equals(plateforme)) {
             return Android;
-        } else if (OS.OS.equals("iOS")) {
+        } else if ("iOS".equals(plateforme)) {
             return iOS;
-        } else if (OS.OS.equals("Web")) {
+        } else if ("Web".equals(plateforme)) {
             return Web;
         } else {
-            throw new IllegalStateException("Unsupported operating system: " + OS.OS);
+            throw new IllegalStateException("Unsupported operating system: " + plateforme);
         }
     }
 }
\ No newline at end of file
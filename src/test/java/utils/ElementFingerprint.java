@@ -0,0 +1,149 @@
+package utils;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+public class ElementFingerprint {
+    // Attributs considérés comme stables d'un déploiement à l'autre
+    public static final List<String> ATTRIBUTS_STABLES = Arrays.asList(
+            "name", "type", "placeholder", "aria-label", "role", "data-testid", "href", "title", "alt", "for"
+    );
+
+    // Un id avec une longue suite de chiffres ou un uuid est généré (ex: main-where-input_1730471228793)
+    private static final Pattern ID_GENERE = Pattern.compile(".*(\\d{6,}|[0-9a-f]{8}-[0-9a-f]{4}-).*");
+    private static final Pattern SUFFIXE_GENERE = Pattern.compile("[-_:]?(\\d{6,}|[0-9a-f]{8}-[0-9a-f-]{27})$");
+
+    private final String tag;
+    private final Map<String, String> attributs;
+    private final List<String> classes;
+    private final String texte;
+    private final String voisinage;
+    private final int x;
+    private final int y;
+
+    public ElementFingerprint(String tag, Map<String, String> attributs, List<String> classes,
+                              String texte, String voisinage, int x, int y) {
+        this.tag = tag == null ? "" : tag.toLowerCase();
+        this.attributs = attributs;
+        this.classes = classes;
+        this.texte = texte == null ? "" : texte.trim();
+        this.voisinage = voisinage == null ? "" : voisinage.trim();
+        this.x = x;
+        this.y = y;
+    }
+
+    // Construction depuis le descripteur renvoyé par le script de capture
+    @SuppressWarnings("unchecked")
+    public static ElementFingerprint depuisDescripteur(Map<String, Object> d) {
+        Map<String, String> attributs = new TreeMap<>();
+        Object brut = d.get("attributs");
+        if (brut instanceof Map) {
+            ((Map<String, Object>) brut).forEach((k, v) -> {
+                if (v != null && !v.toString().isEmpty()) attributs.put(k, v.toString());
+            });
+        }
+        List<String> classes = new ArrayList<>();
+        Object cls = d.get("classes");
+        if (cls instanceof List) {
+            ((List<Object>) cls).forEach(c -> classes.add(c.toString()));
+        }
+        return new ElementFingerprint(
+                Objects.toString(d.get("tag"), ""),
+                attributs,
+                classes,
+                Objects.toString(d.get("texte"), ""),
+                Objects.toString(d.get("voisinage"), ""),
+                nombre(d.get("x")),
+                nombre(d.get("y"))
+        );
+    }
+
+    public Map<String, Object> versMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("tag", tag);
+        map.put("attributs", attributs);
+        map.put("classes", classes);
+        map.put("texte", texte);
+        map.put("voisinage", voisinage);
+        map.put("x", x);
+        map.put("y", y);
+        return map;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public Map<String, String> getAttributs() {
+        return attributs;
+    }
+
+    public String getTexte() {
+        return texte;
+    }
+
+    // Jetons pondérés utilisés par l'index de similarité
+    public Map<String, Double> jetons() {
+        Map<String, Double> jetons = new HashMap<>();
+        attributs.forEach((nom, valeur) -> {
+            if ("id".equals(nom)) {
+                if (ID_GENERE.matcher(valeur).matches()) {
+                    jetons.put("idstem=" + radicalId(valeur), 3.0);
+                } else {
+                    jetons.put("id=" + valeur, 4.0);
+                }
+            } else if (ATTRIBUTS_STABLES.contains(nom)) {
+                jetons.put(nom + "=" + valeur.toLowerCase(), 3.0);
+            }
+        });
+        classes.forEach(c -> jetons.put("class=" + c, 1.0));
+        mots(texte).forEach(m -> jetons.put("texte=" + m, 2.0));
+        mots(voisinage).forEach(m -> jetons.merge("voisin=" + m, 0.5, Math::max));
+        return jetons;
+    }
+
+    // Similarité pondérée (Jaccard) avec un léger bonus de proximité à l'écran
+    public double similarite(ElementFingerprint autre) {
+        if (!tag.equals(autre.tag)) return 0;
+        Map<String, Double> a = jetons();
+        Map<String, Double> b = autre.jetons();
+        double commun = 0;
+        double union = 0;
+        Set<String> cles = new HashSet<>(a.keySet());
+        cles.addAll(b.keySet());
+        for (String cle : cles) {
+            double pa = a.getOrDefault(cle, 0.0);
+            double pb = b.getOrDefault(cle, 0.0);
+            commun += Math.min(pa, pb);
+            union += Math.max(pa, pb);
+        }
+        double score = union == 0 ? 0 : commun / union;
+        double distance = Math.hypot(x - autre.x, y - autre.y);
+        return score * 0.9 + Math.max(0, 1 - distance / 800) * 0.1;
+    }
+
+    public static String radicalId(String id) {
+        return SUFFIXE_GENERE.matcher(id).replaceAll("");
+    }
+
+    public static boolean estIdGenere(String id) {
+        return id != null && ID_GENERE.matcher(id).matches();
+    }
+
+    private static List<String> mots(String texte) {
+        List<String> mots = new ArrayList<>();
+        for (String mot : texte.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (mot.length() > 1) mots.add(mot);
+        }
+        return mots;
+    }
+
+    private static int nombre(Object valeur) {
+        return valeur instanceof Number ? ((Number) valeur).intValue() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return tag + attributs + (texte.isEmpty() ? "" : " '" + texte + "'");
+    }
+}
@@ -0,0 +1,135 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.DevTools;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Profils d'émulation nommés (configuration.properties: emulation.profile.<nom>.*) appliqués via DevTools:
+// débit et latence réseau, ralentissement CPU, dimensions et densité d'écran, user agent.
+// Plusieurs profils se combinent: emulation.profile=3G-slow,low-end-cpu-4x
+public class EmulationProfile {
+    private static final String PREFIXE = "emulation.profile.";
+    private static final Map<WebDriver, String> APPLIQUES = new ConcurrentHashMap<>();
+
+    private final String nom;
+    private Double debitDescendantKbps;
+    private Double debitMontantKbps;
+    private Double latenceMs;
+    private Double cpu;
+    private Integer largeur;
+    private Integer hauteur;
+    private Double densite;
+    private Boolean mobile;
+    private String userAgent;
+
+    private EmulationProfile(String nom) {
+        this.nom = nom;
+    }
+
+    // Le tag @profil:<nom> d'un scénario l'emporte sur emulation.profile
+    public static List<EmulationProfile> selectionner(Collection<String> tags) {
+        String selection = tags.stream()
+                .filter(t -> t.startsWith("@profil:"))
+                .map(t -> t.substring("@profil:".length()))
+                .findFirst()
+                .orElse(ConfigReader.getProperty("emulation.profile", ""));
+        return Arrays.stream(selection.split(","))
+                .map(String::trim)
+                .filter(n -> !n.isEmpty() && !"aucun".equalsIgnoreCase(n))
+                .map(EmulationProfile::charger)
+                .collect(Collectors.toList());
+    }
+
+    public static EmulationProfile charger(String nom) {
+        EmulationProfile profil = new EmulationProfile(nom);
+        String base = PREFIXE + nom + ".";
+        profil.debitDescendantKbps = decimal(base + "downloadKbps");
+        profil.debitMontantKbps = decimal(base + "uploadKbps");
+        profil.latenceMs = decimal(base + "latencyMs");
+        profil.cpu = decimal(base + "cpuSlowdown");
+        Double largeur = decimal(base + "width");
+        Double hauteur = decimal(base + "height");
+        profil.largeur = largeur == null ? null : largeur.intValue();
+        profil.hauteur = hauteur == null ? null : hauteur.intValue();
+        profil.densite = decimal(base + "deviceScaleFactor");
+        String mobile = ConfigReader.getProperty(base + "mobile", "");
+        profil.mobile = mobile.isEmpty() ? null : Boolean.parseBoolean(mobile);
+        String userAgent = ConfigReader.getProperty(base + "userAgent", "");
+        profil.userAgent = userAgent.isEmpty() ? null : userAgent;
+
+        if (profil.debitDescendantKbps == null && profil.latenceMs == null && profil.cpu == null && profil.largeur == null) {
+            throw new IllegalArgumentException("Profil d'émulation inconnu ou vide: " + nom
+                    + " (attendu: " + base + "downloadKbps|latencyMs|cpuSlowdown|width...)");
+        }
+        return profil;
+    }
+
+    private static Double decimal(String cle) {
+        String valeur = ConfigReader.getProperty(cle, "");
+        return valeur.isEmpty() ? null : Double.parseDouble(valeur);
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    // Applique les profils à la session; renvoie le libellé utilisé dans les rapports ("" si aucun)
+    public static String appliquer(WebDriver driver, List<EmulationProfile> profils) {
+        if (profils.isEmpty()) return "";
+        String libelle = profils.stream().map(EmulationProfile::getNom).collect(Collectors.joining("+"));
+        Optional<DevTools> session = DevToolsSupport.ouvrir(driver);
+        if (!session.isPresent()) {
+            // Sans DevTools, des mesures étiquetées avec un profil non appliqué seraient trompeuses
+            throw new IllegalStateException("Le profil d'émulation " + libelle + " nécessite un navigateur Chromium (DevTools)");
+        }
+        for (EmulationProfile profil : profils) {
+            profil.appliquer(session.get());
+        }
+        APPLIQUES.put(driver, libelle);
+        System.out.println("📶 Profil d'émulation appliqué: " + libelle);
+        return libelle;
+    }
+
+    private void appliquer(DevTools devTools) {
+        if (debitDescendantKbps != null || debitMontantKbps != null || latenceMs != null) {
+            DevToolsSupport.envoyer(devTools, "Network.enable", Map.of());
+            Map<String, Object> reseau = new HashMap<>();
+            reseau.put("offline", false);
+            reseau.put("latency", latenceMs != null ? latenceMs : 0);
+            // kbit/s -> octets/s; -1 désactive la limite
+            reseau.put("downloadThroughput", debitDescendantKbps != null ? debitDescendantKbps * 1024 / 8 : -1);
+            reseau.put("uploadThroughput", debitMontantKbps != null ? debitMontantKbps * 1024 / 8 : -1);
+            DevToolsSupport.envoyer(devTools, "Network.emulateNetworkConditions", reseau);
+        }
+        if (cpu != null) {
+            DevToolsSupport.envoyer(devTools, "Emulation.setCPUThrottlingRate", Map.of("rate", cpu));
+        }
+        if (largeur != null && hauteur != null) {
+            boolean estMobile = Boolean.TRUE.equals(mobile);
+            DevToolsSupport.envoyer(devTools, "Emulation.setDeviceMetricsOverride", Map.of(
+                    "width", largeur,
+                    "height", hauteur,
+                    "deviceScaleFactor", densite != null ? densite : 1,
+                    "mobile", estMobile));
+            if (estMobile) {
+                DevToolsSupport.envoyer(devTools, "Emulation.setTouchEmulationEnabled", Map.of("enabled", true));
+            }
+        }
+        if (userAgent != null) {
+            DevToolsSupport.envoyer(devTools, "Emulation.setUserAgentOverride", Map.of("userAgent", userAgent));
+        }
+    }
+
+    public static String libelle(WebDriver driver) {
+        return driver == null ? "" : APPLIQUES.getOrDefault(driver, "");
+    }
+
+    public static void oublier(WebDriver driver) {
+        if (driver != null) {
+            APPLIQUES.remove(driver);
+        }
+    }
+}
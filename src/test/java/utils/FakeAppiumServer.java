@@ -0,0 +1,163 @@
+package utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Faux serveur Appium (protocole W3C minimal) pour tester le pool d'appareils sans émulateur (DevicePoolCheck)
+public class FakeAppiumServer {
+    private final HttpServer server;
+    private final Json json = new Json();
+    private final Map<String, Map<String, Object>> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger sessionsCreees = new AtomicInteger();
+    private final AtomicInteger activations = new AtomicInteger();
+    private final AtomicInteger terminaisons = new AtomicInteger();
+
+    public FakeAppiumServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/", this::traiter);
+        server.setExecutor(Executors.newCachedThreadPool());
+    }
+
+    public FakeAppiumServer demarrer() {
+        server.start();
+        return this;
+    }
+
+    public void arreter() {
+        server.stop(0);
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    public int getSessionsCreees() {
+        return sessionsCreees.get();
+    }
+
+    public int getSessionsActives() {
+        return sessions.size();
+    }
+
+    public int getActivations() {
+        return activations.get();
+    }
+
+    public int getTerminaisons() {
+        return terminaisons.get();
+    }
+
+    // Simule un newCommandTimeout ou un redémarrage d'Appium: toutes les sessions deviennent inconnues
+    public void expirerSessions() {
+        sessions.clear();
+    }
+
+    private void traiter(HttpExchange echange) throws IOException {
+        String methode = echange.getRequestMethod();
+        String[] chemin = echange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/");
+        String corps = lire(echange.getRequestBody());
+        Object valeur = null;
+
+        if (chemin.length == 1 && "status".equals(chemin[0])) {
+            valeur = Map.of("ready", true, "message", "fake appium");
+        } else if (chemin.length == 1 && "session".equals(chemin[0]) && "POST".equals(methode)) {
+            valeur = nouvelleSession(corps);
+        } else if (chemin.length >= 2 && "session".equals(chemin[0])) {
+            String id = chemin[1];
+            if (!sessions.containsKey(id)) {
+                repondre(echange, 404, Map.of("value", Map.of("error", "invalid session id",
+                        "message", "Session inconnue: " + id, "stacktrace", "")));
+                return;
+            }
+            String commande = String.join("/", Arrays.copyOfRange(chemin, 2, chemin.length));
+            valeur = executer(id, methode, commande, corps);
+        }
+
+        Map<String, Object> reponse = new HashMap<>();
+        reponse.put("value", valeur);
+        repondre(echange, 200, reponse);
+    }
+
+    private Map<String, Object> nouvelleSession(String corps) {
+        Map<String, Object> demande = corps.isEmpty() ? Map.of() : json.toType(corps, Json.MAP_TYPE);
+        Map<String, Object> capacites = new HashMap<>();
+        Object capabilities = demande.get("capabilities");
+        if (capabilities instanceof Map) {
+            Object alwaysMatch = ((Map<?, ?>) capabilities).get("alwaysMatch");
+            if (alwaysMatch instanceof Map) {
+                ((Map<?, ?>) alwaysMatch).forEach((k, v) -> capacites.put(k.toString(), v));
+            }
+        }
+        Object plateforme = capacites.getOrDefault("platformName", capacites.get("appium:platformName"));
+        capacites.put("platformName", plateforme != null ? plateforme : "Android");
+
+        String id = UUID.randomUUID().toString();
+        sessions.put(id, capacites);
+        sessionsCreees.incrementAndGet();
+        return Map.of("sessionId", id, "capabilities", capacites);
+    }
+
+    private Object executer(String id, String methode, String commande, String corps) {
+        if (commande.isEmpty() && "DELETE".equals(methode)) {
+            sessions.remove(id);
+            return null;
+        }
+        if (commande.endsWith("activate_app")) {
+            activations.incrementAndGet();
+            return null;
+        }
+        if (commande.endsWith("terminate_app")) {
+            terminaisons.incrementAndGet();
+            return true;
+        }
+        if (commande.startsWith("execute")) {
+            if (corps.contains("mobile: activateApp")) {
+                activations.incrementAndGet();
+                return null;
+            }
+            if (corps.contains("mobile: terminateApp")) {
+                terminaisons.incrementAndGet();
+                return true;
+            }
+            return null;
+        }
+        if ("window/rect".equals(commande)) {
+            return Map.of("x", 0, "y", 0, "width", 1080, "height", 2340);
+        }
+        if ("elements".equals(commande)) {
+            return Collections.emptyList();
+        }
+        return null;
+    }
+
+    private void repondre(HttpExchange echange, int code, Map<String, Object> contenu) throws IOException {
+        byte[] octets = json.toJson(contenu).getBytes(StandardCharsets.UTF_8);
+        echange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        echange.sendResponseHeaders(code, octets.length);
+        try (OutputStream sortie = echange.getResponseBody()) {
+            sortie.write(octets);
+        }
+    }
+
+    private static String lire(InputStream entree) throws IOException {
+        return new String(entree.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    // Lancement autonome: appium.device.<id>.url=http://127.0.0.1:<port>/
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 4723;
+        FakeAppiumServer serveur = new FakeAppiumServer(port).demarrer();
+        System.out.println("🧪 Faux serveur Appium démarré: " + serveur.getUrl());
+    }
+}
@@ -0,0 +1,118 @@
+package utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Faux serveur Selenium standalone (/status avec slots, /session W3C minimal) pour tester GridRouter sans navigateur
+// (GridRouterCheck). Les slots occupés par d'autres clients se simulent avec occuperExternes()
+public class FakeGridServer {
+    private final HttpServer server;
+    private final Json json = new Json();
+    private final String navigateur;
+    private final int slots;
+    private final Map<String, Map<String, Object>> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger sessionsCreees = new AtomicInteger();
+    private volatile int externes;
+
+    public FakeGridServer(int port, String navigateur, int slots) throws IOException {
+        this.navigateur = navigateur;
+        this.slots = slots;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/", this::traiter);
+        server.setExecutor(Executors.newCachedThreadPool());
+    }
+
+    public FakeGridServer demarrer() {
+        server.start();
+        return this;
+    }
+
+    public void arreter() {
+        server.stop(0);
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    public int getSessionsCreees() {
+        return sessionsCreees.get();
+    }
+
+    public int getSessionsActives() {
+        return sessions.size();
+    }
+
+    public void occuperExternes(int nombre) {
+        externes = nombre;
+    }
+
+    private synchronized void traiter(HttpExchange echange) throws IOException {
+        String methode = echange.getRequestMethod();
+        String[] chemin = echange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/");
+        echange.getRequestBody().readAllBytes();
+
+        if (chemin.length == 1 && "status".equals(chemin[0])) {
+            repondre(echange, 200, statut());
+        } else if (chemin.length == 1 && "session".equals(chemin[0]) && "POST".equals(methode)) {
+            if (externes + sessions.size() >= slots) {
+                repondre(echange, 500, erreur("session not created", "Aucun slot " + navigateur + " libre"));
+                return;
+            }
+            String id = UUID.randomUUID().toString();
+            Map<String, Object> capacites = Map.of("browserName", navigateur);
+            sessions.put(id, capacites);
+            sessionsCreees.incrementAndGet();
+            repondre(echange, 200, Map.of("sessionId", id, "capabilities", capacites));
+        } else if (chemin.length == 2 && "session".equals(chemin[0]) && "DELETE".equals(methode)) {
+            if (sessions.remove(chemin[1]) == null) {
+                repondre(echange, 404, erreur("invalid session id", "Session inconnue: " + chemin[1]));
+                return;
+            }
+            repondre(echange, 200, null);
+        } else {
+            repondre(echange, 404, erreur("unknown command", echange.getRequestURI().getPath()));
+        }
+    }
+
+    // Forme Grid 4: value.nodes[].slots[], session renseignée quand le slot est occupé
+    private Map<String, Object> statut() {
+        List<Map<String, Object>> liste = new ArrayList<>();
+        int occupes = externes + sessions.size();
+        for (int i = 0; i < slots; i++) {
+            Map<String, Object> slot = new HashMap<>();
+            slot.put("stereotype", Map.of("browserName", navigateur));
+            if (i < occupes) {
+                slot.put("session", Map.of("sessionId", "occupe-" + i));
+            }
+            liste.add(slot);
+        }
+        return Map.of("ready", occupes < slots, "message", "fake grid",
+                "nodes", List.of(Map.of("availability", "UP", "slots", liste)));
+    }
+
+    private static Map<String, Object> erreur(String erreur, String message) {
+        return Map.of("error", erreur, "message", message, "stacktrace", "");
+    }
+
+    private void repondre(HttpExchange echange, int code, Object valeur) throws IOException {
+        Map<String, Object> contenu = new HashMap<>();
+        contenu.put("value", valeur);
+        byte[] octets = json.toJson(contenu).getBytes(StandardCharsets.UTF_8);
+        echange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        echange.sendResponseHeaders(code, octets.length);
+        try (OutputStream sortie = echange.getResponseBody()) {
+            sortie.write(octets);
+        }
+    }
+}
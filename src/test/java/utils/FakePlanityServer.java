@@ -0,0 +1,214 @@
+package utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Faux site Planity local pour mesurer le framework sans le site réel: menu, formulaire de recherche
+// à identifiants dynamiques, résultats et bandeau de consentement. Latence serveur, rendu différé
+// côté navigateur et instabilités (rendu très lent, erreurs 503) réglables dans configuration.properties.
+public class FakePlanityServer {
+    private final int port;
+    private final long latenceMs;
+    private final long rendu;
+    private final double instabilite;
+    private final long renduInstableMs;
+    private final double tauxErreur;
+    private final String consentement;
+    private final Random aleatoire;
+    private final ReentrantLock verrou = new ReentrantLock();
+    private final AtomicLong pages = new AtomicLong();
+    private final AtomicLong erreurs = new AtomicLong();
+    private HttpServer server;
+
+    private static class Holder {
+        private static final FakePlanityServer INSTANCE = new FakePlanityServer();
+    }
+
+    public static FakePlanityServer getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public static boolean isActive() {
+        return Boolean.parseBoolean(ConfigReader.getProperty("fixture.enabled", "false"));
+    }
+
+    private FakePlanityServer() {
+        port = Integer.parseInt(ConfigReader.getProperty("fixture.port", "0"));
+        latenceMs = Long.parseLong(ConfigReader.getProperty("fixture.latencyMs", "50"));
+        rendu = Long.parseLong(ConfigReader.getProperty("fixture.renderDelayMs", "300"));
+        instabilite = Double.parseDouble(ConfigReader.getProperty("fixture.flakiness", "0"));
+        renduInstableMs = Long.parseLong(ConfigReader.getProperty("fixture.flakyRenderDelayMs", "5000"));
+        tauxErreur = Double.parseDouble(ConfigReader.getProperty("fixture.errorRate", "0"));
+        consentement = ConfigReader.getProperty("fixture.consent", "Tout accepter");
+        aleatoire = new Random(Long.parseLong(ConfigReader.getProperty("fixture.seed", "42")));
+    }
+
+    // Démarré une seule fois par JVM, partagé par tous les scénarios (y compris parallèles)
+    public FakePlanityServer demarrer() {
+        verrou.lock();
+        try {
+            if (server == null) {
+                server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+                server.createContext("/", this::traiter);
+                server.setExecutor(Executors.newCachedThreadPool(r -> {
+                    Thread t = new Thread(r, "fixture-planity");
+                    t.setDaemon(true);
+                    return t;
+                }));
+                server.start();
+                System.out.println("🧪 Faux site Planity: " + getUrl() + " (latence " + latenceMs + " ms, rendu "
+                        + rendu + " ms, instabilité " + instabilite + ", erreurs " + tauxErreur + ")");
+            }
+            return this;
+        } catch (IOException e) {
+            throw new IllegalStateException("Faux site Planity non démarré: " + e.getMessage(), e);
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    public void arreter() {
+        verrou.lock();
+        try {
+            if (server != null) {
+                server.stop(0);
+                server = null;
+            }
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    public long getPagesServies() {
+        return pages.get();
+    }
+
+    public long getErreursInjectees() {
+        return erreurs.get();
+    }
+
+    private void traiter(HttpExchange echange) throws IOException {
+        try {
+            String chemin = echange.getRequestURI().getPath();
+            if (chemin.equals("/favicon.ico")) {
+                repondre(echange, 404, "");
+                return;
+            }
+            if (latenceMs > 0) {
+                Thread.sleep(latenceMs);
+            }
+            double tirage;
+            double tirageRendu;
+            verrou.lock();
+            try {
+                tirage = aleatoire.nextDouble();
+                tirageRendu = aleatoire.nextDouble();
+            } finally {
+                verrou.unlock();
+            }
+            if (tirage < tauxErreur) {
+                erreurs.incrementAndGet();
+                repondre(echange, 503, page("Service indisponible", "<h1>503</h1>", 0, true));
+                return;
+            }
+            long delai = tirageRendu < instabilite ? rendu + renduInstableMs : rendu;
+            // Bandeau de consentement affiché jusqu'à acceptation (cookie), comme sur le site réel
+            String cookies = echange.getRequestHeaders().getFirst("Cookie");
+            boolean consenti = cookies != null && cookies.contains("consentement=1");
+            pages.incrementAndGet();
+            switch (chemin) {
+                case "/":
+                    repondre(echange, 200, page("Planity", menu() + recherche(), delai, consenti));
+                    break;
+                case "/coiffeur":
+                    repondre(echange, 200, page("Coiffeurs", menu() + recherche() + resultats("Paris"), delai, consenti));
+                    break;
+                case "/recherche":
+                    repondre(echange, 200, page("Résultats", menu() + recherche() + resultats(ville(echange)), delai, consenti));
+                    break;
+                default:
+                    repondre(echange, 404, page("Introuvable", "<h1>Page introuvable</h1>", 0, true));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            repondre(echange, 503, "");
+        } finally {
+            echange.close();
+        }
+    }
+
+    private static String ville(HttpExchange echange) {
+        String requete = echange.getRequestURI().getRawQuery();
+        if (requete != null) {
+            for (String parametre : requete.split("&")) {
+                String[] cleValeur = parametre.split("=", 2);
+                if (cleValeur[0].equals("where") && cleValeur.length == 2 && !cleValeur[1].isEmpty()) {
+                    return URLDecoder.decode(cleValeur[1], StandardCharsets.UTF_8);
+                }
+            }
+        }
+        return "Paris";
+    }
+
+    private static String menu() {
+        return "<nav><a id='nav-item-0' href='/coiffeur'>Coiffeur</a> <a id='nav-item-1' href='/barbier'>Barbier</a>"
+                + " <a id='nav-item-2' href='/manucure'>Manucure</a></nav>";
+    }
+
+    // Identifiant régénéré à chaque page, comme sur le site réel
+    private static String recherche() {
+        return "<form action='/recherche'><input id='main-where-input_" + System.currentTimeMillis()
+                + "' name='where' placeholder='Adresse, ville...'><button type='submit'><span>Rechercher</span></button></form>";
+    }
+
+    private static String resultats(String ville) {
+        StringBuilder html = new StringBuilder("<h2 id='place-title-0-category-page'>Coiffeurs à ")
+                .append(echapper(ville)).append("</h2><ul>");
+        for (int i = 1; i <= 10; i++) {
+            html.append("<li class='salon'>Salon ").append(i).append(" - ").append(echapper(ville)).append("</li>");
+        }
+        return html.append("</ul>").toString();
+    }
+
+    // Le contenu n'est inséré dans la page qu'après le délai de rendu (application monopage)
+    private String page(String titre, String contenu, long delaiRendu, boolean consenti) {
+        String banniere = consentement.isEmpty() || consenti ? "" :
+                "<div id='consentement' style='position:fixed;bottom:0;left:0;right:0;background:#eee;padding:8px'>"
+                        + "<button onclick=\"document.cookie='consentement=1;path=/';this.parentNode.remove()\">" + echapper(consentement) + "</button></div>";
+        return "<!DOCTYPE html><html lang='fr'><head><meta charset='utf-8'><title>" + titre + "</title></head><body>"
+                + "<div id='app'></div>" + banniere
+                + "<script>setTimeout(function(){document.getElementById('app').innerHTML="
+                + "'" + contenu.replace("\\", "\\\\").replace("'", "\\'") + "';}," + delaiRendu + ");</script>"
+                + "</body></html>";
+    }
+
+    private static String echapper(String texte) {
+        return texte.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("'", "&#39;");
+    }
+
+    private static void repondre(HttpExchange echange, int statut, String corps) throws IOException {
+        byte[] octets = corps.getBytes(StandardCharsets.UTF_8);
+        echange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+        echange.getResponseHeaders().set("Cache-Control", "no-store");
+        echange.sendResponseHeaders(statut, octets.length == 0 ? -1 : octets.length);
+        if (octets.length > 0) {
+            try (OutputStream sortie = echange.getResponseBody()) {
+                sortie.write(octets);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Conserve en mémoire les N dernières secondes d'images d'une session, dans un nombre fixe d'emplacements
+// et sous un plafond d'octets. Rien n'est écrit sur disque tant que vider() n'est pas appelé.
+public class FrameRingBuffer implements FrameSink {
+    private final byte[][] images;
+    private final long[] horodatages;
+    private final long retentionNs;
+    private final long plafondOctets;
+    private final ReentrantLock verrou = new ReentrantLock();
+
+    private int debut;
+    private int taille;
+    private long octets;
+
+    public FrameRingBuffer(int retentionSecondes, int fps, long plafondOctets) {
+        int emplacements = Math.max(2, retentionSecondes * Math.max(1, fps));
+        this.images = new byte[emplacements][];
+        this.horodatages = new long[emplacements];
+        this.retentionNs = TimeUnit.SECONDS.toNanos(retentionSecondes);
+        this.plafondOctets = plafondOctets;
+    }
+
+    @Override
+    public void accept(byte[] image, long horodatageNs) {
+        verrou.lock();
+        try {
+            if (taille == images.length) {
+                retirerPlusAncienne();
+            }
+            int index = (debut + taille) % images.length;
+            images[index] = image;
+            horodatages[index] = horodatageNs;
+            taille++;
+            octets += image.length;
+
+            // Hors fenêtre de rétention ou au-delà du plafond mémoire: on oublie les plus anciennes
+            while (taille > 1 && (horodatageNs - horodatages[debut] > retentionNs || octets > plafondOctets)) {
+                retirerPlusAncienne();
+            }
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    private void retirerPlusAncienne() {
+        octets -= images[debut].length;
+        images[debut] = null;
+        debut = (debut + 1) % images.length;
+        taille--;
+    }
+
+    // Encode le contenu dans l'ordre chronologique puis libère la mémoire; false si rien à écrire.
+    // Les références sont copiées sous le verrou et l'encodage (lent) se fait hors verrou
+    public boolean vider(VideoEncoder encodeur) {
+        byte[][] copieImages;
+        long[] copieHorodatages;
+        verrou.lock();
+        try {
+            if (taille == 0) {
+                return false;
+            }
+            copieImages = new byte[taille][];
+            copieHorodatages = new long[taille];
+            for (int i = 0; i < taille; i++) {
+                int index = (debut + i) % images.length;
+                copieImages[i] = images[index];
+                copieHorodatages[i] = horodatages[index];
+            }
+            effacer();
+        } finally {
+            verrou.unlock();
+        }
+
+        for (int i = 0; i < copieImages.length; i++) {
+            encodeur.ajouter(copieImages[i], copieHorodatages[i]);
+        }
+        // Sans image finale prolongée, la dernière seconde avant l'échec serait perdue
+        encodeur.fermer(copieHorodatages[copieHorodatages.length - 1] + TimeUnit.SECONDS.toNanos(1));
+        return true;
+    }
+
+    public int getTaille() {
+        return taille;
+    }
+
+    public long getOctets() {
+        return octets;
+    }
+
+    // Scénario réussi: les images sont simplement abandonnées
+    @Override
+    public void close() {
+        verrou.lock();
+        try {
+            effacer();
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    private void effacer() {
+        Arrays.fill(images, null);
+        debut = 0;
+        taille = 0;
+        octets = 0;
+    }
+}
@@ -0,0 +1,11 @@
+package utils;
+
+// Destination des images capturées d'une session (vidéo encodée, tampon circulaire...)
+public interface FrameSink extends AutoCloseable {
+
+    // image: JPEG ou PNG; horodatage en nanosecondes sur une horloge monotone propre à la source
+    void accept(byte[] image, long horodatageNs);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,143 @@
+package utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.Interactive;
+import org.openqa.selenium.interactions.Pause;
+import org.openqa.selenium.interactions.PointerInput;
+import org.openqa.selenium.interactions.Sequence;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+public class GestureEngine {
+    public enum Direction { HAUT, BAS, GAUCHE, DROITE }
+
+    private static final int DUREE_MIN_MS = 50;
+
+    private final WebDriver driver;
+    // Vitesse du doigt en pixels par seconde
+    private final int vitesse;
+    // Amplitude d'un swipe de défilement, en fraction de l'écran
+    private final double amplitude;
+    private final int maxSwipes;
+    private Dimension ecran;
+
+    public GestureEngine(WebDriver driver) {
+        this(driver,
+                Integer.parseInt(ConfigReader.getProperty("gesture.velocity", "2500")),
+                Double.parseDouble(ConfigReader.getProperty("gesture.scrollAmplitude", "0.5")),
+                Integer.parseInt(ConfigReader.getProperty("gesture.maxSwipes", "10")));
+    }
+
+    public GestureEngine(WebDriver driver, int vitesse, double amplitude, int maxSwipes) {
+        this.driver = driver;
+        this.vitesse = vitesse;
+        this.amplitude = amplitude;
+        this.maxSwipes = maxSwipes;
+    }
+
+    public Geste nouveauGeste() {
+        return new Geste();
+    }
+
+    public void swipe(Point depart, Point arrivee) {
+        nouveauGeste().trait(depart, arrivee).executer();
+    }
+
+    public void swipeVertical(double departPourcentage, double arriveePourcentage, double ancragePourcentage) {
+        Dimension taille = taille();
+        int x = (int) (taille.width * ancragePourcentage);
+        swipe(new Point(x, (int) (taille.height * departPourcentage)),
+                new Point(x, (int) (taille.height * arriveePourcentage)));
+    }
+
+    // Fait défiler jusqu'à ce que l'élément soit visible; s'arrête dès qu'il apparaît
+    public WebElement defilerJusqua(By locator, Direction direction) {
+        for (int i = 0; i <= maxSwipes; i++) {
+            WebElement element = elementVisible(locator);
+            if (element != null) {
+                return element;
+            }
+            if (i < maxSwipes) {
+                nouveauGeste().defilement(direction).executer();
+            }
+        }
+        throw new org.openqa.selenium.NoSuchElementException(
+                "Élément introuvable après " + maxSwipes + " défilements: " + locator);
+    }
+
+    private WebElement elementVisible(By locator) {
+        List<WebElement> elements = driver.findElements(locator);
+        for (WebElement element : elements) {
+            try {
+                if (element.isDisplayed()) return element;
+            } catch (org.openqa.selenium.StaleElementReferenceException ignored) {
+                // L'écran défile encore, on réessaie au prochain tour
+            }
+        }
+        return null;
+    }
+
+    private Dimension taille() {
+        if (ecran == null) {
+            ecran = driver.manage().window().getSize();
+        }
+        return ecran;
+    }
+
+    private Duration duree(Point a, Point b) {
+        double distance = Math.hypot(b.x - a.x, b.y - a.y);
+        return Duration.ofMillis(Math.max(DUREE_MIN_MS, Math.round(distance * 1000 / vitesse)));
+    }
+
+    // Geste multi-étapes envoyé en une seule requête W3C Actions
+    public class Geste {
+        private final PointerInput doigt = new PointerInput(PointerInput.Kind.TOUCH, "doigt");
+        private final Sequence sequence = new Sequence(doigt, 0);
+        private int traits;
+
+        public Geste trait(Point depart, Point arrivee) {
+            if (traits++ > 0) {
+                sequence.addAction(new Pause(doigt, Duration.ofMillis(DUREE_MIN_MS)));
+            }
+            sequence.addAction(doigt.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), depart.x, depart.y));
+            sequence.addAction(doigt.createPointerDown(PointerInput.MouseButton.LEFT.asArg()));
+            sequence.addAction(doigt.createPointerMove(duree(depart, arrivee), PointerInput.Origin.viewport(), arrivee.x, arrivee.y));
+            sequence.addAction(doigt.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
+            return this;
+        }
+
+        public Geste defilement(Direction direction) {
+            Dimension taille = taille();
+            int cx = taille.width / 2;
+            int cy = taille.height / 2;
+            int dx = (int) (taille.width * amplitude / 2);
+            int dy = (int) (taille.height * amplitude / 2);
+            switch (direction) {
+                case BAS:
+                    return trait(new Point(cx, cy + dy), new Point(cx, cy - dy));
+                case HAUT:
+                    return trait(new Point(cx, cy - dy), new Point(cx, cy + dy));
+                case DROITE:
+                    return trait(new Point(cx + dx, cy), new Point(cx - dx, cy));
+                default:
+                    return trait(new Point(cx - dx, cy), new Point(cx + dx, cy));
+            }
+        }
+
+        public Geste pause(Duration duree) {
+            sequence.addAction(new Pause(doigt, duree));
+            return this;
+        }
+
+        public void executer() {
+            if (traits == 0) return;
+            ((Interactive) driver).perform(Collections.singletonList(sequence));
+        }
+    }
+}
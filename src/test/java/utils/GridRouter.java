@@ -0,0 +1,318 @@
+package utils;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+public class GridRouter {
+    private final List<Noeud> noeuds;
+    private final long attenteMaxMs;
+    private final long rafraichissementMs;
+    private final int capaciteParDefaut;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final Json json = new Json();
+    private final Map<WebDriver, Reservation> sessions = new ConcurrentHashMap<>();
+
+    // Verrou explicite plutôt que synchronized: les threads virtuels s'y garent sans épingler leur porteur
+    private final ReentrantLock verrou = new ReentrantLock(true);
+    private final Condition capaciteLiberee = verrou.newCondition();
+    private long dernierRafraichissement;
+    private boolean rafraichissementEnCours;
+    private int enAttente;
+
+    static class Noeud {
+        final URL url;
+        // navigateur -> nombre de slots déclarés par le noeud
+        final Map<String, Integer> capacite = new HashMap<>();
+        // navigateur -> slots occupés par d'autres clients lors du dernier /status
+        final Map<String, Integer> occupesExternes = new HashMap<>();
+        // navigateur -> slots réservés par ce routeur (sessions ouvertes ou en cours d'ouverture)
+        final Map<String, Integer> enCours = new HashMap<>();
+        // navigateur -> sessions de ce routeur effectivement créées sur le noeud, donc visibles dans /status
+        final Map<String, Integer> ouvertes = new HashMap<>();
+        boolean disponible = true;
+
+        Noeud(URL url) {
+            this.url = url;
+        }
+
+        int libres(String navigateur) {
+            Integer total = capacite.get(navigateur);
+            if (total == null || !disponible) return 0;
+            return total - occupesExternes.getOrDefault(navigateur, 0) - enCours.getOrDefault(navigateur, 0);
+        }
+
+        double charge(String navigateur) {
+            Integer total = capacite.get(navigateur);
+            if (total == null || total == 0) return 1;
+            return (enCours.getOrDefault(navigateur, 0) + occupesExternes.getOrDefault(navigateur, 0)) / (double) total;
+        }
+
+        @Override
+        public String toString() {
+            return url.toString();
+        }
+    }
+
+    static class Reservation {
+        final Noeud noeud;
+        final String navigateur;
+
+        Reservation(Noeud noeud, String navigateur) {
+            this.noeud = noeud;
+            this.navigateur = navigateur;
+        }
+    }
+
+    GridRouter(List<URL> urls, long attenteMaxMs, long rafraichissementMs, int capaciteParDefaut) {
+        this.noeuds = urls.stream().map(Noeud::new).collect(Collectors.toList());
+        this.attenteMaxMs = attenteMaxMs;
+        this.rafraichissementMs = rafraichissementMs;
+        this.capaciteParDefaut = capaciteParDefaut;
+    }
+
+    public static boolean isConfigure() {
+        return !ConfigReader.getProperty("grid.urls", "").isEmpty();
+    }
+
+    // Initialisation paresseuse par la classe Holder: ni verrou ni synchronized à chaque ouverture de session
+    private static class Holder {
+        private static final GridRouter INSTANCE = creer();
+
+        private static GridRouter creer() {
+            List<URL> urls = new ArrayList<>();
+            for (String url : ConfigReader.getProperty("grid.urls", "").split(",")) {
+                if (url.isBlank()) continue;
+                try {
+                    urls.add(new URL(url.trim()));
+                } catch (Exception e) {
+                    throw new IllegalStateException("URL de grid invalide: " + url, e);
+                }
+            }
+            return new GridRouter(urls,
+                    Long.parseLong(ConfigReader.getProperty("grid.queueTimeout", "300")) * 1000,
+                    Long.parseLong(ConfigReader.getProperty("grid.statusRefresh", "10")) * 1000,
+                    Integer.parseInt(ConfigReader.getProperty("grid.maxSessionsPerNode", "1")));
+        }
+    }
+
+    public static GridRouter getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    // Ouvre une session sur le noeud le moins chargé qui propose ce navigateur
+    public WebDriver creerSession(Capabilities capabilities) {
+        String navigateur = capabilities.getBrowserName().toLowerCase();
+        Reservation reservation = reserver(navigateur);
+        try {
+            WebDriver driver = new RemoteWebDriver(reservation.noeud.url, capabilities);
+            sessions.put(driver, reservation);
+            compterOuverte(reservation, 1);
+            System.out.println("🌐 Session " + navigateur + " ouverte sur " + reservation.noeud);
+            return driver;
+        } catch (RuntimeException e) {
+            rendre(reservation, true);
+            throw e;
+        }
+    }
+
+    public boolean gere(WebDriver driver) {
+        return driver != null && sessions.containsKey(driver);
+    }
+
+    public void fermerSession(WebDriver driver) {
+        Reservation reservation = sessions.remove(driver);
+        try {
+            driver.quit();
+        } finally {
+            if (reservation != null) {
+                compterOuverte(reservation, -1);
+                rendre(reservation, false);
+            }
+        }
+    }
+
+    Reservation reserver(String navigateur) {
+        long limite = System.currentTimeMillis() + attenteMaxMs;
+        verrou.lock();
+        try {
+            enAttente++;
+            while (true) {
+                if (!rafraichissementEnCours && System.currentTimeMillis() - dernierRafraichissement > rafraichissementMs) {
+                    rafraichir();
+                }
+                Noeud choisi = noeuds.stream()
+                        .filter(n -> n.libres(navigateur) > 0)
+                        .min(Comparator.comparingDouble(n -> n.charge(navigateur)))
+                        .orElse(null);
+                if (choisi != null) {
+                    choisi.enCours.merge(navigateur, 1, Integer::sum);
+                    return new Reservation(choisi, navigateur);
+                }
+                // Sans instantané de /status (premier, ou relecture forcée en cours), on ne peut pas conclure
+                if (dernierRafraichissement > 0
+                        && noeuds.stream().allMatch(n -> n.disponible && !n.capacite.containsKey(navigateur))) {
+                    throw new IllegalStateException("Aucun noeud ne propose le navigateur " + navigateur + ": " + noeuds);
+                }
+                long reste = limite - System.currentTimeMillis();
+                if (reste <= 0) {
+                    throw new IllegalStateException("Aucun noeud " + navigateur + " libre après "
+                            + attenteMaxMs / 1000 + " s sur " + noeuds);
+                }
+                // Réveil à la libération d'un slot ou pour relire /status
+                capaciteLiberee.await(Math.min(reste, rafraichissementMs), TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Attente d'un noeud interrompue", e);
+        } finally {
+            enAttente--;
+            verrou.unlock();
+        }
+    }
+
+    void rendre(Reservation reservation, boolean enErreur) {
+        verrou.lock();
+        try {
+            reservation.noeud.enCours.computeIfPresent(reservation.navigateur, (k, v) -> v > 1 ? v - 1 : null);
+            if (enErreur) {
+                // Forcer une relecture de /status avant la prochaine attribution
+                dernierRafraichissement = 0;
+            }
+            capaciteLiberee.signalAll();
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    private void compterOuverte(Reservation reservation, int delta) {
+        verrou.lock();
+        try {
+            reservation.noeud.ouvertes.merge(reservation.navigateur, delta, (a, b) -> a + b > 0 ? a + b : null);
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    public int getSessionsActives() {
+        return sessions.size();
+    }
+
+    public int getEnAttente() {
+        return enAttente;
+    }
+
+    public int getCapaciteTotale() {
+        verrou.lock();
+        try {
+            return noeuds.stream().mapToInt(n -> n.capacite.values().stream().mapToInt(Integer::intValue).sum()).sum();
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    // Appelé verrou tenu. Les /status sont lus verrou relâché (un noeud lent ne bloque ni rendre() ni
+    // fermerSession()), puis l'instantané est appliqué d'un coup sous le verrou
+    private void rafraichir() {
+        rafraichissementEnCours = true;
+        Map<Noeud, Map<String, Object>> statuts = Collections.emptyMap();
+        // Sessions déjà créées au moment de la lecture: seules celles-là peuvent figurer dans la réponse.
+        // Une session ouverte pendant la lecture n'y figure pas et n'est donc pas retranchée
+        Map<Noeud, Map<String, Integer>> ouvertes = new HashMap<>();
+        for (Noeud noeud : noeuds) {
+            ouvertes.put(noeud, new HashMap<>(noeud.ouvertes));
+        }
+        verrou.unlock();
+        try {
+            statuts = lireStatuts();
+        } finally {
+            verrou.lock();
+            for (Noeud noeud : noeuds) {
+                Map<String, Object> statut = statuts.get(noeud);
+                if (statut != null) {
+                    lireStatut(noeud, statut, ouvertes.get(noeud));
+                } else {
+                    noeud.disponible = false;
+                }
+            }
+            dernierRafraichissement = System.currentTimeMillis();
+            rafraichissementEnCours = false;
+            capaciteLiberee.signalAll();
+        }
+    }
+
+    // Lecture de /status (Grid 4, standalone ou noeud) sur tous les noeuds en parallèle; absent = injoignable
+    private Map<Noeud, Map<String, Object>> lireStatuts() {
+        Map<Noeud, CompletableFuture<HttpResponse<String>>> requetes = new LinkedHashMap<>();
+        for (Noeud noeud : noeuds) {
+            HttpRequest requete = HttpRequest.newBuilder(URI.create(noeud.url.toString().replaceAll("/+$", "") + "/status"))
+                    .timeout(Duration.ofSeconds(5)).GET().build();
+            requetes.put(noeud, http.sendAsync(requete, HttpResponse.BodyHandlers.ofString()));
+        }
+        Map<Noeud, Map<String, Object>> statuts = new HashMap<>();
+        requetes.forEach((noeud, reponse) -> {
+            try {
+                statuts.put(noeud, json.toType(reponse.join().body(), Json.MAP_TYPE));
+            } catch (Exception e) {
+                System.err.println("⚠️ Noeud injoignable " + noeud + ": " + e.getMessage());
+            }
+        });
+        return statuts;
+    }
+
+    void lireStatut(Noeud noeud, Map<String, Object> statut, Map<String, Integer> ouvertes) {
+        Map<?, ?> valeur = statut.get("value") instanceof Map ? (Map<?, ?>) statut.get("value") : Map.of();
+        Map<String, Integer> capacite = new HashMap<>();
+        Map<String, Integer> occupes = new HashMap<>();
+
+        Object liste = valeur.get("nodes");
+        if (liste instanceof List) {
+            for (Object n : (List<?>) liste) {
+                if (!(n instanceof Map) || "DOWN".equals(((Map<?, ?>) n).get("availability"))) continue;
+                Object slots = ((Map<?, ?>) n).get("slots");
+                if (!(slots instanceof List)) continue;
+                for (Object s : (List<?>) slots) {
+                    if (!(s instanceof Map)) continue;
+                    Map<?, ?> slot = (Map<?, ?>) s;
+                    Object stereotype = slot.get("stereotype");
+                    Object nom = stereotype instanceof Map ? ((Map<?, ?>) stereotype).get("browserName") : null;
+                    if (nom == null) continue;
+                    String navigateur = nom.toString().toLowerCase();
+                    capacite.merge(navigateur, 1, Integer::sum);
+                    if (slot.get("session") != null) {
+                        occupes.merge(navigateur, 1, Integer::sum);
+                    }
+                }
+            }
+        } else {
+            // Serveur sans description des slots (driver distant simple): capacité configurée
+            for (String navigateur : Arrays.asList("chrome", "firefox", "microsoftedge", "msedge")) {
+                capacite.put(navigateur, capaciteParDefaut);
+            }
+        }
+
+        // Nos sessions créées apparaissent aussi comme occupées dans /status. Pas enCours: une réservation
+        // dont la session n'existe pas encore n'y figure pas, la retrancher ferait sous-compter les autres clients
+        occupes.replaceAll((navigateur, nombre) -> Math.max(0, nombre - ouvertes.getOrDefault(navigateur, 0)));
+        noeud.capacite.clear();
+        noeud.capacite.putAll(capacite);
+        noeud.occupesExternes.clear();
+        noeud.occupesExternes.putAll(occupes);
+        noeud.disponible = !Boolean.FALSE.equals(valeur.get("ready")) || !capacite.isEmpty();
+    }
+}
@@ -0,0 +1,115 @@
+package utils;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.ImmutableCapabilities;
+import org.openqa.selenium.WebDriver;
+
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Vérification du routeur de grid contre deux faux serveurs standalone locaux, sans navigateur:
+// répartition sur le noeud le moins chargé, admission d'un scénario en file dès qu'une session est fermée,
+// slots occupés par d'autres clients comptés sans être confondus avec nos réservations.
+// Lancement: mvn test-compile exec:java -Pgrid-router
+public class GridRouterCheck {
+    private static final List<String> ECARTS = new ArrayList<>();
+    private static final Capabilities CHROME = new ImmutableCapabilities("browserName", "chrome");
+
+    public static void main(String[] args) throws Exception {
+        FakeGridServer a = new FakeGridServer(0, "chrome", 2).demarrer();
+        FakeGridServer b = new FakeGridServer(0, "chrome", 2).demarrer();
+        try {
+            verifierRepartitionEtFile(a, b);
+            verifierOccupesExternes(a);
+        } finally {
+            a.arreter();
+            b.arreter();
+        }
+        if (!ECARTS.isEmpty()) {
+            System.out.println("❌ Routeur de grid:");
+            ECARTS.forEach(e -> System.out.println("• " + e));
+            System.exit(1);
+        }
+        System.out.println("✅ Routeur de grid conforme (faux serveurs " + a.getUrl() + ", " + b.getUrl() + ")");
+        System.exit(0);
+    }
+
+    // 4 sessions sur 2 noeuds de 2 slots: 2 par noeud. La 5e attend, puis passe dès la fermeture d'une session.
+    // /status n'est relu qu'une fois (rafraîchissement d'une minute): seule la libération peut l'admettre
+    private static void verifierRepartitionEtFile(FakeGridServer a, FakeGridServer b) throws Exception {
+        GridRouter routeur = new GridRouter(List.of(new URL(a.getUrl()), new URL(b.getUrl())), 10_000, 60_000, 1);
+        List<WebDriver> drivers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            drivers.add(routeur.creerSession(CHROME));
+        }
+        attendu("sessions sur le noeud A", 2, a.getSessionsActives());
+        attendu("sessions sur le noeud B", 2, b.getSessionsActives());
+
+        ExecutorService thread = Executors.newSingleThreadExecutor();
+        Future<WebDriver> enFile = thread.submit(() -> routeur.creerSession(CHROME));
+        attendreEnFile(routeur);
+        attendu("scénarios en file, tous les slots pris", 1, routeur.getEnAttente());
+        attendu("sessions créées pendant l'attente", 4, a.getSessionsCreees() + b.getSessionsCreees());
+
+        long debut = System.currentTimeMillis();
+        routeur.fermerSession(drivers.remove(3));
+        drivers.add(enFile.get(5, TimeUnit.SECONDS));
+        long admission = System.currentTimeMillis() - debut;
+        System.out.println("  admission après libération: " + admission + " ms");
+        attendu("scénarios en file après libération", 0, routeur.getEnAttente());
+        attendu("sessions ouvertes après admission", 4, a.getSessionsActives() + b.getSessionsActives());
+        thread.shutdown();
+
+        for (WebDriver driver : drivers) {
+            routeur.fermerSession(driver);
+        }
+        attendu("sessions ouvertes après fermeture", 0, a.getSessionsActives() + b.getSessionsActives());
+        attendu("sessions suivies par le routeur", 0, routeur.getSessionsActives());
+    }
+
+    // 2 slots dont 1 pris par un autre client: une réservation sans session créée ne doit pas être retranchée
+    // des occupés externes au /status suivant, sinon une 2e réservation serait admise sur un noeud plein
+    private static void verifierOccupesExternes(FakeGridServer serveur) throws Exception {
+        serveur.occuperExternes(1);
+        GridRouter routeur = new GridRouter(List.of(new URL(serveur.getUrl())), 500, 50, 1);
+        GridRouter.Reservation reservation = routeur.reserver("chrome");
+        int admises = 1;
+        try {
+            routeur.rendre(routeur.reserver("chrome"), false);
+            admises++;
+        } catch (IllegalStateException attendue) {
+            // Attente bornée par grid.queueTimeout: le noeud est plein
+        }
+        attendu("réservations admises sur 1 slot libre", 1, admises);
+        routeur.rendre(reservation, false);
+
+        WebDriver driver = routeur.creerSession(CHROME);
+        Thread.sleep(150); // quelques relectures de /status avec la session ouverte
+        admises = 0;
+        try {
+            routeur.rendre(routeur.reserver("chrome"), false);
+            admises++;
+        } catch (IllegalStateException attendue) {
+            // Slot externe + notre session: plein
+        }
+        attendu("réservations admises, notre session ouverte", 0, admises);
+        routeur.fermerSession(driver);
+        serveur.occuperExternes(0);
+    }
+
+    private static void attendreEnFile(GridRouter routeur) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5_000;
+        while (routeur.getEnAttente() == 0 && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(200);
+    }
+
+    private static void attendu(String libelle, int attendu, int obtenu) {
+        System.out.println((attendu == obtenu ? "✓ " : "✗ ") + libelle + ": " + obtenu);
+        if (attendu != obtenu) {
+            ECARTS.add(libelle + ": attendu " + attendu + ", obtenu " + obtenu);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.DevTools;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Détection de fuites côté navigateur: Performance.getMetrics après chaque étape (tas JS, nœuds DOM,
+// écouteurs, layouts). Une métrique est suspecte si elle croît de façon quasi monotone et linéaire
+// (pente des moindres carrés positive, R² élevé) au-delà d'un seuil de croissance relative.
+public class LeakTracker {
+    private static final Map<WebDriver, LeakTracker> SESSIONS = new ConcurrentHashMap<>();
+    // LayoutCount est cumulatif par nature: échantillonné pour le rapport, jamais jugé comme fuite
+    private static final List<String> METRIQUES = Arrays.asList("JSHeapUsedSize", "Nodes", "JSEventListeners", "LayoutCount");
+    private static final List<String> SURVEILLEES = Arrays.asList("JSHeapUsedSize", "Nodes", "JSEventListeners");
+
+    private final DevTools devTools;
+    private final boolean forcerGc;
+    private final int minEchantillons;
+    private final int maxEchantillons;
+    private final double r2Min;
+    private final double croissanceMin;
+    private final List<String> etapes = new ArrayList<>();
+    private final Map<String, List<Double>> series = new LinkedHashMap<>();
+
+    private LeakTracker(DevTools devTools) {
+        this.devTools = devTools;
+        // Un GC complet du navigateur après chaque étape coûte cher: réservé aux campagnes de chasse aux fuites
+        this.forcerGc = Boolean.parseBoolean(ConfigReader.getProperty("leak.forceGc", "false"));
+        this.minEchantillons = Integer.parseInt(ConfigReader.getProperty("leak.minSamples", "5"));
+        this.maxEchantillons = Integer.parseInt(ConfigReader.getProperty("leak.maxSamples", "500"));
+        this.r2Min = Double.parseDouble(ConfigReader.getProperty("leak.minR2", "0.8"));
+        this.croissanceMin = Double.parseDouble(ConfigReader.getProperty("leak.minGrowthRatio", "0.1"));
+        METRIQUES.forEach(m -> series.put(m, new ArrayList<>()));
+    }
+
+    public static void demarrer(WebDriver driver) {
+        Optional<DevTools> session = DevToolsSupport.ouvrir(driver);
+        if (!session.isPresent()) return;
+        DevToolsSupport.envoyer(session.get(), "Performance.enable", Map.of());
+        SESSIONS.put(driver, new LeakTracker(session.get()));
+    }
+
+    public static LeakTracker pour(WebDriver driver) {
+        return driver == null ? null : SESSIONS.get(driver);
+    }
+
+    public static void arreter(WebDriver driver) {
+        if (driver != null) {
+            SESSIONS.remove(driver);
+        }
+    }
+
+    public void echantillonner(String etape) {
+        if (etapes.size() >= maxEchantillons) return;
+        if (forcerGc) {
+            // Sans GC forcé, le tas JS oscille au gré du ramasse-miettes et masque la tendance
+            DevToolsSupport.envoyer(devTools, "HeapProfiler.collectGarbage", Map.of());
+        }
+        Map<String, Object> reponse = DevToolsSupport.envoyer(devTools, "Performance.getMetrics", Map.of());
+        Map<String, Double> valeurs = new HashMap<>();
+        Object metriques = reponse.get("metrics");
+        if (metriques instanceof List) {
+            for (Object m : (List<?>) metriques) {
+                Map<?, ?> metrique = (Map<?, ?>) m;
+                Object valeur = metrique.get("value");
+                if (valeur instanceof Number) {
+                    valeurs.put(String.valueOf(metrique.get("name")), ((Number) valeur).doubleValue());
+                }
+            }
+        }
+        etapes.add(etape == null ? "étape " + (etapes.size() + 1) : etape);
+        METRIQUES.forEach(m -> series.get(m).add(valeurs.getOrDefault(m, Double.NaN)));
+    }
+
+    public int getEchantillons() {
+        return etapes.size();
+    }
+
+    // Une ligne par métrique suspecte, avec la séquence d'étapes de la plus longue croissance; vide si rien à signaler
+    public List<String> analyser() {
+        List<String> suspects = new ArrayList<>();
+        if (etapes.size() < minEchantillons) return suspects;
+        for (String metrique : SURVEILLEES) {
+            List<Double> serie = series.get(metrique);
+            if (serie.stream().anyMatch(v -> v.isNaN())) continue;
+
+            double[] regression = regression(serie);
+            double pente = regression[0];
+            double r2 = regression[1];
+            double premiere = serie.get(0);
+            double derniere = serie.get(serie.size() - 1);
+            double croissance = premiere > 0 ? (derniere - premiere) / premiere : 0;
+            if (pente <= 0 || r2 < r2Min || croissance < croissanceMin) continue;
+
+            int[] sequence = plusLongueCroissance(serie);
+            suspects.add(String.format(Locale.ROOT, "%s: %s -> %s (+%.0f%%, pente %s/étape, R²=%.2f) de \"%s\" à \"%s\"",
+                    metrique, formater(metrique, premiere), formater(metrique, derniere), croissance * 100,
+                    formater(metrique, pente), r2, etapes.get(sequence[0]), etapes.get(sequence[1])));
+        }
+        return suspects;
+    }
+
+    // Tableau des échantillons, joint au rapport quand une fuite est suspectée
+    public String tableau() {
+        StringBuilder sb = new StringBuilder("étape;" + String.join(";", METRIQUES) + "\n");
+        for (int i = 0; i < etapes.size(); i++) {
+            sb.append(etapes.get(i));
+            for (String metrique : METRIQUES) {
+                sb.append(';').append(formater(metrique, series.get(metrique).get(i)));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    // Moindres carrés sur l'indice d'échantillon: {pente, R²}
+    private static double[] regression(List<Double> y) {
+        int n = y.size();
+        double mx = (n - 1) / 2.0;
+        double my = y.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+        double sxy = 0, sxx = 0, syy = 0;
+        for (int i = 0; i < n; i++) {
+            double dx = i - mx;
+            double dy = y.get(i) - my;
+            sxy += dx * dy;
+            sxx += dx * dx;
+            syy += dy * dy;
+        }
+        double pente = sxx == 0 ? 0 : sxy / sxx;
+        double r2 = syy == 0 ? 0 : (sxy * sxy) / (sxx * syy);
+        return new double[]{pente, r2};
+    }
+
+    // Indices [début, fin] de la plus longue suite non décroissante
+    private static int[] plusLongueCroissance(List<Double> y) {
+        int debut = 0, meilleurDebut = 0, meilleureFin = 0;
+        for (int i = 1; i < y.size(); i++) {
+            if (y.get(i) < y.get(i - 1)) {
+                debut = i;
+            }
+            if (i - debut > meilleureFin - meilleurDebut) {
+                meilleurDebut = debut;
+                meilleureFin = i;
+            }
+        }
+        return new int[]{meilleurDebut, meilleureFin};
+    }
+
+    private static String formater(String metrique, double valeur) {
+        if (Double.isNaN(valeur)) return "";
+        return "JSHeapUsedSize".equals(metrique)
+                ? String.format(Locale.ROOT, "%.1f Mo", valeur / (1024 * 1024))
+                : String.format(Locale.ROOT, "%.0f", valeur);
+    }
+}
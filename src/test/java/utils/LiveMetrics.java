@@ -0,0 +1,373 @@
+package utils;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.DoubleSupplier;
+
+// Métriques de l'exécution en cours au format OpenMetrics: endpoint HTTP (metrics.port, /metrics)
+// et/ou fichier réécrit périodiquement (metrics.file), pour suivre le débit et repérer un ralentissement en direct.
+public class LiveMetrics {
+    private static final String TYPE_CONTENU = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+    private static final double[] SEUILS_ETAPE = {0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60};
+    private static final double[] SEUILS_DEMARRAGE = {0.5, 1, 2, 5, 10, 30, 60, 120};
+    private static final double[] QUANTILES = {0.5, 0.9, 0.95, 0.99};
+
+    private final boolean actif;
+    private final Map<String, LongAdder> scenarios = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> etapes = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> echecs = new ConcurrentHashMap<>();
+    private final Histogramme dureeEtapes = new Histogramme(SEUILS_ETAPE);
+    private final Histogramme demarrageDriver = new Histogramme(SEUILS_DEMARRAGE);
+    private final Fenetre latencesRecentes;
+    private final Debit debitScenarios = new Debit();
+    private final Debit debitEtapes = new Debit();
+    private final AtomicInteger sessionsActives = new AtomicInteger();
+    // nom -> étiquettes -> valeur lue au moment de l'exposition (profondeur de file, occupation des pools...)
+    private final Map<String, Jauge> jauges = new ConcurrentHashMap<>();
+    // demarrer()/arreter() peuvent venir de plusieurs runtimes ou threads: serveur et écrivain sous verrou
+    private final ReentrantLock cycle = new ReentrantLock();
+    private HttpServer serveur;
+    private ScheduledExecutorService ecrivain;
+
+    private static class Holder {
+        private static final LiveMetrics INSTANCE = new LiveMetrics();
+    }
+
+    public static LiveMetrics getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Jauge {
+        final String aide;
+        final Map<String, DoubleSupplier> valeurs = new ConcurrentHashMap<>();
+
+        Jauge(String aide) {
+            this.aide = aide;
+        }
+    }
+
+    // Histogramme cumulatif à seuils fixes: compteurs sans verrou, coût négligeable par observation
+    private static class Histogramme {
+        final double[] seuils;
+        final LongAdder[] compteurs;
+        final LongAdder nombre = new LongAdder();
+        final DoubleAdder somme = new DoubleAdder();
+
+        Histogramme(double[] seuils) {
+            this.seuils = seuils;
+            this.compteurs = new LongAdder[seuils.length];
+            for (int i = 0; i < seuils.length; i++) {
+                compteurs[i] = new LongAdder();
+            }
+        }
+
+        void observer(double secondes) {
+            for (int i = 0; i < seuils.length; i++) {
+                if (secondes <= seuils[i]) {
+                    compteurs[i].increment();
+                }
+            }
+            nombre.increment();
+            somme.add(secondes);
+        }
+    }
+
+    // Dernières durées d'étape, pour des percentiles qui reflètent la fin de l'exécution et non sa moyenne
+    private static class Fenetre {
+        final double[] valeurs;
+        final ReentrantLock verrou = new ReentrantLock();
+        int suivant;
+        int taille;
+
+        Fenetre(int capacite) {
+            valeurs = new double[capacite];
+        }
+
+        void ajouter(double valeur) {
+            verrou.lock();
+            try {
+                valeurs[suivant] = valeur;
+                suivant = (suivant + 1) % valeurs.length;
+                taille = Math.min(taille + 1, valeurs.length);
+            } finally {
+                verrou.unlock();
+            }
+        }
+
+        double[] triees() {
+            verrou.lock();
+            try {
+                double[] copie = Arrays.copyOf(valeurs, taille);
+                Arrays.sort(copie);
+                return copie;
+            } finally {
+                verrou.unlock();
+            }
+        }
+    }
+
+    // Événements par seconde sur la dernière minute glissante (une case par seconde)
+    private static class Debit {
+        final long[] secondes = new long[60];
+        final long[] comptes = new long[60];
+        final long debut = System.nanoTime();
+        final ReentrantLock verrou = new ReentrantLock();
+
+        void compter() {
+            long seconde = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+            int index = (int) (seconde % secondes.length);
+            verrou.lock();
+            try {
+                if (secondes[index] != seconde) {
+                    secondes[index] = seconde;
+                    comptes[index] = 0;
+                }
+                comptes[index]++;
+            } finally {
+                verrou.unlock();
+            }
+        }
+
+        double parSeconde() {
+            long maintenant = System.nanoTime();
+            long seconde = TimeUnit.NANOSECONDS.toSeconds(maintenant);
+            long total = 0;
+            verrou.lock();
+            try {
+                for (int i = 0; i < secondes.length; i++) {
+                    if (seconde - secondes[i] < secondes.length) {
+                        total += comptes[i];
+                    }
+                }
+            } finally {
+                verrou.unlock();
+            }
+            double ecoule = Math.max(1, Math.min(secondes.length, TimeUnit.NANOSECONDS.toSeconds(maintenant - debut)));
+            return total / ecoule;
+        }
+    }
+
+    private LiveMetrics() {
+        actif = Boolean.parseBoolean(ConfigReader.getProperty("metrics.enabled", "true"));
+        latencesRecentes = new Fenetre(Integer.parseInt(ConfigReader.getProperty("metrics.latencyWindow", "1000")));
+    }
+
+    public boolean isActif() {
+        return actif;
+    }
+
+    // Démarre l'endpoint et/ou l'écriture périodique; sans effet si déjà démarré
+    public void demarrer() {
+        if (!actif) return;
+        cycle.lock();
+        try {
+            if (serveur != null || ecrivain != null) return;
+            ouvrir();
+        } finally {
+            cycle.unlock();
+        }
+    }
+
+    // Appelé verrou tenu
+    private void ouvrir() {
+        int port = Integer.parseInt(ConfigReader.getProperty("metrics.port", "9464"));
+        // Boucle locale par défaut: l'état de l'exécution n'est pas exposé au réseau de l'agent
+        String hote = ConfigReader.getProperty("metrics.host", "127.0.0.1");
+        if (port > 0) {
+            try {
+                serveur = HttpServer.create(new InetSocketAddress(hote, port), 0);
+                serveur.createContext("/metrics", echange -> {
+                    byte[] corps = exposer().getBytes(StandardCharsets.UTF_8);
+                    echange.getResponseHeaders().set("Content-Type", TYPE_CONTENU);
+                    echange.sendResponseHeaders(200, corps.length);
+                    try (OutputStream sortie = echange.getResponseBody()) {
+                        sortie.write(corps);
+                    }
+                });
+                serveur.setExecutor(Executors.newSingleThreadExecutor(r -> {
+                    Thread t = new Thread(r, "metriques-http");
+                    t.setDaemon(true);
+                    return t;
+                }));
+                serveur.start();
+                System.out.println("📈 Métriques en direct: http://" + hote + ":" + port + "/metrics");
+            } catch (IOException e) {
+                // Port pris (autre exécution en parallèle): le fichier reste disponible
+                System.err.println("⚠️ Endpoint de métriques indisponible sur le port " + port + ": " + e.getMessage());
+                serveur = null;
+            }
+        }
+        String fichier = ConfigReader.getProperty("metrics.file", "target/rapports-tests/metrics.prom");
+        if (!fichier.isEmpty()) {
+            Path destination = Paths.get(fichier);
+            long intervalle = Long.parseLong(ConfigReader.getProperty("metrics.fileIntervalSeconds", "10"));
+            ecrivain = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "metriques-fichier");
+                t.setDaemon(true);
+                return t;
+            });
+            ecrivain.scheduleAtFixedRate(() -> ecrire(destination), intervalle, intervalle, TimeUnit.SECONDS);
+        }
+    }
+
+    // Dernière écriture du fichier puis arrêt de l'endpoint
+    public void arreter() {
+        cycle.lock();
+        try {
+            if (ecrivain != null) {
+                ecrivain.shutdownNow();
+                ecrire(Paths.get(ConfigReader.getProperty("metrics.file", "target/rapports-tests/metrics.prom")));
+                ecrivain = null;
+            }
+            if (serveur != null) {
+                serveur.stop(0);
+                serveur = null;
+            }
+        } finally {
+            cycle.unlock();
+        }
+    }
+
+    public void etapeTerminee(long dureeNs, boolean echec, String messageErreur) {
+        if (!actif) return;
+        double secondes = dureeNs / 1e9;
+        etapes.computeIfAbsent(echec ? "echec" : "reussi", k -> new LongAdder()).increment();
+        dureeEtapes.observer(secondes);
+        latencesRecentes.ajouter(secondes);
+        debitEtapes.compter();
+        if (echec) {
+            echecs.computeIfAbsent(TestManager.getErrorType(messageErreur), k -> new LongAdder()).increment();
+        }
+    }
+
+    public void scenarioTermine(boolean echec) {
+        if (!actif) return;
+        scenarios.computeIfAbsent(echec ? "echec" : "reussi", k -> new LongAdder()).increment();
+        debitScenarios.compter();
+    }
+
+    public void sessionOuverte(long demarrageNs) {
+        if (!actif) return;
+        demarrageDriver.observer(demarrageNs / 1e9);
+        sessionsActives.incrementAndGet();
+    }
+
+    public void sessionFermee() {
+        if (!actif) return;
+        sessionsActives.updateAndGet(n -> Math.max(0, n - 1));
+    }
+
+    // etiquettes au format OpenMetrics sans accolades, ex. pool="appium"; une seule valeur par couple nom/étiquettes
+    public void enregistrerJauge(String nom, String aide, String etiquettes, DoubleSupplier valeur) {
+        if (!actif) return;
+        jauges.computeIfAbsent(nom, k -> new Jauge(aide)).valeurs.putIfAbsent(etiquettes, valeur);
+    }
+
+    public String exposer() {
+        StringBuilder sb = new StringBuilder(4096);
+        compteurs(sb, "planity_scenarios", "Scénarios terminés par statut", "statut", scenarios);
+        compteurs(sb, "planity_steps", "Étapes terminées par statut", "statut", etapes);
+        compteurs(sb, "planity_failures", "Échecs d'étape par type d'erreur", "type", echecs);
+
+        jauge(sb, "planity_scenarios_per_second", "Scénarios terminés par seconde (minute glissante)", debitScenarios.parSeconde());
+        jauge(sb, "planity_steps_per_second", "Étapes terminées par seconde (minute glissante)", debitEtapes.parSeconde());
+        jauge(sb, "planity_active_sessions", "Sessions navigateur ou appareil ouvertes", sessionsActives.get());
+
+        histogramme(sb, "planity_step_duration_seconds", "Durée des étapes", dureeEtapes);
+        histogramme(sb, "planity_driver_startup_seconds", "Temps d'obtention d'une session prête", demarrageDriver);
+
+        double[] recentes = latencesRecentes.triees();
+        sb.append("# TYPE planity_step_latency_seconds summary\n")
+                .append("# HELP planity_step_latency_seconds Percentiles des dernières étapes (nombre et somme: toute l'exécution)\n")
+                .append("# UNIT planity_step_latency_seconds seconds\n");
+        if (recentes.length > 0) {
+            for (double q : QUANTILES) {
+                int index = Math.min(recentes.length - 1, (int) Math.ceil(q * recentes.length) - 1);
+                sb.append("planity_step_latency_seconds{quantile=\"").append(q).append("\"} ")
+                        .append(nombre(recentes[Math.max(0, index)])).append('\n');
+            }
+        }
+        // _count et _sum d'un summary sont cumulatifs (rate() en dépend): compteurs de l'exécution, pas la fenêtre
+        sb.append("planity_step_latency_seconds_count ").append(dureeEtapes.nombre.sum()).append('\n')
+                .append("planity_step_latency_seconds_sum ").append(nombre(dureeEtapes.somme.sum())).append('\n');
+
+        new TreeMap<>(jauges).forEach((nom, jauge) -> {
+            sb.append("# TYPE ").append(nom).append(" gauge\n")
+                    .append("# HELP ").append(nom).append(' ').append(jauge.aide).append('\n');
+            jauge.valeurs.forEach((etiquettes, valeur) -> {
+                double v;
+                try {
+                    v = valeur.getAsDouble();
+                } catch (RuntimeException e) {
+                    return;
+                }
+                sb.append(nom).append(etiquettes.isEmpty() ? "" : "{" + etiquettes + "}")
+                        .append(' ').append(nombre(v)).append('\n');
+            });
+        });
+        return sb.append("# EOF\n").toString();
+    }
+
+    private static void compteurs(StringBuilder sb, String nom, String aide, String etiquette, Map<String, LongAdder> valeurs) {
+        sb.append("# TYPE ").append(nom).append(" counter\n")
+                .append("# HELP ").append(nom).append(' ').append(aide).append('\n');
+        new TreeMap<>(valeurs).forEach((valeur, compteur) ->
+                sb.append(nom).append("_total{").append(etiquette).append("=\"").append(valeur).append("\"} ")
+                        .append(compteur.sum()).append('\n'));
+    }
+
+    private static void jauge(StringBuilder sb, String nom, String aide, double valeur) {
+        sb.append("# TYPE ").append(nom).append(" gauge\n")
+                .append("# HELP ").append(nom).append(' ').append(aide).append('\n')
+                .append(nom).append(' ').append(nombre(valeur)).append('\n');
+    }
+
+    private static void histogramme(StringBuilder sb, String nom, String aide, Histogramme h) {
+        sb.append("# TYPE ").append(nom).append(" histogram\n")
+                .append("# HELP ").append(nom).append(' ').append(aide).append('\n')
+                .append("# UNIT ").append(nom).append(" seconds\n");
+        for (int i = 0; i < h.seuils.length; i++) {
+            sb.append(nom).append("_bucket{le=\"").append(nombre(h.seuils[i])).append("\"} ")
+                    .append(h.compteurs[i].sum()).append('\n');
+        }
+        long total = h.nombre.sum();
+        sb.append(nom).append("_bucket{le=\"+Inf\"} ").append(total).append('\n')
+                .append(nom).append("_count ").append(total).append('\n')
+                .append(nom).append("_sum ").append(nombre(h.somme.sum())).append('\n');
+    }
+
+    private static String nombre(double valeur) {
+        return Double.isInfinite(valeur) ? (valeur > 0 ? "+Inf" : "-Inf") : Double.toString(valeur);
+    }
+
+    // Écriture atomique: un lecteur (tail, node_exporter textfile) ne voit jamais un fichier à moitié écrit
+    private void ecrire(Path destination) {
+        try {
+            if (destination.getParent() != null) {
+                Files.createDirectories(destination.getParent());
+            }
+            Path temporaire = destination.resolveSibling(destination.getFileName() + ".tmp");
+            Files.write(temporaire, exposer().getBytes(StandardCharsets.UTF_8));
+            Files.move(temporaire, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("⚠️ Fichier de métriques non écrit: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.json.Json;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class LocatorHealer {
+    private static final LocatorHealer INSTANCE = new LocatorHealer();
+
+    // Réécrit à chaque exécution: hors des sources et hors de target/ (conservé par mvn clean)
+    private static final String STORE_PAR_DEFAUT = "historique/empreintes.json";
+    private static final int MAX_CANDIDATS = 500;
+
+    // Décrit un élément en un seul aller-retour: tag, attributs stables, texte, voisinage et position
+    private static final String DESCRIPTEUR_JS =
+            "var decrire = function(el) {" +
+            "  var attrs = {};" +
+            "  ['id','name','type','placeholder','aria-label','role','data-testid','href','title','alt','for']" +
+            "    .forEach(function(a) { var v = el.getAttribute(a); if (v) attrs[a] = v; });" +
+            "  var txt = (el.innerText || el.value || '').trim().substring(0, 80);" +
+            "  var voisin = '';" +
+            "  if (el.labels && el.labels.length) voisin += el.labels[0].innerText + ' ';" +
+            "  var prec = el.previousElementSibling;" +
+            "  if (prec) voisin += (prec.innerText || '').substring(0, 60) + ' ';" +
+            "  if (el.parentElement) voisin += el.parentElement.tagName.toLowerCase();" +
+            "  var r = el.getBoundingClientRect();" +
+            "  return {tag: el.tagName.toLowerCase(), attributs: attrs," +
+            "    classes: Array.from(el.classList).filter(function(c) { return !/\\d{4,}/.test(c); })," +
+            "    texte: txt, voisinage: voisin, x: Math.round(r.left), y: Math.round(r.top)};" +
+            "};";
+
+    private static final String CAPTURE_JS = DESCRIPTEUR_JS + "return decrire(arguments[0]);";
+
+    private static final String SNAPSHOT_JS = DESCRIPTEUR_JS +
+            "var els = Array.from(document.getElementsByTagName(arguments[0])).slice(0, arguments[1]);" +
+            "return els.map(decrire);";
+
+    private final boolean actif;
+    private final double seuil;
+    private final Path store;
+    private final Json json = new Json();
+
+    // Empreintes connues (persistées) et locators réparés pendant l'exécution
+    private final Map<String, ElementFingerprint> empreintes = new ConcurrentHashMap<>();
+    private final Map<String, By> reparations = new ConcurrentHashMap<>();
+    private final Set<String> enregistresCetteExecution = ConcurrentHashMap.newKeySet();
+    private volatile boolean modifie;
+
+    private LocatorHealer() {
+        this.actif = Boolean.parseBoolean(ConfigReader.getProperty("selfHealing", "true"));
+        this.seuil = Double.parseDouble(ConfigReader.getProperty("selfHealing.threshold", "0.55"));
+        this.store = Paths.get(ConfigReader.getProperty("selfHealing.store", STORE_PAR_DEFAUT));
+        charger();
+    }
+
+    public static LocatorHealer getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isActif() {
+        return actif;
+    }
+
+    public boolean connait(By locator) {
+        return actif && empreintes.containsKey(cle(locator));
+    }
+
+    // Locator à utiliser: la réparation trouvée plus tôt dans l'exécution, sinon l'original
+    public By locatorActif(By locator) {
+        return actif ? reparations.getOrDefault(cle(locator), locator) : locator;
+    }
+
+    // Enregistre l'empreinte une seule fois par exécution et par locator
+    public void enregistrer(WebDriver driver, By locator, WebElement element) {
+        if (!actif || !(driver instanceof JavascriptExecutor)) return;
+        String cle = cle(locator);
+        if (!enregistresCetteExecution.add(cle)) return;
+        try {
+            Object descripteur = ((JavascriptExecutor) driver).executeScript(CAPTURE_JS, element);
+            if (descripteur instanceof Map) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> map = (Map<String, Object>) descripteur;
+                empreintes.put(cle, ElementFingerprint.depuisDescripteur(map));
+                modifie = true;
+            }
+        } catch (Exception e) {
+            // L'empreinte est optionnelle: on ne fait jamais échouer une étape pour elle
+            enregistresCetteExecution.remove(cle);
+        }
+    }
+
+    // Cherche un remplaçant à partir d'un seul instantané du DOM; il n'est retenu qu'après confirmer()
+    public By reparer(WebDriver driver, By locator) {
+        String cle = cle(locator);
+        ElementFingerprint reference = empreintes.get(cle);
+        if (!actif || reference == null || !(driver instanceof JavascriptExecutor)) return null;
+
+        try {
+            Object resultat = ((JavascriptExecutor) driver)
+                    .executeScript(SNAPSHOT_JS, reference.getTag(), MAX_CANDIDATS);
+            // Descripteurs seuls: aucune référence d'élément ne repasse sur le fil
+            if (!(resultat instanceof List)) return null;
+
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> descripteurs = (List<Map<String, Object>>) resultat;
+            List<ElementFingerprint> candidats = new ArrayList<>(descripteurs.size());
+            descripteurs.forEach(d -> candidats.add(ElementFingerprint.depuisDescripteur(d)));
+
+            int meilleur = meilleurCandidat(reference, candidats);
+            if (meilleur < 0) {
+                System.out.println("⚠️ Aucun remplaçant fiable pour le locator: " + locator);
+                return null;
+            }
+
+            By repare = construireLocator(candidats.get(meilleur));
+            if (repare != null) {
+                System.out.println("🩹 Remplaçant proposé: " + locator + " → " + repare +
+                        " (empreinte: " + reference + ")");
+            }
+            return repare;
+        } catch (Exception e) {
+            System.err.println("⚠️ Erreur lors de la réparation du locator " + locator + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Le remplaçant est utilisé pour le reste de l'exécution
+    public void confirmer(By locator, By repare) {
+        if (!actif) return;
+        reparations.put(cle(locator), repare);
+        System.out.println("🩹 Locator réparé: " + locator + " → " + repare);
+    }
+
+    // Réparation qui ne trouve plus rien: retour au locator d'origine
+    public void oublier(By locator) {
+        if (reparations.remove(cle(locator)) != null) {
+            System.out.println("🩹 Réparation abandonnée: " + locator);
+        }
+    }
+
+    // Index inversé jeton -> candidats: seuls les candidats partageant un jeton sont évalués
+    private int meilleurCandidat(ElementFingerprint reference, List<ElementFingerprint> candidats) {
+        Map<String, List<Integer>> index = new HashMap<>();
+        for (int i = 0; i < candidats.size(); i++) {
+            for (String jeton : candidats.get(i).jetons().keySet()) {
+                index.computeIfAbsent(jeton, k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        Set<Integer> pertinents = new HashSet<>();
+        for (String jeton : reference.jetons().keySet()) {
+            pertinents.addAll(index.getOrDefault(jeton, Collections.emptyList()));
+        }
+
+        int meilleur = -1;
+        double meilleurScore = seuil;
+        for (int i : pertinents) {
+            double score = reference.similarite(candidats.get(i));
+            if (score > meilleurScore) {
+                meilleurScore = score;
+                meilleur = i;
+            }
+        }
+        return meilleur;
+    }
+
+    // Construit un locator à partir des attributs stables du candidat retenu
+    private By construireLocator(ElementFingerprint candidat) {
+        Map<String, String> attributs = candidat.getAttributs();
+        String tag = candidat.getTag();
+
+        String id = attributs.get("id");
+        if (id != null && !ElementFingerprint.estIdGenere(id) && !id.contains("'")) {
+            return By.id(id);
+        }
+        for (String nom : Arrays.asList("data-testid", "name", "aria-label", "placeholder")) {
+            String valeur = attributs.get(nom);
+            if (valeur != null && !valeur.contains("'")) {
+                return By.cssSelector(tag + "[" + nom + "='" + valeur + "']");
+            }
+        }
+        if (id != null) {
+            String radical = ElementFingerprint.radicalId(id);
+            if (!radical.isEmpty() && !radical.contains("'")) {
+                return By.cssSelector(tag + "[id^='" + radical + "']");
+            }
+        }
+        if (!candidat.getTexte().isEmpty() && !candidat.getTexte().contains("'")) {
+            return By.xpath("//" + tag + "[normalize-space()='" + candidat.getTexte() + "']");
+        }
+        return null;
+    }
+
+    public void sauvegarder() {
+        if (!actif || !modifie) return;
+        try {
+            Map<String, Object> contenu = new TreeMap<>();
+            empreintes.forEach((cle, empreinte) -> contenu.put(cle, empreinte.versMap()));
+            File parent = store.toAbsolutePath().getParent().toFile();
+            parent.mkdirs();
+            Files.write(store, json.toJson(contenu).getBytes(StandardCharsets.UTF_8));
+            modifie = false;
+        } catch (IOException e) {
+            System.err.println("⚠️ Erreur lors de la sauvegarde des empreintes: " + e.getMessage());
+        }
+    }
+
+    private void charger() {
+        if (!actif || !Files.exists(store)) return;
+        try {
+            String contenu = new String(Files.readAllBytes(store), StandardCharsets.UTF_8);
+            Map<String, Object> map = json.toType(contenu, Json.MAP_TYPE);
+            map.forEach((cle, valeur) -> {
+                if (valeur instanceof Map) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> descripteur = (Map<String, Object>) valeur;
+                    empreintes.put(cle, ElementFingerprint.depuisDescripteur(descripteur));
+                }
+            });
+            System.out.println("🧬 " + empreintes.size() + " empreintes d'éléments chargées");
+        } catch (Exception e) {
+            System.err.println("⚠️ Erreur lors du chargement des empreintes: " + e.getMessage());
+        }
+    }
+
+    private static String cle(By locator) {
+        return OS.courant() + "|" + locator;
+    }
+}
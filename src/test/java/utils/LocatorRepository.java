@@ -0,0 +1,216 @@
+package utils;
+
+import io.appium.java_client.AppiumBy;
+import org.openqa.selenium.By;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class LocatorRepository {
+    private static final String LOCATORS_DIR = "src/test/resources/locators";
+    private static final List<String> PLATEFORMES = Arrays.asList("web", "android", "ios");
+
+    // Chargé et validé une seule fois, partagé en lecture seule entre les threads
+    private static final class Holder {
+        private static final LocatorRepository INSTANCE = new LocatorRepository(
+                Paths.get(ConfigReader.getProperty("locators.dir", LOCATORS_DIR)));
+    }
+
+    // plateforme -> "Page.cle" -> locator compilé (ou modèle si paramétré)
+    private final Map<String, Map<String, By>> locators;
+    private final Map<String, Map<String, String>> modeles;
+    private final Map<String, By> instancies = new ConcurrentHashMap<>();
+    private final Set<String> utilises = ConcurrentHashMap.newKeySet();
+    private final List<String> doublons;
+
+    private LocatorRepository(Path dossier) {
+        Map<String, Properties> pages = chargerPages(dossier);
+        List<String> erreurs = new ArrayList<>();
+        Map<String, Map<String, By>> compiles = new HashMap<>();
+        Map<String, Map<String, String>> parametres = new HashMap<>();
+
+        for (String plateforme : PLATEFORMES) {
+            Map<String, By> parPlateforme = new HashMap<>();
+            Map<String, String> modelesPlateforme = new HashMap<>();
+            pages.forEach((page, props) -> {
+                for (String cle : clesDeBase(props)) {
+                    String valeur = props.getProperty(cle + "." + plateforme, props.getProperty(cle));
+                    if (valeur == null) continue;
+                    String nom = page + "." + cle;
+                    try {
+                        if (valeur.matches(".*\\{\\d+}.*")) {
+                            compiler(valeur.replaceAll("\\{\\d+}", "x"));
+                            modelesPlateforme.put(nom, valeur);
+                        } else {
+                            parPlateforme.put(nom, compiler(valeur));
+                        }
+                    } catch (IllegalArgumentException e) {
+                        erreurs.add(nom + " [" + plateforme + "]: " + e.getMessage());
+                    }
+                }
+            });
+            compiles.put(plateforme, Map.copyOf(parPlateforme));
+            parametres.put(plateforme, Map.copyOf(modelesPlateforme));
+        }
+
+        if (!erreurs.isEmpty()) {
+            throw new IllegalStateException("Locators invalides:\n• " + String.join("\n• ", erreurs));
+        }
+
+        this.locators = Map.copyOf(compiles);
+        this.modeles = Map.copyOf(parametres);
+        this.doublons = detecterDoublons(pages);
+
+        int total = compiles.values().stream().mapToInt(Map::size).sum()
+                + parametres.values().stream().mapToInt(Map::size).sum();
+        System.out.println("🗂️ " + total + " locators chargés depuis " + dossier + " (" + pages.size() + " pages)");
+        doublons.forEach(d -> System.out.println("⚠️ Locator dupliqué: " + d));
+    }
+
+    public static LocatorRepository getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public By get(String page, String cle, String... parametres) {
+        String nom = page + "." + cle;
+        String plateforme = plateformeCourante();
+        utilises.add(nom);
+
+        By locator = locators.get(plateforme).get(nom);
+        if (locator != null) return locator;
+
+        String modele = modeles.get(plateforme).get(nom);
+        if (modele == null) {
+            throw new IllegalStateException("Locator inconnu pour " + OS.courant() + ": " + nom);
+        }
+        String valeur = modele;
+        for (int i = 0; i < parametres.length; i++) {
+            valeur = valeur.replace("{" + i + "}", parametres[i]);
+        }
+        return instancies.computeIfAbsent(plateforme + "|" + valeur, k -> compiler(k.substring(k.indexOf('|') + 1)));
+    }
+
+    // Locators déclarés mais jamais demandés pendant l'exécution
+    public List<String> getNonUtilises() {
+        return Stream.concat(locators.values().stream(), modeles.values().stream())
+                .flatMap(m -> m.keySet().stream())
+                .filter(nom -> !utilises.contains(nom))
+                .collect(Collectors.toCollection(TreeSet::new))
+                .stream()
+                .collect(Collectors.toList());
+    }
+
+    public List<String> getDoublons() {
+        return doublons;
+    }
+
+    public void afficherRapport() {
+        List<String> nonUtilises = getNonUtilises();
+        if (nonUtilises.isEmpty() && doublons.isEmpty()) return;
+        System.out.println("\n🗂️ Rapport des locators:");
+        nonUtilises.forEach(n -> System.out.println("• Jamais utilisé: " + n));
+        doublons.forEach(d -> System.out.println("• Dupliqué: " + d));
+    }
+
+    // strategie:valeur -> By
+    static By compiler(String definition) {
+        int separateur = definition.indexOf(':');
+        if (separateur <= 0) {
+            throw new IllegalArgumentException("format attendu 'strategie:valeur' - " + definition);
+        }
+        String strategie = definition.substring(0, separateur).trim();
+        String valeur = definition.substring(separateur + 1).trim();
+        switch (strategie) {
+            case "id":
+                return By.id(valeur);
+            case "css":
+                return By.cssSelector(valeur);
+            case "xpath":
+                return By.xpath(valeur);
+            case "name":
+                return By.name(valeur);
+            case "className":
+                return By.className(valeur);
+            case "tag":
+                return By.tagName(valeur);
+            case "linkText":
+                return By.linkText(valeur);
+            case "partialLinkText":
+                return By.partialLinkText(valeur);
+            case "accessibilityId":
+                return AppiumBy.accessibilityId(valeur);
+            case "uiautomator":
+                return AppiumBy.androidUIAutomator(valeur);
+            case "iosPredicate":
+                return AppiumBy.iOSNsPredicateString(valeur);
+            case "iosClassChain":
+                return AppiumBy.iOSClassChain(valeur);
+            default:
+                throw new IllegalArgumentException("stratégie inconnue '" + strategie + "'");
+        }
+    }
+
+    private static String plateformeCourante() {
+        if (OS.isAndroid()) return "android";
+        if (OS.isIOS()) return "ios";
+        return "web";
+    }
+
+    private static Set<String> clesDeBase(Properties props) {
+        Set<String> cles = new TreeSet<>();
+        for (String cle : props.stringPropertyNames()) {
+            int point = cle.lastIndexOf('.');
+            cles.add(point > 0 && PLATEFORMES.contains(cle.substring(point + 1)) ? cle.substring(0, point) : cle);
+        }
+        return cles;
+    }
+
+    // Même définition déclarée sous plusieurs clés pour une même plateforme
+    private List<String> detecterDoublons(Map<String, Properties> pages) {
+        List<String> resultat = new ArrayList<>();
+        for (String plateforme : PLATEFORMES) {
+            Map<String, List<String>> parDefinition = new TreeMap<>();
+            pages.forEach((page, props) -> clesDeBase(props).forEach(cle -> {
+                String valeur = props.getProperty(cle + "." + plateforme, props.getProperty(cle));
+                if (valeur != null) {
+                    parDefinition.computeIfAbsent(valeur, k -> new ArrayList<>()).add(page + "." + cle);
+                }
+            }));
+            parDefinition.forEach((definition, noms) -> {
+                if (noms.size() > 1) {
+                    resultat.add(plateforme + " " + noms + " → " + definition);
+                }
+            });
+        }
+        return List.copyOf(resultat);
+    }
+
+    private static Map<String, Properties> chargerPages(Path dossier) {
+        Map<String, Properties> pages = new TreeMap<>();
+        if (!Files.isDirectory(dossier)) {
+            System.err.println("⚠️ Dossier des locators introuvable: " + dossier);
+            return pages;
+        }
+        try (Stream<Path> fichiers = Files.list(dossier)) {
+            for (Path fichier : (Iterable<Path>) fichiers.filter(f -> f.toString().endsWith(".properties"))::iterator) {
+                Properties props = new Properties();
+                try (Reader reader = Files.newBufferedReader(fichier, StandardCharsets.UTF_8)) {
+                    props.load(reader);
+                }
+                String nom = fichier.getFileName().toString();
+                pages.put(nom.substring(0, nom.length() - ".properties".length()), props);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Impossible de charger les locators: " + e.getMessage(), e);
+        }
+        return pages;
+    }
+}
@@ -0,0 +1,376 @@
+package utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.json.Json;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+// Cascade réseau par session (événements Network.* de DevTools, sinon Resource Timing de la page).
+// Les écouteurs ne font que ranger des valeurs dans un tampon borné; l'analyse n'a lieu qu'en fin d'étape
+// et l'export HAR seulement pour une étape en échec ou lente.
+public class NetworkRecorder {
+    private static final Map<WebDriver, NetworkRecorder> SESSIONS = new ConcurrentHashMap<>();
+
+    private static final String RESOURCE_TIMING =
+            "var e=performance.getEntriesByType('resource');var d=window.__planityResIdx||0;" +
+            "if(d>e.length)d=0;window.__planityResIdx=e.length;" +
+            "return e.slice(d).map(function(r){return {url:r.name,type:r.initiatorType,debut:r.startTime," +
+            "duree:r.duration,dns:r.domainLookupEnd-r.domainLookupStart,connexion:r.connectEnd-r.connectStart," +
+            "attente:r.responseStart-r.requestStart,reception:r.responseEnd-r.responseStart," +
+            "taille:r.encodedBodySize||r.transferSize||0,statut:r.responseStatus||0};});";
+
+    private final WebDriver driver;
+    private final int capacite;
+    private final long seuilMs;
+    private final int percentile;
+    private final long etapeLenteMs;
+    private final AtomicLong sequence = new AtomicLong();
+    // Ordre d'arrivée: la plus ancienne requête en vol est la première évincée quand le tampon est plein
+    // (connexions longues, requêtes annulées sans loadingFinished ni loadingFailed)
+    private final LinkedHashMap<String, Requete> enCours = new LinkedHashMap<>();
+    private final ArrayDeque<Requete> terminees = new ArrayDeque<>();
+    // Protège enCours, terminees et les champs des requêtes déjà publiées (écrits par le thread DevTools,
+    // copiés par le thread de test dans enVol)
+    private final ReentrantLock verrou = new ReentrantLock();
+    private final ArrayDeque<Double> durees = new ArrayDeque<>();
+    private volatile double derniereHorlogeS;
+    private DevTools devTools;
+    private long debutEtape;
+
+    public static class Requete {
+        long sequence;
+        String url;
+        String methode;
+        String type;
+        int statut;
+        String mime;
+        long taille;
+        double debutS;
+        double finS;
+        long horodatageMs;
+        String erreur;
+        // Phases (ms) issues de response.timing: blocked, dns, connect, ssl, send, wait, receive
+        final Map<String, Double> phases = new LinkedHashMap<>();
+        boolean lente;
+
+        Requete enVol(double maintenantS) {
+            Requete copie = new Requete();
+            copie.sequence = sequence;
+            copie.url = url;
+            copie.methode = methode;
+            copie.type = type;
+            copie.statut = statut;
+            copie.mime = mime;
+            copie.debutS = debutS;
+            copie.finS = Math.max(debutS, maintenantS);
+            copie.horodatageMs = horodatageMs;
+            copie.erreur = "en cours à la fin de l'étape";
+            copie.phases.putAll(phases);
+            copie.phases.remove("_headersEnd");
+            return copie;
+        }
+
+        public double getDureeMs() {
+            return Math.max(0, (finS - debutS) * 1000);
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public int getStatut() {
+            return statut;
+        }
+
+        public boolean isLente() {
+            return lente;
+        }
+    }
+
+    public static class Etape {
+        private final String nom;
+        private final List<Requete> requetes;
+        private final List<Requete> lentes;
+        private final String har;
+
+        Etape(String nom, List<Requete> requetes, List<Requete> lentes, String har) {
+            this.nom = nom;
+            this.requetes = requetes;
+            this.lentes = lentes;
+            this.har = har;
+        }
+
+        public String getNom() {
+            return nom;
+        }
+
+        public List<Requete> getRequetes() {
+            return requetes;
+        }
+
+        public List<Requete> getLentes() {
+            return lentes;
+        }
+
+        // null quand l'étape n'a rien de notable: aucun export
+        public String getHar() {
+            return har;
+        }
+    }
+
+    private NetworkRecorder(WebDriver driver) {
+        this.driver = driver;
+        this.capacite = Integer.parseInt(ConfigReader.getProperty("network.bufferSize", "2000"));
+        this.seuilMs = Long.parseLong(ConfigReader.getProperty("network.slowThresholdMs", "1000"));
+        this.percentile = Integer.parseInt(ConfigReader.getProperty("network.slowPercentile", "95"));
+        this.etapeLenteMs = Long.parseLong(ConfigReader.getProperty("network.slowStepMs", "3000"));
+    }
+
+    public static NetworkRecorder demarrer(WebDriver driver) {
+        NetworkRecorder enregistreur = new NetworkRecorder(driver);
+        DevToolsSupport.ouvrir(driver).ifPresent(enregistreur::ecouter);
+        SESSIONS.put(driver, enregistreur);
+        return enregistreur;
+    }
+
+    public static NetworkRecorder pour(WebDriver driver) {
+        return driver == null ? null : SESSIONS.get(driver);
+    }
+
+    public static void arreter(WebDriver driver) {
+        NetworkRecorder enregistreur = SESSIONS.remove(driver);
+        if (enregistreur != null && enregistreur.devTools != null) {
+            try {
+                DevToolsSupport.envoyer(enregistreur.devTools, "Network.disable", Map.of());
+            } catch (Exception ignored) {
+                // Session déjà fermée
+            }
+        }
+    }
+
+    private void ecouter(DevTools session) {
+        devTools = session;
+        DevToolsSupport.envoyer(session, "Network.enable", Map.of("maxPostDataSize", 0));
+        DevToolsSupport.ecouter(session, "Network.requestWillBeSent", e -> {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> requete = (Map<String, Object>) e.get("request");
+            Requete r = new Requete();
+            r.sequence = sequence.incrementAndGet();
+            r.url = String.valueOf(requete.get("url"));
+            r.methode = String.valueOf(requete.get("method"));
+            r.type = String.valueOf(e.get("type"));
+            r.debutS = nombre(e.get("timestamp"));
+            derniereHorlogeS = Math.max(derniereHorlogeS, r.debutS);
+            r.horodatageMs = (long) (nombre(e.get("wallTime")) * 1000);
+            verrou.lock();
+            try {
+                // Une redirection réutilise le même requestId: la précédente est close telle quelle
+                Requete precedente = enCours.remove(String.valueOf(e.get("requestId")));
+                if (precedente != null) {
+                    precedente.finS = r.debutS;
+                    terminer(precedente);
+                }
+                // Plein: éviction par âge plutôt que de ne plus rien enregistrer
+                Iterator<Requete> anciennes = enCours.values().iterator();
+                while (enCours.size() >= capacite && anciennes.hasNext()) {
+                    anciennes.next();
+                    anciennes.remove();
+                }
+                enCours.put(String.valueOf(e.get("requestId")), r);
+            } finally {
+                verrou.unlock();
+            }
+        });
+        DevToolsSupport.ecouter(session, "Network.responseReceived", e -> {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> reponse = (Map<String, Object>) e.get("response");
+            @SuppressWarnings("unchecked")
+            Map<String, Object> timing = (Map<String, Object>) reponse.get("timing");
+            verrou.lock();
+            try {
+                Requete r = enCours.get(String.valueOf(e.get("requestId")));
+                if (r == null) return;
+                r.statut = (int) nombre(reponse.get("status"));
+                r.mime = String.valueOf(reponse.get("mimeType"));
+                if (timing != null) {
+                    phases(r, timing);
+                }
+            } finally {
+                verrou.unlock();
+            }
+        });
+        DevToolsSupport.ecouter(session, "Network.loadingFinished", e -> {
+            verrou.lock();
+            try {
+                Requete r = enCours.remove(String.valueOf(e.get("requestId")));
+                if (r == null) return;
+                r.finS = nombre(e.get("timestamp"));
+                derniereHorlogeS = Math.max(derniereHorlogeS, r.finS);
+                r.taille = (long) nombre(e.get("encodedDataLength"));
+                terminer(r);
+            } finally {
+                verrou.unlock();
+            }
+        });
+        DevToolsSupport.ecouter(session, "Network.loadingFailed", e -> {
+            verrou.lock();
+            try {
+                Requete r = enCours.remove(String.valueOf(e.get("requestId")));
+                if (r == null) return;
+                r.finS = nombre(e.get("timestamp"));
+                r.erreur = String.valueOf(e.get("errorText"));
+                terminer(r);
+            } finally {
+                verrou.unlock();
+            }
+        });
+    }
+
+    private static void phases(Requete r, Map<String, Object> t) {
+        double debutRequete = nombre(t.get("requestTime"));
+        r.phases.put("blocked", Math.max(0, (debutRequete - r.debutS) * 1000));
+        r.phases.put("dns", duree(t, "dnsStart", "dnsEnd"));
+        r.phases.put("connect", duree(t, "connectStart", "connectEnd"));
+        r.phases.put("ssl", duree(t, "sslStart", "sslEnd"));
+        r.phases.put("send", duree(t, "sendStart", "sendEnd"));
+        r.phases.put("wait", Math.max(0, nombre(t.get("receiveHeadersEnd")) - nombre(t.get("sendEnd"))));
+        // receive est complété à la fin du chargement
+        r.phases.put("_headersEnd", debutRequete * 1000 + nombre(t.get("receiveHeadersEnd")));
+    }
+
+    private static double duree(Map<String, Object> t, String debut, String fin) {
+        double d = nombre(t.get(debut));
+        return d < 0 ? -1 : Math.max(0, nombre(t.get(fin)) - d);
+    }
+
+    private static double nombre(Object valeur) {
+        return valeur instanceof Number ? ((Number) valeur).doubleValue() : 0;
+    }
+
+    // Appelé verrou tenu
+    private void terminer(Requete r) {
+        Double finEntetes = r.phases.remove("_headersEnd");
+        if (finEntetes != null) {
+            r.phases.put("receive", Math.max(0, r.finS * 1000 - finEntetes));
+        }
+        if (terminees.size() >= capacite) {
+            terminees.pollFirst();
+        }
+        terminees.addLast(r);
+    }
+
+    public void debutEtape() {
+        debutEtape = sequence.get();
+        if (devTools == null && driver instanceof JavascriptExecutor) {
+            // Repli Resource Timing: on avance le curseur pour ne garder que les ressources de l'étape
+            ((JavascriptExecutor) driver).executeScript(RESOURCE_TIMING);
+        }
+    }
+
+    public Etape finEtape(String nom, long dureeEtapeMs, boolean echec) {
+        List<Requete> requetes = devTools != null ? requetesDepuis(debutEtape) : lireResourceTiming();
+
+        double seuilPercentile = Double.MAX_VALUE;
+        verrou.lock();
+        try {
+            for (Requete r : requetes) {
+                if (durees.size() >= capacite) durees.pollFirst();
+                durees.addLast(r.getDureeMs());
+            }
+            if (durees.size() >= 20) {
+                List<Double> triees = new ArrayList<>(durees);
+                Collections.sort(triees);
+                seuilPercentile = triees.get(Math.min(triees.size() - 1, triees.size() * percentile / 100));
+            }
+        } finally {
+            verrou.unlock();
+        }
+
+        List<Requete> lentes = new ArrayList<>();
+        for (Requete r : requetes) {
+            r.lente = r.getDureeMs() > seuilMs || r.getDureeMs() >= seuilPercentile;
+            if (r.lente) lentes.add(r);
+        }
+        boolean notable = echec || dureeEtapeMs > etapeLenteMs
+                || requetes.stream().anyMatch(r -> r.getDureeMs() > seuilMs);
+        return new Etape(nom, requetes, lentes, notable && !requetes.isEmpty() ? har(nom, requetes) : null);
+    }
+
+    private List<Requete> requetesDepuis(long sequenceDebut) {
+        verrou.lock();
+        try {
+            List<Requete> requetes = terminees.stream().filter(r -> r.sequence > sequenceDebut).collect(Collectors.toList());
+            // Les requêtes encore en vol à la fin de l'étape (souvent les coupables) sont incluses
+            enCours.values().stream().filter(r -> r.sequence > sequenceDebut)
+                    .map(r -> r.enVol(derniereHorlogeS)).forEach(requetes::add);
+            requetes.sort(Comparator.comparingLong(r -> r.sequence));
+            return requetes;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Requete> lireResourceTiming() {
+        List<Requete> requetes = new ArrayList<>();
+        if (!(driver instanceof JavascriptExecutor)) return requetes;
+        long origine = System.currentTimeMillis();
+        List<Map<String, Object>> entrees = (List<Map<String, Object>>) ((JavascriptExecutor) driver).executeScript(RESOURCE_TIMING);
+        if (entrees == null) return requetes;
+        for (Map<String, Object> e : entrees) {
+            Requete r = new Requete();
+            r.sequence = sequence.incrementAndGet();
+            r.url = String.valueOf(e.get("url"));
+            r.methode = "GET";
+            r.type = String.valueOf(e.get("type"));
+            r.statut = (int) nombre(e.get("statut"));
+            r.taille = (long) nombre(e.get("taille"));
+            r.debutS = nombre(e.get("debut")) / 1000;
+            r.finS = r.debutS + nombre(e.get("duree")) / 1000;
+            r.horodatageMs = origine;
+            r.phases.put("dns", nombre(e.get("dns")));
+            r.phases.put("connect", nombre(e.get("connexion")));
+            r.phases.put("wait", nombre(e.get("attente")));
+            r.phases.put("receive", nombre(e.get("reception")));
+            requetes.add(r);
+        }
+        return requetes;
+    }
+
+    // Sous-ensemble de HAR 1.2: suffisant pour les visionneuses courantes, sans en-têtes ni contenus
+    private static String har(String etape, List<Requete> requetes) {
+        List<Map<String, Object>> entrees = new ArrayList<>();
+        for (Requete r : requetes) {
+            Map<String, Object> entree = new LinkedHashMap<>();
+            entree.put("pageref", etape);
+            entree.put("startedDateTime", Instant.ofEpochMilli(r.horodatageMs).toString());
+            entree.put("time", Math.round(r.getDureeMs()));
+            entree.put("request", Map.of("method", r.methode, "url", r.url));
+            Map<String, Object> reponse = new LinkedHashMap<>();
+            reponse.put("status", r.statut);
+            reponse.put("bodySize", r.taille);
+            reponse.put("content", Map.of("mimeType", r.mime == null ? "" : r.mime));
+            entree.put("response", reponse);
+            Map<String, Object> timings = new LinkedHashMap<>();
+            r.phases.forEach((phase, valeur) -> timings.put(phase, Math.round(valeur)));
+            entree.put("timings", timings);
+            entree.put("_resourceType", r.type);
+            if (r.lente) entree.put("_slow", true);
+            if (r.erreur != null) entree.put("_error", r.erreur);
+            entrees.add(entree);
+        }
+        Map<String, Object> log = new LinkedHashMap<>();
+        log.put("version", "1.2");
+        log.put("creator", Map.of("name", "PlanityWebEtMobile", "version", "1.0"));
+        log.put("pages", List.of(Map.of("id", etape, "title", etape)));
+        log.put("entries", entrees);
+        return new Json().toJson(Map.of("log", log));
+    }
+}
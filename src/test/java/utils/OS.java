@@ -1,18 +1,33 @@
 package utils;
 
 public class OS {
+    // Valeur par défaut (configuration, benchmarks); chaque scénario fixe la sienne sur son thread via definir()
     public static String OS;
+    private static final ThreadLocal<String> COURANT = new ThreadLocal<>();
+
+    public static void definir(String plateforme) {
+        if (plateforme == null) {
+            COURANT.remove();
+        } else {
+            COURANT.set(plateforme);
+        }
+    }
+
+    public static String courant() {
+        String plateforme = COURANT.get();
+        return plateforme != null ? plateforme : OS;
+    }
 
     public static boolean isAndroid() {
-        return "Android".equalsIgnoreCase(OS);
+        return "Android".equalsIgnoreCase(courant());
     }
 
     public static boolean isWeb() {
-        return "Web".equalsIgnoreCase(OS);
+        return "Web".equalsIgnoreCase(courant());
     }
 
     public static boolean isIOS() {
-        return "iOS".equalsIgnoreCase(OS);
+        return "iOS".equalsIgnoreCase(courant());
     }
 
 }
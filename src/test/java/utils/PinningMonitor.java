@@ -0,0 +1,77 @@
+package utils;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Suit les événements JFR jdk.VirtualThreadPinned (JDK 21+) et les attribue à notre code
+public class PinningMonitor implements AutoCloseable {
+    private static final String EVENEMENT = "jdk.VirtualThreadPinned";
+    private static final List<String> NOS_PACKAGES = Arrays.asList("pages.", "stepdefinitions.", "utils.", "runner.");
+
+    private final RecordingStream flux;
+    private final Map<String, AtomicLong> occurrences = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> dureesNs = new ConcurrentHashMap<>();
+    private final AtomicLong total = new AtomicLong();
+
+    public PinningMonitor(Duration seuil) {
+        flux = new RecordingStream();
+        flux.enable(EVENEMENT).withThreshold(seuil).withStackTrace();
+        flux.onEvent(EVENEMENT, this::enregistrer);
+    }
+
+    public PinningMonitor demarrer() {
+        flux.startAsync();
+        return this;
+    }
+
+    private void enregistrer(RecordedEvent evenement) {
+        total.incrementAndGet();
+        String origine = origine(evenement.getStackTrace());
+        occurrences.computeIfAbsent(origine, k -> new AtomicLong()).incrementAndGet();
+        dureesNs.computeIfAbsent(origine, k -> new AtomicLong()).addAndGet(evenement.getDuration().toNanos());
+    }
+
+    // Première frame appartenant à nos packages (la glue ou les pages), sinon la frame du haut
+    private static String origine(RecordedStackTrace pile) {
+        if (pile == null || pile.getFrames().isEmpty()) return "inconnue";
+        for (RecordedFrame frame : pile.getFrames()) {
+            if (!frame.isJavaFrame()) continue;
+            String classe = frame.getMethod().getType().getName();
+            if (NOS_PACKAGES.stream().anyMatch(classe::startsWith)) {
+                return classe + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        RecordedFrame haut = pile.getFrames().get(0);
+        return "(hors glue) " + haut.getMethod().getType().getName() + "." + haut.getMethod().getName();
+    }
+
+    public long getTotal() {
+        return total.get();
+    }
+
+    public void afficherRapport() {
+        System.out.println("\n📌 Épinglages de threads virtuels: " + total.get());
+        occurrences.entrySet().stream()
+                .sorted(Map.Entry.<String, AtomicLong>comparingByValue(Comparator.comparingLong(AtomicLong::get)).reversed())
+                .forEach(e -> System.out.printf("• %s — %d fois, %d ms%n",
+                        e.getKey(), e.getValue().get(), dureesNs.get(e.getKey()).get() / 1_000_000));
+    }
+
+    @Override
+    public void close() {
+        try {
+            // JFR vide ses tampons environ une fois par seconde
+            Thread.sleep(1500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flux.close();
+    }
+}
@@ -0,0 +1,348 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+// Enregistrement / rejeu des réponses HTTP du navigateur (domaine Fetch de DevTools), sans certificat
+// d'interception: replay.mode = off | record | replay | hybrid.
+//   record: chaque réponse est rangée sous la clé normalisée de sa requête
+//   replay: tout est servi depuis le cache local, un absent est refusé (aucun accès réseau)
+//   hybrid: servi depuis le cache, un absent part sur le réseau puis est enregistré
+// Cache: index.json (clé -> statut, en-têtes, empreinte du corps) et corps/<sha256>, dédoublonnés.
+public class ReplayProxy {
+    private static final Json JSON = new Json();
+    // Le navigateur reçoit un corps déjà décodé: ces en-têtes ne décrivent plus la réponse rejouée
+    private static final Set<String> ENTETES_IGNORES = Set.of("content-encoding", "content-length", "transfer-encoding");
+
+    private final String mode;
+    private final Path racine;
+    private final Path index;
+    private final Set<String> parametresIgnores;
+    private final Map<String, Reponse> cache = new ConcurrentHashMap<>();
+    private final ReentrantLock ecriture = new ReentrantLock();
+    private final AtomicLong servies = new AtomicLong();
+    private final AtomicLong manquees = new AtomicLong();
+    private final AtomicLong enregistrees = new AtomicLong();
+    private volatile boolean modifie;
+
+    private static class Holder {
+        private static final ReplayProxy INSTANCE = new ReplayProxy();
+    }
+
+    public static ReplayProxy getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Reponse {
+        int statut;
+        List<Map<String, String>> entetes;
+        String corps;
+    }
+
+    private ReplayProxy() {
+        mode = ConfigReader.getProperty("replay.mode", "off").trim().toLowerCase(Locale.ROOT);
+        racine = Paths.get(ConfigReader.getProperty("replay.dir", "src/test/resources/replay"));
+        index = racine.resolve("index.json");
+        parametresIgnores = Arrays.stream(ConfigReader.getProperty("replay.ignoreParams", "_,cb,t,ts,timestamp").split(","))
+                .map(String::trim).filter(p -> !p.isEmpty()).collect(Collectors.toSet());
+        if (isActif()) {
+            charger();
+        }
+    }
+
+    public boolean isActif() {
+        return mode.equals("record") || mode.equals("replay") || mode.equals("hybrid");
+    }
+
+    private boolean sert() {
+        return mode.equals("replay") || mode.equals("hybrid");
+    }
+
+    private boolean enregistre() {
+        return mode.equals("record") || mode.equals("hybrid");
+    }
+
+    // Branché par Driver.getWebDriver sur chaque session web
+    public static void brancher(WebDriver driver) {
+        ReplayProxy proxy = getInstance();
+        if (!proxy.isActif()) return;
+        Optional<DevTools> devTools = DevToolsSupport.ouvrir(driver);
+        if (devTools.isEmpty()) {
+            if (proxy.mode.equals("replay")) {
+                throw new IllegalStateException("Mode replay impossible sans DevTools (navigateur Chromium requis)");
+            }
+            System.err.println("⚠️ Enregistrement/rejeu indisponible pour ce navigateur: accès réseau direct");
+            return;
+        }
+        List<Map<String, Object>> motifs = new ArrayList<>();
+        if (proxy.sert()) {
+            motifs.add(Map.of("urlPattern", "*", "requestStage", "Request"));
+        }
+        if (proxy.enregistre()) {
+            motifs.add(Map.of("urlPattern", "*", "requestStage", "Response"));
+        }
+        // Après le blocage de ressources: une ressource bloquée n'est ni servie ni enregistrée
+        DevToolsSupport.intercepter(devTools.get(), 10, motifs, proxy::traiter);
+        System.out.println("📼 Enregistrement/rejeu réseau: " + proxy.mode + " (" + proxy.cache.size() + " réponses en cache)");
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean traiter(DevTools devTools, Map<String, Object> e) throws IOException {
+        String id = String.valueOf(e.get("requestId"));
+        if (!mode.equals("replay")) {
+            return traiter(devTools, id, e);
+        }
+        // Replay strict: toute erreur (URL non indexable, corps illisible...) échoue la requête; laisser
+        // DevToolsSupport la poursuivre enverrait la requête sur le réseau réel
+        try {
+            return traiter(devTools, id, e);
+        } catch (IOException | RuntimeException erreur) {
+            manquees.incrementAndGet();
+            System.err.println("⚠️ Rejeu impossible (" + erreur.getMessage() + "): "
+                    + ((Map<String, Object>) e.get("request")).get("url"));
+            DevToolsSupport.envoyer(devTools, "Fetch.failRequest",
+                    Map.of("requestId", id, "errorReason", "InternetDisconnected"));
+            return true;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean traiter(DevTools devTools, String id, Map<String, Object> e) throws IOException {
+        String cle = cle((Map<String, Object>) e.get("request"));
+        if (e.containsKey("responseStatusCode") || e.containsKey("responseErrorReason")) {
+            if (!enregistre()) return false;
+            enregistrer(devTools, id, cle, e);
+            DevToolsSupport.envoyer(devTools, "Fetch.continueRequest", Map.of("requestId", id));
+            return true;
+        }
+        if (!sert()) return false;
+        Reponse reponse = cache.get(cle);
+        if (reponse != null) {
+            servir(devTools, id, reponse);
+            servies.incrementAndGet();
+            return true;
+        }
+        manquees.incrementAndGet();
+        if (mode.equals("replay")) {
+            System.err.println("⚠️ Absente du cache de rejeu: " + cle);
+            DevToolsSupport.envoyer(devTools, "Fetch.failRequest",
+                    Map.of("requestId", id, "errorReason", "InternetDisconnected"));
+            return true;
+        }
+        // hybrid: la requête part sur le réseau, la réponse sera enregistrée
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void enregistrer(DevTools devTools, String id, String cle, Map<String, Object> e) throws IOException {
+        if (e.containsKey("responseErrorReason")) return;
+        Reponse reponse = new Reponse();
+        reponse.statut = ((Number) e.get("responseStatusCode")).intValue();
+        reponse.entetes = new ArrayList<>();
+        for (Map<String, Object> entete : (List<Map<String, Object>>) e.getOrDefault("responseHeaders", List.of())) {
+            String nom = String.valueOf(entete.get("name"));
+            if (!ENTETES_IGNORES.contains(nom.toLowerCase(Locale.ROOT))) {
+                reponse.entetes.add(Map.of("name", nom, "value", String.valueOf(entete.get("value"))));
+            }
+        }
+        byte[] corps = new byte[0];
+        // Les redirections n'ont pas de corps lisible
+        if (reponse.statut < 300 || reponse.statut >= 400) {
+            Map<String, Object> lu = DevToolsSupport.envoyer(devTools, "Fetch.getResponseBody", Map.of("requestId", id));
+            String brut = String.valueOf(lu.getOrDefault("body", ""));
+            corps = Boolean.TRUE.equals(lu.get("base64Encoded"))
+                    ? Base64.getDecoder().decode(brut) : brut.getBytes(StandardCharsets.UTF_8);
+        }
+        reponse.corps = ecrireCorps(corps);
+        cache.put(cle, reponse);
+        modifie = true;
+        enregistrees.incrementAndGet();
+    }
+
+    private void servir(DevTools devTools, String id, Reponse reponse) throws IOException {
+        Map<String, Object> parametres = new HashMap<>();
+        parametres.put("requestId", id);
+        parametres.put("responseCode", reponse.statut);
+        parametres.put("responseHeaders", reponse.entetes);
+        parametres.put("body", Base64.getEncoder().encodeToString(Files.readAllBytes(racine.resolve("corps").resolve(reponse.corps))));
+        DevToolsSupport.envoyer(devTools, "Fetch.fulfillRequest", parametres);
+    }
+
+    // METHODE schéma://hôte[:port]/chemin?paramètres triés, sans fragment ni paramètres anti-cache,
+    // suivi de l'empreinte du corps pour les POST. Découpage à la main: Chrome transmet des URL que
+    // java.net.URI refuse (|, ^, {}, espaces non échappés)
+    private String cle(Map<String, Object> requete) {
+        String url = String.valueOf(requete.get("url"));
+        int diese = url.indexOf('#');
+        if (diese >= 0) url = url.substring(0, diese);
+        StringBuilder cle = new StringBuilder(String.valueOf(requete.get("method")).toUpperCase(Locale.ROOT)).append(' ');
+
+        int separateur = url.indexOf("://");
+        if (separateur <= 0) {
+            // data:, blob:, about:... : l'URL entière fait office de clé
+            cle.append(url);
+        } else {
+            String schema = url.substring(0, separateur).toLowerCase(Locale.ROOT);
+            int debutChemin = debutChemin(url, separateur);
+            String autorite = autorite(url, separateur, debutChemin);
+            String hote = autorite;
+            String port = "";
+            int deuxPoints = autorite.lastIndexOf(':');
+            if (deuxPoints > autorite.lastIndexOf(']')) {
+                hote = autorite.substring(0, deuxPoints);
+                port = autorite.substring(deuxPoints + 1);
+            }
+            cle.append(schema).append("://").append(hote.toLowerCase(Locale.ROOT));
+            if (!port.isEmpty() && !(port.equals("443") && schema.equals("https"))
+                    && !(port.equals("80") && schema.equals("http"))) {
+                cle.append(':').append(port);
+            }
+
+            String reste = url.substring(debutChemin);
+            int interrogation = reste.indexOf('?');
+            String chemin = interrogation >= 0 ? reste.substring(0, interrogation) : reste;
+            cle.append(chemin.isEmpty() ? "/" : chemin);
+            if (interrogation >= 0) {
+                String parametres = Arrays.stream(reste.substring(interrogation + 1).split("&"))
+                        .filter(p -> !p.isEmpty())
+                        .filter(p -> !parametresIgnores.contains(decoder(p.split("=", 2)[0])))
+                        .sorted()
+                        .collect(Collectors.joining("&"));
+                if (!parametres.isEmpty()) {
+                    cle.append('?').append(parametres);
+                }
+            }
+        }
+        Object corps = requete.get("postData");
+        if (corps != null) {
+            cle.append(" #").append(sha256(String.valueOf(corps).getBytes(StandardCharsets.UTF_8)), 0, 16);
+        }
+        return cle.toString();
+    }
+
+    // Hôte en minuscules, "" sans schéma://; même découpage à la main que cle() (partagé avec ResourceBlocker)
+    static String hote(String url) {
+        int separateur = url.indexOf("://");
+        if (separateur <= 0) return "";
+        String autorite = autorite(url, separateur, debutChemin(url, separateur));
+        int deuxPoints = autorite.lastIndexOf(':');
+        if (deuxPoints > autorite.lastIndexOf(']')) {
+            autorite = autorite.substring(0, deuxPoints);
+        }
+        return autorite.toLowerCase(Locale.ROOT);
+    }
+
+    private static int debutChemin(String url, int separateur) {
+        int debut = separateur + 3;
+        while (debut < url.length() && url.charAt(debut) != '/' && url.charAt(debut) != '?' && url.charAt(debut) != '#') {
+            debut++;
+        }
+        return debut;
+    }
+
+    // hôte[:port], sans les identifiants éventuels (utilisateur@)
+    private static String autorite(String url, int separateur, int debutChemin) {
+        String autorite = url.substring(separateur + 3, debutChemin);
+        return autorite.substring(autorite.lastIndexOf('@') + 1);
+    }
+
+    // Nom de paramètre mal encodé (% isolé): comparé tel quel
+    private static String decoder(String nom) {
+        try {
+            return URLDecoder.decode(nom, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return nom;
+        }
+    }
+
+    private String ecrireCorps(byte[] corps) throws IOException {
+        String empreinte = sha256(corps);
+        Path fichier = racine.resolve("corps").resolve(empreinte);
+        if (!Files.exists(fichier)) {
+            Files.createDirectories(fichier.getParent());
+            Path temporaire = Files.createTempFile(fichier.getParent(), empreinte, ".tmp");
+            Files.write(temporaire, corps);
+            Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return empreinte;
+    }
+
+    private void charger() {
+        if (!Files.exists(index)) {
+            if (mode.equals("replay")) {
+                System.err.println("⚠️ Cache de rejeu vide: " + index);
+            }
+            return;
+        }
+        try {
+            Map<String, Object> entrees = JSON.toType(new String(Files.readAllBytes(index), StandardCharsets.UTF_8), Json.MAP_TYPE);
+            entrees.forEach((cle, valeur) -> {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> brut = (Map<String, Object>) valeur;
+                Reponse reponse = new Reponse();
+                reponse.statut = ((Number) brut.get("statut")).intValue();
+                @SuppressWarnings("unchecked")
+                List<Map<String, String>> entetes = (List<Map<String, String>>) brut.get("entetes");
+                reponse.entetes = entetes;
+                reponse.corps = String.valueOf(brut.get("corps"));
+                cache.put(cle, reponse);
+            });
+        } catch (Exception e) {
+            System.err.println("⚠️ Index de rejeu illisible (" + index + "): " + e.getMessage());
+        }
+    }
+
+    // Index réécrit en fin d'exécution seulement s'il a changé, remplacement atomique
+    public void sauvegarder() {
+        if (!isActif()) return;
+        System.out.println("📼 Rejeu réseau: " + servies.get() + " servies, " + manquees.get() + " absentes du cache, "
+                + enregistrees.get() + " enregistrées");
+        if (!modifie) return;
+        ecriture.lock();
+        try {
+            Map<String, Object> entrees = new TreeMap<>();
+            cache.forEach((cle, reponse) -> {
+                Map<String, Object> brut = new LinkedHashMap<>();
+                brut.put("statut", reponse.statut);
+                brut.put("entetes", reponse.entetes);
+                brut.put("corps", reponse.corps);
+                entrees.put(cle, brut);
+            });
+            Files.createDirectories(racine);
+            Path temporaire = Files.createTempFile(racine, "index", ".tmp");
+            Files.write(temporaire, JSON.toJson(entrees).getBytes(StandardCharsets.UTF_8));
+            Files.move(temporaire, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            modifie = false;
+            System.out.println("💾 Cache de rejeu: " + entrees.size() + " réponses dans " + index);
+        } catch (IOException e) {
+            System.err.println("⚠️ Cache de rejeu non sauvegardé: " + e.getMessage());
+        } finally {
+            ecriture.unlock();
+        }
+    }
+
+    private static String sha256(byte[] contenu) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(contenu)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.DevTools;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Politique de ressources des scénarios fonctionnels (DevTools, Chromium uniquement): images, médias, polices
+// et domaines d'analytics sont bloqués ou remplacés par une réponse vide avant tout téléchargement.
+// Sélection: resources.block=image,media,font,analytics ou tag @ressources:<liste> ("aucun" pour tout charger)
+public class ResourceBlocker {
+    private static final Map<WebDriver, ResourceBlocker> SESSIONS = new ConcurrentHashMap<>();
+    private static final Map<String, String> TYPES_CDP = Map.of("image", "Image", "media", "Media", "font", "Font");
+    // GIF transparent 1x1: une image remplacée reste une image valide pour la page
+    private static final String GIF_VIDE = "R0lGODlhAQABAIAAAAAAAP///yH5BAEAAAAALAAAAAABAAEAAAIBRAA7";
+    private static final AtomicLong REQUETES_TOTAL = new AtomicLong();
+    private static final AtomicLong OCTETS_TOTAL = new AtomicLong();
+
+    private final Set<String> categories;
+    private final boolean remplacer;
+    private final List<String> domainesAnalytics;
+    private final List<String> autorises;
+    private final Map<String, AtomicLong> bloquees = new ConcurrentHashMap<>();
+    private final AtomicLong octetsEvites = new AtomicLong();
+
+    private ResourceBlocker(Set<String> categories) {
+        this.categories = categories;
+        this.remplacer = "stub".equalsIgnoreCase(ConfigReader.getProperty("resources.mode", "block"));
+        this.domainesAnalytics = liste("resources.analyticsDomains",
+                "google-analytics.com,googletagmanager.com,doubleclick.net,facebook.net,hotjar.com,segment.io");
+        this.autorises = liste("resources.allowlist", "");
+    }
+
+    private static List<String> liste(String cle, String defaut) {
+        return Arrays.stream(ConfigReader.getProperty(cle, defaut).split(","))
+                .map(String::trim)
+                .filter(v -> !v.isEmpty())
+                .map(v -> v.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toList());
+    }
+
+    // Le tag @ressources:<liste> d'un scénario l'emporte sur resources.block
+    public static Set<String> selectionner(Collection<String> tags) {
+        String selection = tags.stream()
+                .filter(t -> t.startsWith("@ressources:"))
+                .map(t -> t.substring("@ressources:".length()))
+                .findFirst()
+                .orElse(ConfigReader.getProperty("resources.block", ""));
+        Set<String> categories = new LinkedHashSet<>();
+        for (String categorie : selection.split(",")) {
+            String nom = categorie.trim().toLowerCase(Locale.ROOT);
+            if (nom.isEmpty() || "aucun".equals(nom)) continue;
+            if (!TYPES_CDP.containsKey(nom) && !"analytics".equals(nom)) {
+                throw new IllegalArgumentException("Catégorie de ressources inconnue: " + nom
+                        + " (attendu: image, media, font, analytics)");
+            }
+            categories.add(nom);
+        }
+        return categories;
+    }
+
+    // Applique la politique à la session; renvoie le libellé utilisé dans les rapports ("" si aucune)
+    public static String appliquer(WebDriver driver, Set<String> categories) {
+        if (categories.isEmpty()) return "";
+        Optional<DevTools> session = DevToolsSupport.ouvrir(driver);
+        if (!session.isPresent()) {
+            System.err.println("⚠️ Blocage des ressources indisponible sans DevTools: chargement complet");
+            return "";
+        }
+        ResourceBlocker bloqueur = new ResourceBlocker(categories);
+        List<Map<String, Object>> motifs = new ArrayList<>();
+        categories.stream().filter(TYPES_CDP::containsKey).forEach(c ->
+                motifs.add(Map.of("resourceType", TYPES_CDP.get(c), "requestStage", "Request")));
+        if (categories.contains("analytics")) {
+            for (String domaine : bloqueur.domainesAnalytics) {
+                motifs.add(Map.of("urlPattern", "*://" + domaine + "/*", "requestStage", "Request"));
+                motifs.add(Map.of("urlPattern", "*://*." + domaine + "/*", "requestStage", "Request"));
+            }
+        }
+        // Avant le rejeu (priorité 10): une ressource bloquée ne touche ni le cache ni le réseau
+        DevToolsSupport.intercepter(session.get(), 0, motifs, bloqueur::traiter);
+        SESSIONS.put(driver, bloqueur);
+        String libelle = String.join("+", categories) + (bloqueur.remplacer ? " (remplacées)" : " (bloquées)");
+        System.out.println("🚫 Ressources: " + libelle);
+        return libelle;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean traiter(DevTools devTools, Map<String, Object> e) {
+        if (e.containsKey("responseStatusCode") || e.containsKey("responseErrorReason")) return false;
+        String url = String.valueOf(((Map<String, Object>) e.get("request")).get("url"));
+        String categorie = categorie(String.valueOf(e.get("resourceType")), url);
+        if (categorie == null) return false;
+
+        String id = String.valueOf(e.get("requestId"));
+        if (remplacer) {
+            Map<String, Object> parametres = new HashMap<>();
+            parametres.put("requestId", id);
+            parametres.put("responseCode", 200);
+            parametres.put("responseHeaders", List.of(Map.of("name", "Content-Type", "value", typeRemplacement(categorie))));
+            parametres.put("body", "image".equals(categorie) ? GIF_VIDE : "");
+            DevToolsSupport.envoyer(devTools, "Fetch.fulfillRequest", parametres);
+        } else {
+            DevToolsSupport.envoyer(devTools, "Fetch.failRequest", Map.of("requestId", id, "errorReason", "BlockedByClient"));
+        }
+        bloquees.computeIfAbsent(categorie, c -> new AtomicLong()).incrementAndGet();
+        long octets = tailleEstimee(categorie);
+        octetsEvites.addAndGet(octets);
+        REQUETES_TOTAL.incrementAndGet();
+        OCTETS_TOTAL.addAndGet(octets);
+        return true;
+    }
+
+    // Catégorie bloquée correspondant à la requête, null si elle doit passer
+    // Hôte découpé à la main comme pour le rejeu: java.net.URI refuse des URL que Chrome envoie (|, ^, {}, espaces)
+    private String categorie(String type, String url) {
+        String hote = ReplayProxy.hote(url);
+        // Liste blanche comparée à l'hôte: un paramètre dl=https://www.planity.com n'exempte pas un hit d'analytics
+        if (autorises.stream().anyMatch(d -> domaine(hote, d))) return null;
+        if (categories.contains("analytics") && domainesAnalytics.stream().anyMatch(d -> domaine(hote, d))) {
+            return "analytics";
+        }
+        return TYPES_CDP.entrySet().stream()
+                .filter(t -> t.getValue().equals(type) && categories.contains(t.getKey()))
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElse(null);
+    }
+
+    // Le domaine lui-même ou l'un de ses sous-domaines
+    private static boolean domaine(String hote, String domaine) {
+        return hote.equals(domaine) || hote.endsWith("." + domaine);
+    }
+
+    private static String typeRemplacement(String categorie) {
+        switch (categorie) {
+            case "image":
+                return "image/gif";
+            case "analytics":
+                return "application/javascript";
+            default:
+                return "application/octet-stream";
+        }
+    }
+
+    // Une ressource bloquée n'est jamais téléchargée: économie estimée par requête (resources.avgBytes.<catégorie>)
+    private static long tailleEstimee(String categorie) {
+        String defaut;
+        switch (categorie) {
+            case "image":
+                defaut = "30000";
+                break;
+            case "font":
+                defaut = "40000";
+                break;
+            case "media":
+                defaut = "500000";
+                break;
+            default:
+                defaut = "60000";
+        }
+        return Long.parseLong(ConfigReader.getProperty("resources.avgBytes." + categorie, defaut));
+    }
+
+    // Bilan de la session ("" si rien n'a été bloqué), à lire avant de quitter le driver
+    public static String bilan(WebDriver driver) {
+        ResourceBlocker bloqueur = driver == null ? null : SESSIONS.get(driver);
+        if (bloqueur == null || bloqueur.bloquees.isEmpty()) return "";
+        long total = bloqueur.bloquees.values().stream().mapToLong(AtomicLong::get).sum();
+        return total + " requête(s) évitée(s), ~" + bloqueur.octetsEvites.get() / 1024 + " Ko ("
+                + bloqueur.bloquees.entrySet().stream()
+                .map(b -> b.getKey() + " " + b.getValue().get())
+                .collect(Collectors.joining(", ")) + ")";
+    }
+
+    public static void oublier(WebDriver driver) {
+        if (driver != null) {
+            SESSIONS.remove(driver);
+        }
+    }
+
+    public static void afficherResume() {
+        if (REQUETES_TOTAL.get() == 0) return;
+        System.out.println("\n🚫 Ressources évitées sur l'exécution: " + REQUETES_TOTAL.get() + " requête(s), ~"
+                + OCTETS_TOTAL.get() / (1024 * 1024) + " Mo (estimation)");
+    }
+}
@@ -0,0 +1,306 @@
+package utils;
+
+import io.cucumber.gherkin.GherkinDialect;
+import io.cucumber.gherkin.GherkinDialectProvider;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Historique des exécutions par scénario (fichier + nom, indépendant des numéros de ligne): dernières durées,
+// derniers statuts et empreinte du texte. Une exécution = un scénario avec ses relances: durée de la première
+// tentative, statut final et nombre de tentatives, pour que historyDepth compte de vraies exécutions. Sert à ordonner les scénarios sans toucher aux fichiers .feature:
+//   failfast: scénarios modifiés ou nouveaux, puis échecs récents, puis les plus courts
+//   longest:  les plus longs d'abord (inconnus en tête) pour mieux remplir les sessions parallèles
+public class ScenarioHistory {
+    private static final Json JSON = new Json();
+    // Mots-clés de la grammaire Gherkin de Cucumber, dans la langue de l'en-tête "# language:" (anglais sinon)
+    private static final GherkinDialectProvider DIALECTES = new GherkinDialectProvider("en");
+    private static final Map<String, GherkinDialect> DIALECTES_CHARGES = new ConcurrentHashMap<>();
+    private static final Pattern LANGUE = Pattern.compile("#\\s*language\\s*:\\s*(\\S+)");
+
+    private final Path fichier;
+    private final int profondeur;
+    private final Map<String, Entree> entrees = new ConcurrentHashMap<>();
+    private final Map<Path, List<String>> sources = new ConcurrentHashMap<>();
+    private final ReentrantLock ecriture = new ReentrantLock();
+
+    private static class Entree {
+        // Du plus ancien au plus récent, au plus `profondeur` valeurs
+        final List<Long> durees = new ArrayList<>();
+        final List<Boolean> echecs = new ArrayList<>();
+        final List<Integer> tentatives = new ArrayList<>();
+        String empreinte;
+    }
+
+    private ScenarioHistory(Path fichier, int profondeur) {
+        this.fichier = fichier;
+        this.profondeur = profondeur;
+    }
+
+    public static ScenarioHistory charger() {
+        ScenarioHistory historique = new ScenarioHistory(
+                Paths.get(ConfigReader.getProperty("orchestration.history", "historique/scenarios.json")),
+                Integer.parseInt(ConfigReader.getProperty("orchestration.historyDepth", "10")));
+        historique.lire();
+        return historique;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void lire() {
+        if (!Files.exists(fichier)) return;
+        try {
+            Map<String, Object> brut = JSON.toType(new String(Files.readAllBytes(fichier), StandardCharsets.UTF_8), Json.MAP_TYPE);
+            brut.forEach((cle, valeur) -> {
+                Map<String, Object> donnees = (Map<String, Object>) valeur;
+                Entree entree = new Entree();
+                ((List<Object>) donnees.getOrDefault("durees", List.of())).forEach(d -> entree.durees.add(((Number) d).longValue()));
+                ((List<Object>) donnees.getOrDefault("echecs", List.of())).forEach(e -> entree.echecs.add(Boolean.TRUE.equals(e)));
+                ((List<Object>) donnees.getOrDefault("tentatives", List.of())).forEach(t -> entree.tentatives.add(((Number) t).intValue()));
+                // Historique antérieur aux relances: une tentative par exécution
+                while (entree.tentatives.size() < entree.echecs.size()) {
+                    entree.tentatives.add(0, 1);
+                }
+                entree.empreinte = (String) donnees.get("empreinte");
+                entrees.put(cle, entree);
+            });
+        } catch (Exception e) {
+            System.err.println("⚠️ Historique des scénarios illisible (" + fichier + "): " + e.getMessage());
+        }
+    }
+
+    // Ordre d'exécution des identifiants chemin:ligne; tri stable, l'ordre des fichiers départage les égalités
+    public List<String> ordonner(List<String> scenarios, String politique) {
+        List<String> ordre = new ArrayList<>(scenarios);
+        Map<String, Double> durees = new HashMap<>();
+        scenarios.forEach(id -> durees.put(id, dureeMoyenne(id)));
+        switch (politique.trim().toLowerCase(Locale.ROOT)) {
+            case "failfast":
+                Map<String, Boolean> modifies = new HashMap<>();
+                Map<String, Double> echecs = new HashMap<>();
+                scenarios.forEach(id -> {
+                    modifies.put(id, estModifie(id));
+                    echecs.put(id, scoreEchec(id));
+                });
+                ordre.sort(Comparator
+                        .comparing((String id) -> !modifies.get(id))
+                        .thenComparing(Comparator.comparingDouble((String id) -> echecs.get(id)).reversed())
+                        .thenComparingDouble(durees::get));
+                break;
+            case "longest":
+                ordre.sort(Comparator.comparingDouble((String id) -> durees.get(id)).reversed());
+                break;
+            case "file":
+                break;
+            default:
+                throw new IllegalArgumentException("Politique d'ordonnancement inconnue: " + politique
+                        + " (attendu: file, failfast, longest)");
+        }
+        return ordre;
+    }
+
+    // Nouveau scénario ou texte différent de la dernière exécution enregistrée
+    public boolean estModifie(String id) {
+        Entree entree = entrees.get(cle(id));
+        return entree == null || !empreinte(id).equals(entree.empreinte);
+    }
+
+    // Échecs (statut final) pondérés par leur fraîcheur: la dernière exécution compte 1, la précédente 0,5...
+    private double scoreEchec(String id) {
+        Entree entree = entrees.get(cle(id));
+        if (entree == null) return 0;
+        double score = 0;
+        for (int i = entree.echecs.size() - 1, age = 0; i >= 0; i--, age++) {
+            if (entree.echecs.get(i)) {
+                score += Math.pow(0.5, age);
+            }
+        }
+        return score;
+    }
+
+    // Instabilité: part des tentatives consécutives dont le statut change (0 = stable, 1 = alterne à chaque fois).
+    // Une relance ne suit qu'un échec: une exécution à n tentatives vaut n - 1 échecs puis son statut final,
+    // donc un échec suivi d'une relance réussie compte comme un changement
+    public double scoreInstabilite(String id) {
+        Entree entree = entrees.get(cle(id));
+        if (entree == null) return 0;
+        List<Boolean> statuts = new ArrayList<>();
+        ecriture.lock();
+        try {
+            for (int i = 0; i < entree.echecs.size(); i++) {
+                statuts.addAll(Collections.nCopies(entree.tentatives.get(i) - 1, true));
+                statuts.add(entree.echecs.get(i));
+            }
+        } finally {
+            ecriture.unlock();
+        }
+        if (statuts.size() < 2) return 0;
+        int changements = 0;
+        for (int i = 1; i < statuts.size(); i++) {
+            if (!statuts.get(i).equals(statuts.get(i - 1))) {
+                changements++;
+            }
+        }
+        return (double) changements / (statuts.size() - 1);
+    }
+
+    // Mis en quarantaine: assez d'historique et instabilité au-delà du seuil (0 = quarantaine désactivée)
+    public boolean estInstable(String id) {
+        double seuil = Double.parseDouble(ConfigReader.getProperty("orchestration.quarantineThreshold", "0"));
+        int minimum = Integer.parseInt(ConfigReader.getProperty("orchestration.quarantineMinRuns", "5"));
+        Entree entree = entrees.get(cle(id));
+        return seuil > 0 && entree != null && entree.echecs.size() >= minimum && scoreInstabilite(id) >= seuil;
+    }
+
+    // Durée moyenne connue; un scénario jamais mesuré est supposé le plus long
+    private double dureeMoyenne(String id) {
+        Entree entree = entrees.get(cle(id));
+        if (entree == null || entree.durees.isEmpty()) return Double.MAX_VALUE;
+        return entree.durees.stream().mapToLong(Long::longValue).average().orElse(Double.MAX_VALUE);
+    }
+
+    // La première tentative ouvre une exécution; une relance met à jour son statut et son nombre de tentatives
+    public void enregistrer(String id, int tentative, long dureeMs, boolean echec) {
+        Entree entree = entrees.computeIfAbsent(cle(id), k -> new Entree());
+        String empreinte = empreinte(id);
+        ecriture.lock();
+        try {
+            int derniere = entree.echecs.size() - 1;
+            if (tentative > 1 && derniere >= 0) {
+                entree.echecs.set(derniere, echec);
+                entree.tentatives.set(derniere, tentative);
+            } else {
+                entree.durees.add(dureeMs);
+                entree.echecs.add(echec);
+                entree.tentatives.add(1);
+            }
+            while (entree.durees.size() > profondeur) {
+                entree.durees.remove(0);
+                entree.echecs.remove(0);
+                entree.tentatives.remove(0);
+            }
+            entree.empreinte = empreinte;
+        } finally {
+            ecriture.unlock();
+        }
+    }
+
+    public void sauvegarder() {
+        ecriture.lock();
+        try {
+            Map<String, Object> brut = new TreeMap<>();
+            entrees.forEach((cle, entree) -> {
+                Map<String, Object> donnees = new LinkedHashMap<>();
+                donnees.put("durees", entree.durees);
+                donnees.put("echecs", entree.echecs);
+                donnees.put("tentatives", entree.tentatives);
+                donnees.put("empreinte", entree.empreinte);
+                brut.put(cle, donnees);
+            });
+            if (fichier.getParent() != null) {
+                Files.createDirectories(fichier.getParent());
+            }
+            Path temporaire = Files.createTempFile(fichier.toAbsolutePath().getParent(), "scenarios", ".tmp");
+            Files.write(temporaire, JSON.toJson(brut).getBytes(StandardCharsets.UTF_8));
+            Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("⚠️ Historique des scénarios non sauvegardé: " + e.getMessage());
+        } finally {
+            ecriture.unlock();
+        }
+    }
+
+    // "chemin#nom du scénario": stable quand des lignes sont ajoutées au-dessus
+    public String cle(String id) {
+        int separateur = id.lastIndexOf(':');
+        Path chemin = Paths.get(id.substring(0, separateur));
+        String ligne = lignes(chemin).get(Integer.parseInt(id.substring(separateur + 1)) - 1).trim();
+        return chemin.toString().replace('\\', '/') + "#" + ligne.substring(ligne.indexOf(':') + 1).trim();
+    }
+
+    // Texte du scénario et du contexte (Background) du fichier
+    private String empreinte(String id) {
+        int separateur = id.lastIndexOf(':');
+        List<String> lignes = lignes(Paths.get(id.substring(0, separateur)));
+        StringBuilder texte = new StringBuilder();
+        for (int i = 0; i < lignes.size(); i++) {
+            if (commencePar(lignes.get(i), dialecte(lignes).getBackgroundKeywords())) {
+                texte.append(bloc(lignes, i));
+            }
+        }
+        texte.append(bloc(lignes, Integer.parseInt(id.substring(separateur + 1)) - 1));
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(texte.toString().getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(Arrays.copyOf(hash, 12));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Scenario, Example, Scenario Outline, Scenario Template et leurs traductions (Scénario, Exemple, Plan du scénario...)
+    public static boolean estScenario(List<String> lignes, int index) {
+        GherkinDialect dialecte = dialecte(lignes);
+        return commencePar(lignes.get(index), dialecte.getScenarioKeywords())
+                || commencePar(lignes.get(index), dialecte.getScenarioOutlineKeywords());
+    }
+
+    // Du mot-clé (tags au-dessus compris) jusqu'au bloc suivant, tags de celui-ci exclus
+    private static String bloc(List<String> lignes, int debut) {
+        GherkinDialect dialecte = dialecte(lignes);
+        while (debut > 0 && lignes.get(debut - 1).trim().startsWith("@")) {
+            debut--;
+        }
+        int fin = debut + 1;
+        while (fin < lignes.size() && !lignes.get(fin).trim().startsWith("@")
+                && !estScenario(lignes, fin)
+                && !commencePar(lignes.get(fin), dialecte.getFeatureKeywords())
+                && !commencePar(lignes.get(fin), dialecte.getRuleKeywords())
+                && !commencePar(lignes.get(fin), dialecte.getBackgroundKeywords())) {
+            fin++;
+        }
+        return lignes.subList(debut, fin).stream().map(String::trim).filter(l -> !l.isEmpty() && !l.startsWith("#"))
+                .collect(Collectors.joining("\n"));
+    }
+
+    // Comme Cucumber: "# language: xx" parmi les commentaires d'en-tête, anglais par défaut
+    private static GherkinDialect dialecte(List<String> lignes) {
+        String langue = "en";
+        for (String ligne : lignes) {
+            String texte = ligne.trim();
+            if (texte.isEmpty()) continue;
+            if (!texte.startsWith("#")) break;
+            Matcher matcher = LANGUE.matcher(texte);
+            if (matcher.matches()) {
+                langue = matcher.group(1);
+                break;
+            }
+        }
+        return DIALECTES_CHARGES.computeIfAbsent(langue,
+                l -> DIALECTES.getDialect(l).orElseGet(DIALECTES::getDefaultDialect));
+    }
+
+    private static boolean commencePar(String ligne, List<String> motsCles) {
+        String texte = ligne.trim();
+        return motsCles.stream().anyMatch(m -> texte.startsWith(m.trim() + ":"));
+    }
+
+    private List<String> lignes(Path chemin) {
+        return sources.computeIfAbsent(chemin, c -> {
+            try {
+                return Files.readAllLines(c, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,132 @@
+package utils;
+
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.DevTools;
+
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Capture les images de la session elle-même: screencast DevTools si disponible,
+// sinon captures d'écran périodiques. Un enregistreur par session.
+public class ScreencastRecorder {
+    private final WebDriver driver;
+    private final FrameSink destination;
+    private final int fps;
+    private final int qualite;
+    private final int largeurMax;
+
+    private DevTools devTools;
+    private ExecutorService pipeline;
+    private ScheduledExecutorService capture;
+    private volatile boolean actif;
+
+    public ScreencastRecorder(WebDriver driver, FrameSink destination) {
+        this.driver = driver;
+        this.destination = destination;
+        this.fps = Integer.parseInt(ConfigReader.getProperty("video.fps", "10"));
+        this.qualite = Integer.parseInt(ConfigReader.getProperty("video.quality", "60"));
+        this.largeurMax = Integer.parseInt(ConfigReader.getProperty("video.maxWidth", "1280"));
+    }
+
+    public ScreencastRecorder demarrer() {
+        actif = true;
+        pipeline = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "screencast");
+            t.setDaemon(true);
+            return t;
+        });
+
+        Optional<DevTools> session = DevToolsSupport.ouvrir(driver);
+        if (session.isPresent()) {
+            devTools = session.get();
+            DevToolsSupport.ecouter(devTools, "Page.screencastFrame", this::recevoirImage);
+            DevToolsSupport.envoyer(devTools, "Page.startScreencast", Map.of(
+                    "format", "jpeg",
+                    "quality", qualite,
+                    "maxWidth", largeurMax,
+                    "maxHeight", largeurMax,
+                    "everyNthFrame", 1));
+        } else if (driver instanceof TakesScreenshot) {
+            // Repli sans DevTools (Firefox, mobile): captures d'écran à cadence réduite
+            int cadence = Integer.parseInt(ConfigReader.getProperty("video.pollingFps", "2"));
+            capture = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "capture-ecran");
+                t.setDaemon(true);
+                return t;
+            });
+            capture.scheduleAtFixedRate(this::capturerEcran, 0, 1000 / Math.max(1, cadence), TimeUnit.MILLISECONDS);
+        }
+        return this;
+    }
+
+    // Appelé sur le thread de connexion CDP: on acquitte puis on délègue le décodage au pipeline
+    private void recevoirImage(Map<String, Object> evenement) {
+        if (!actif) return;
+        long horodatage = System.nanoTime();
+        Object sessionId = evenement.get("sessionId");
+        Object donnees = evenement.get("data");
+        try {
+            pipeline.execute(() -> {
+                try {
+                    DevToolsSupport.envoyer(devTools, "Page.screencastFrameAck", Map.of("sessionId", sessionId));
+                } catch (Exception ignored) {
+                    // Session en cours de fermeture
+                }
+                if (donnees != null) {
+                    destination.accept(Base64.getDecoder().decode(donnees.toString()), horodatage);
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+            // Image arrivée après l'arrêt
+        }
+    }
+
+    private void capturerEcran() {
+        if (!actif) return;
+        try {
+            byte[] image = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+            destination.accept(image, System.nanoTime());
+        } catch (Exception ignored) {
+            // Page en cours de navigation: image suivante
+        }
+    }
+
+    // Arrête la capture; l'encodage se termine sur le thread de la destination
+    public void arreter() {
+        actif = false;
+        if (capture != null) {
+            capture.shutdownNow();
+        }
+        if (devTools != null) {
+            try {
+                DevToolsSupport.envoyer(devTools, "Page.stopScreencast", Map.of());
+            } catch (Exception ignored) {
+                // Le navigateur peut déjà être fermé
+            }
+        }
+        if (pipeline != null) {
+            pipeline.shutdown();
+            try {
+                pipeline.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public FrameSink getDestination() {
+        return destination;
+    }
+
+    public int getFps() {
+        return fps;
+    }
+}
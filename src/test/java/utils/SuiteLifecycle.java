@@ -0,0 +1,84 @@
+package utils;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Mise en place et clôture de l'exécution, une seule fois par JVM.
+// Sous Cucumber seul (TestRunner), les @BeforeAll/@AfterAll de Hooks s'en chargent. Un orchestrateur qui lance
+// un runtime Cucumber par scénario (VirtualThreadRunner) ou par répétition (PerfRegressionRunner) appelle
+// orchestrer() puis terminer(): sinon chaque runtime fermerait appareils, métriques et artefacts des autres.
+public class SuiteLifecycle {
+    private static final ReentrantLock VERROU = new ReentrantLock();
+    private static boolean demarre;
+    private static volatile boolean orchestre;
+
+    private SuiteLifecycle() {
+    }
+
+    public static void orchestrer() {
+        orchestre = true;
+        demarrer();
+    }
+
+    public static boolean isOrchestre() {
+        return orchestre;
+    }
+
+    public static void demarrer() {
+        VERROU.lock();
+        try {
+            if (demarre) return;
+            demarre = true;
+            // Plateforme par défaut des threads sans scénario (pipeline d'artefacts, DevTools)
+            if (OS.OS == null) {
+                OS.OS = ConfigReader.getProperty("platformName");
+            }
+            // Résolution et validation des locators une seule fois au démarrage
+            LocatorRepository.getInstance();
+
+            LiveMetrics metriques = LiveMetrics.getInstance();
+            metriques.enregistrerJauge("planity_artifact_queue_depth", "Écritures d'artefacts en attente", "",
+                    () -> ArtifactPipeline.getInstance().getEnAttente());
+            metriques.demarrer();
+        } finally {
+            VERROU.unlock();
+        }
+    }
+
+    // Chaque étape est isolée: une clôture en échec n'empêche pas les suivantes
+    public static void terminer() {
+        VERROU.lock();
+        try {
+            if (!demarre) return;
+            demarre = false;
+            etape("locators", () -> LocatorRepository.getInstance().afficherRapport());
+            etape("temps", () -> CommandTimer.afficherResume(
+                    Integer.parseInt(ConfigReader.getProperty("timing.topSinks", "10"))));
+            // Dernier rapport, vidéos et fermetures de sessions encore en cours d'écriture
+            etape("artefacts", () -> {
+                ArtifactPipeline.getInstance().planifierRapport("Planity");
+                ArtifactPipeline.getInstance().vider(Duration.ofSeconds(
+                        Long.parseLong(ConfigReader.getProperty("artifacts.flushTimeout", "120"))));
+            });
+            etape("ressources", ResourceBlocker::afficherResume);
+            etape("empreintes", () -> LocatorHealer.getInstance().sauvegarder());
+            etape("rejeu", () -> ReplayProxy.getInstance().sauvegarder());
+            etape("métriques", () -> LiveMetrics.getInstance().arreter());
+            etape("appareils", () -> {
+                if (DevicePool.estInitialise()) {
+                    DevicePool.getInstance().fermerTout();
+                }
+            });
+        } finally {
+            VERROU.unlock();
+        }
+    }
+
+    private static void etape(String nom, Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ Clôture de l'exécution (" + nom + "): " + e.getMessage());
+        }
+    }
+}
@@ -3,12 +3,16 @@ package utils;
 
 import io.qameta.allure.Allure;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
@@ -17,7 +21,10 @@ import java.util.stream.Collectors;
 
 public class TestManager {
     // Singleton instance
-    private static TestManager instance;
+    private static volatile TestManager instance;
+    private static final java.util.concurrent.locks.ReentrantLock CREATION = new java.util.concurrent.locks.ReentrantLock();
+    // Étape en cours de chaque scénario: les setters du singleton écrivent dans l'enregistrement du thread
+    private static final ThreadLocal<TestManager> ETAPE = new ThreadLocal<>();
 
     // Test bilgileri
     private String nomScenario;
@@ -28,15 +35,27 @@ public class TestManager {
     private String resultatReel;
     private String url;
     private String messageErreur;
+    private String performance;
+    private String repartitionTemps;
     private LocalDateTime dateExecution;
     private LocalDateTime testStartTime;
     private LocalDateTime testEndTime;
+    // Vrai pour le singleton: ses champs d'étape sont ceux du thread (cible()); faux pour un enregistrement isolé
+    private boolean partage;
 
     // Koleksiyonlar
     private final List<TestManager> rapportsTests;
     private final Map<String, String> analysisResults;
     private final Map<String, Integer> stepPatterns;
     private final List<String> testSuggestions;
+    // Empreintes SHA-256 des artefacts (ArtifactStore) par scénario, ajoutées aussi depuis le pipeline
+    private final Map<String, Set<String>> artefactsParScenario = new java.util.concurrent.ConcurrentHashMap<>();
+    private final List<WebVitalsCollector.Mesure> mesuresPerformance = new ArrayList<>();
+    private final List<String> fuitesSuspectees = new ArrayList<>();
+    // {scénario, tentative, statut, durée ms, voie, score d'instabilité, date}, une ligne par exécution orchestrée
+    private final List<String[]> tentatives = new ArrayList<>();
+    // Le rapport est généré en arrière-plan pendant que les scénarios continuent d'ajouter des étapes
+    private final java.util.concurrent.locks.ReentrantLock verrouRapports = new java.util.concurrent.locks.ReentrantLock();
 
     // Sabitler
     private static final String EXCEL_REPORTS_DIR = "target/rapports-tests";
@@ -77,7 +96,8 @@ public class TestManager {
         ));
     }
 
-    private TestManager() {
+    // Visible dans le package pour les benchmarks du rapport (src/jmh/java), sinon passer par getInstance()
+    TestManager() {
         rapportsTests = new ArrayList<>();
         analysisResults = new HashMap<>();
         stepPatterns = new HashMap<>();
@@ -88,11 +108,39 @@ public class TestManager {
         this.plateforme = PLATFORM;
     }
 
+    // Ligne du rapport: enregistrement d'une étape, sans répertoire ni analyse propre
+    private TestManager(String plateformeEtape) {
+        rapportsTests = new ArrayList<>(0);
+        analysisResults = new HashMap<>(0);
+        stepPatterns = new HashMap<>(0);
+        testSuggestions = new ArrayList<>(0);
+        plateforme = plateformeEtape;
+    }
+
+    // Enregistrement d'étape isolé, sans répertoire: pour les benchmarks du rapport (src/jmh/java)
+    static TestManager enregistrement(LocalDateTime dateExecution) {
+        TestManager ligne = new TestManager(PLATFORM);
+        ligne.dateExecution = dateExecution;
+        return ligne;
+    }
+
     public static TestManager getInstance() {
-        if (instance == null) {
-            instance = new TestManager();
+        TestManager courant = instance;
+        if (courant == null) {
+            // Verrou explicite: plusieurs scénarios peuvent démarrer en parallèle (threads virtuels)
+            CREATION.lock();
+            try {
+                if (instance == null) {
+                    TestManager cree = new TestManager();
+                    cree.partage = true;
+                    instance = cree;
+                }
+                courant = instance;
+            } finally {
+                CREATION.unlock();
+            }
         }
-        return instance;
+        return courant;
     }
 
     private void createReportsDirectory() {
@@ -102,91 +150,208 @@ public class TestManager {
         }
     }
 
+    // Nouveau scénario sur ce thread: repart d'une étape vierge plutôt que des champs du scénario précédent
+    public void debutScenario() {
+        if (partage) ETAPE.set(new TestManager(PLATFORM));
+    }
+
+    // Fin du scénario: le thread (porteur d'un pool) ne garde pas l'étape
+    public void finScenario() {
+        if (partage) ETAPE.remove();
+    }
+
+    private TestManager cible() {
+        if (!partage) return this;
+        TestManager etape = ETAPE.get();
+        if (etape == null) {
+            etape = new TestManager(PLATFORM);
+            ETAPE.set(etape);
+        }
+        return etape;
+    }
+
+    // Copie figée de l'étape, ajoutée au rapport: l'enregistrement du thread continue d'évoluer
+    private TestManager copie() {
+        TestManager copie = new TestManager(plateforme);
+        copie.nomScenario = nomScenario;
+        copie.nomEtape = nomEtape;
+        copie.statut = statut;
+        copie.resultatAttendu = resultatAttendu;
+        copie.resultatReel = resultatReel;
+        copie.url = url;
+        copie.messageErreur = messageErreur;
+        copie.performance = performance;
+        copie.repartitionTemps = repartitionTemps;
+        return copie;
+    }
+
     // Getter ve Setter metodları
     public String getNomScenario() {
-        return nomScenario;
+        return cible().nomScenario;
     }
 
     public void setNomScenario(String nomScenario) {
-        this.nomScenario = nomScenario;
+        cible().nomScenario = nomScenario;
     }
 
     public String getNomEtape() {
-        return nomEtape;
+        return cible().nomEtape;
     }
 
     public void setNomEtape(String nomEtape) {
-        this.nomEtape = nomEtape;
-        updateStepPattern(nomEtape);
+        cible().nomEtape = nomEtape;
+        verrouRapports.lock();
+        try {
+            updateStepPattern(nomEtape);
+        } finally {
+            verrouRapports.unlock();
+        }
     }
 
     public String getStatut() {
-        return statut;
+        return cible().statut;
     }
 
     public void setStatut(String statut) {
-        this.statut = statut;
+        cible().statut = statut;
         if ("ECHEC".equalsIgnoreCase(statut)) {
-            analyzeFailure();
+            verrouRapports.lock();
+            try {
+                analyzeFailure();
+            } finally {
+                verrouRapports.unlock();
+            }
         }
     }
 
     public String getPlateforme() {
-        return plateforme;
+        return cible().plateforme;
     }
 
     public void setPlateforme(String plateforme) {
-        this.plateforme = plateforme;
+        cible().plateforme = plateforme;
     }
 
     public String getResultatAttendu() {
-        return resultatAttendu;
+        return cible().resultatAttendu;
     }
 
     public void setResultatAttendu(String resultatAttendu) {
-        this.resultatAttendu = resultatAttendu;
+        cible().resultatAttendu = resultatAttendu;
     }
 
     public String getResultatReel() {
-        return resultatReel;
+        return cible().resultatReel;
     }
 
     public void setResultatReel(String resultatReel) {
-        this.resultatReel = resultatReel;
+        cible().resultatReel = resultatReel;
     }
 
     public String getUrl() {
-        return url;
+        return cible().url;
     }
 
     public void setUrl(String url) {
-        this.url = url;
+        cible().url = url;
     }
 
     public String getMessageErreur() {
-        return messageErreur;
+        return cible().messageErreur;
     }
 
     public void setMessageErreur(String messageErreur) {
-        this.messageErreur = messageErreur;
+        cible().messageErreur = messageErreur;
         if (messageErreur != null) {
-            analyzeError(messageErreur);
+            verrouRapports.lock();
+            try {
+                analyzeError(messageErreur);
+            } finally {
+                verrouRapports.unlock();
+            }
+        }
+    }
+
+    public String getPerformance() {
+        return cible().performance;
+    }
+
+    public void setPerformance(String performance) {
+        cible().performance = performance;
+    }
+
+    public String getRepartitionTemps() {
+        return cible().repartitionTemps;
+    }
+
+    // Remote / attente / pause / framework de l'étape (CommandTimer)
+    public void setRepartitionTemps(String repartitionTemps) {
+        cible().repartitionTemps = repartitionTemps;
+    }
+
+    public void ajouterMesurePerformance(WebVitalsCollector.Mesure mesure) {
+        if (mesure == null) return;
+        verrouRapports.lock();
+        try {
+            mesuresPerformance.add(mesure);
+        } finally {
+            verrouRapports.unlock();
         }
     }
 
+    public void signalerFuites(String scenario, List<String> suspects) {
+        if (suspects == null || suspects.isEmpty()) return;
+        verrouRapports.lock();
+        try {
+            suspects.forEach(s -> fuitesSuspectees.add((scenario != null ? scenario + " — " : "") + s));
+        } finally {
+            verrouRapports.unlock();
+        }
+    }
+
+    // Échec d'origine et relances d'un scénario (VirtualThreadRunner), indépendamment des lignes d'étapes
+    public void enregistrerTentative(String scenario, int tentative, boolean echec, long dureeMs, String voie, double instabilite) {
+        verrouRapports.lock();
+        try {
+            tentatives.add(new String[]{scenario, String.valueOf(tentative), echec ? "ECHEC" : "REUSSI",
+                    String.valueOf(dureeMs), voie, String.format(Locale.ROOT, "%.2f", instabilite),
+                    LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))});
+        } finally {
+            verrouRapports.unlock();
+        }
+    }
+
+    // type:empreinte, ex. "capture:3fa9..." (fichier dans target/artefacts/objets/3f/)
+    public void ajouterArtefact(String scenario, String type, String empreinte) {
+        if (scenario == null || empreinte == null) return;
+        artefactsParScenario.computeIfAbsent(scenario, k -> Collections.synchronizedSet(new LinkedHashSet<>()))
+                .add(type + ":" + empreinte);
+    }
+
     // Test adımı ekleme ve analiz
+    // Le singleton ajoute une copie de l'étape du thread; une étape déjà présente prend son dernier état
     public void ajouterInfosTest(TestManager testInfo) {
         if (testInfo == null) return;
+        TestManager ligne = testInfo.partage ? testInfo.cible().copie() : testInfo;
 
-        boolean isDuplicate = rapportsTests.stream()
-                .anyMatch(existing -> isSameStep(existing, testInfo));
-
-        if (!isDuplicate) {
+        verrouRapports.lock();
+        try {
             testEndTime = LocalDateTime.now();
-            testInfo.dateExecution = testEndTime;
-            rapportsTests.add(testInfo);
-            updateAnalysis(testInfo);
-            suggestNextSteps(testInfo);
+            ligne.dateExecution = testEndTime;
+            int existant = -1;
+            for (int i = 0; i < rapportsTests.size() && existant < 0; i++) {
+                if (isSameStep(rapportsTests.get(i), ligne)) existant = i;
+            }
+
+            if (existant >= 0) {
+                rapportsTests.set(existant, ligne);
+            } else {
+                rapportsTests.add(ligne);
+                updateAnalysis(ligne);
+                suggestNextSteps(ligne);
+            }
+        } finally {
+            verrouRapports.unlock();
         }
     }
 
@@ -199,7 +364,7 @@ public class TestManager {
         String[] columns = {
                 "Scénario", "Étape", "Statut", "Plateforme",
                 "Résultat Attendu", "Résultat Réel", "URL",
-                "Message d'Erreur", "Date d'Exécution", "Durée"
+                "Message d'Erreur", "Date d'Exécution", "Durée", "Artefacts", "Performance", "Répartition du Temps"
         };
 
         for (int i = 0; i < columns.length; i++) {
@@ -237,6 +402,10 @@ public class TestManager {
             // Toplam test süresini hesapla ve göster
             long totalDurationSeconds = ChronoUnit.SECONDS.between(testStartTime, testEndTime);
             row.createCell(9).setCellValue(totalDurationSeconds + " s");
+            Set<String> artefacts = info.getNomScenario() != null ? artefactsParScenario.get(info.getNomScenario()) : null;
+            row.createCell(10).setCellValue(artefacts != null ? String.join("\n", artefacts) : "");
+            row.createCell(11).setCellValue(info.getPerformance() != null ? info.getPerformance() : "");
+            row.createCell(12).setCellValue(info.getRepartitionTemps() != null ? info.getRepartitionTemps() : "");
         }
     }
     private void createAnalysisSheet(Sheet sheet) {
@@ -269,13 +438,38 @@ public class TestManager {
             }
         }
 
+        // Fuites mémoire suspectées côté navigateur (LeakTracker)
+        if (!fuitesSuspectees.isEmpty()) {
+            rowNum++;
+            Row fuitesTitle = sheet.createRow(rowNum++);
+            Cell fuitesTitleCell = fuitesTitle.createCell(0);
+            fuitesTitleCell.setCellValue("Fuites Mémoire Suspectées");
+            fuitesTitleCell.setCellStyle(headerStyle);
+            for (String fuite : fuitesSuspectees) {
+                Row row = sheet.createRow(rowNum++);
+                row.createCell(0).setCellValue("• " + fuite);
+            }
+        }
+
         sheet.setColumnWidth(0, 15000);
         sheet.setColumnWidth(1, 10000);
     }
 
 
+    // Chargement en masse sans analyse ni dédoublonnage: prépare un rapport de N étapes pour les benchmarks
+    void importerEnregistrements(Collection<TestManager> enregistrements) {
+        verrouRapports.lock();
+        try {
+            rapportsTests.addAll(enregistrements);
+            enregistrements.forEach(e -> stepPatterns.merge(e.getNomEtape(), 1, Integer::sum));
+            testEndTime = LocalDateTime.now();
+        } finally {
+            verrouRapports.unlock();
+        }
+    }
+
     // Dinamik test analizi
-    private void updateAnalysis(TestManager testInfo) {
+    void updateAnalysis(TestManager testInfo) {
         // Step pattern analizi
         stepPatterns.merge(testInfo.getNomEtape(), 1, Integer::sum);
 
@@ -294,7 +488,7 @@ public class TestManager {
     }
 
     // Dinamik sonraki adım önerisi
-    private void suggestNextSteps(TestManager currentTest) {
+    void suggestNextSteps(TestManager currentTest) {
         String currentStep = currentTest.getNomEtape().toLowerCase();
         List<String> suggestions = new ArrayList<>();
 
@@ -358,9 +552,9 @@ public class TestManager {
     }
 
     // Hata analizi ve öneriler
-    private void analyzeFailure() {
-        String stepType = getStepType(nomEtape);
-        String errorType = getErrorType(messageErreur);
+    void analyzeFailure() {
+        String stepType = getStepType(getNomEtape());
+        String errorType = getErrorType(getMessageErreur());
 
         StringBuilder analysis = new StringBuilder();
         analysis.append("\n🔍 Analyse d'Échec:\n");
@@ -404,8 +598,8 @@ public class TestManager {
         return "other";
     }
 
-    // Hata tipini belirle
-    private String getErrorType(String error) {
+    // Hata tipini belirle (aussi utilisé par LiveMetrics pour compter les échecs par type)
+    public static String getErrorType(String error) {
         if (error == null) return "unknown";
         error = error.toLowerCase();
         if (error.contains("element") && error.contains("not found")) return "element_not_found";
@@ -439,36 +633,226 @@ public class TestManager {
 
     // Önerileri al
     public List<String> getTestSuggestions() {
-        return new ArrayList<>(testSuggestions);
+        verrouRapports.lock();
+        try {
+            return new ArrayList<>(testSuggestions);
+        } finally {
+            verrouRapports.unlock();
+        }
     }
 
     // Excel raporu oluştur
     public void genererRapport(String nomRapport) {
-        String timeStamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        // Un fichier par exécution, réécrit à chaque régénération plutôt qu'un nouveau fichier par scénario
+        String timeStamp = dateExecution.format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
         String fileName = String.format("%s/%s_%s.xlsx", EXCEL_REPORTS_DIR, nomRapport, timeStamp);
 
-        try (Workbook workbook = new XSSFWorkbook()) {
-            // Test sonuçları sayfası
-            createTestResultsSheet(workbook.createSheet("Résultats des Tests"));
-
-            // Analiz sayfası
-            createAnalysisSheet(workbook.createSheet("Analyse"));
-
-            // Öneriler sayfası
-            createSuggestionsSheet(workbook.createSheet("Suggestions"));
+        // Classeur en flux: seules les 100 dernières lignes de chaque feuille restent en mémoire
+        SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+        try {
+            // Instantané des résultats sous verrou, écriture du fichier hors verrou
+            verrouRapports.lock();
+            try {
+                // Test sonuçları sayfası
+                createTestResultsSheet(workbook.createSheet("Résultats des Tests"));
+
+                // Analiz sayfası
+                createAnalysisSheet(workbook.createSheet("Analyse"));
+
+                // Öneriler sayfası
+                createSuggestionsSheet(workbook.createSheet("Suggestions"));
+
+                // Web Vitals par étape et tendance par page
+                if (!mesuresPerformance.isEmpty()) {
+                    createPerformanceSheet(workbook.createSheet("Performance"));
+                }
+
+                // Principaux consommateurs de temps de l'exécution
+                List<String[]> consommateurs = CommandTimer.principauxConsommateurs(
+                        Integer.parseInt(ConfigReader.getProperty("timing.topSinks", "10")));
+                if (!consommateurs.isEmpty()) {
+                    createTimeSheet(workbook.createSheet("Temps"), consommateurs);
+                }
+
+                // Tentatives par scénario: échecs d'origine, relances sur session neuve, quarantaine
+                if (!tentatives.isEmpty()) {
+                    createAttemptsSheet(workbook.createSheet("Tentatives"));
+                }
+            } finally {
+                verrouRapports.unlock();
+            }
 
             // Kaydet
             try (FileOutputStream outputStream = new FileOutputStream(fileName)) {
                 workbook.write(outputStream);
                 System.out.println("Rapport généré: " + fileName);
             }
+            ecrireManifeste(Paths.get(fileName.replaceAll("\\.xlsx$", "_artefacts.csv")));
         } catch (IOException e) {
             System.err.println("Erreur rapport: " + e.getMessage());
+        } finally {
+            // Supprime les fichiers temporaires des feuilles déjà vidées sur disque
+            workbook.dispose();
+            try {
+                workbook.close();
+            } catch (IOException ignored) {
+                // Rien à libérer de plus
+            }
         }
     }
 
+    // Manifeste à côté du rapport: scénario;type;empreinte;chemin dans le magasin (archivé par la CI), pour
+    // retrouver le fichier d'une empreinte de la colonne Artefacts. Chemin vide: objet évincé ou encore en écriture
+    private void ecrireManifeste(Path fichier) throws IOException {
+        if (artefactsParScenario.isEmpty()) return;
+        StringBuilder contenu = new StringBuilder("scenario;type;empreinte;chemin\n");
+        new TreeMap<>(artefactsParScenario).forEach((scenario, artefacts) -> {
+            List<String> copie;
+            synchronized (artefacts) {
+                copie = new ArrayList<>(artefacts);
+            }
+            for (String artefact : copie) {
+                int separateur = artefact.indexOf(':');
+                String empreinte = artefact.substring(separateur + 1);
+                Path chemin = ArtifactStore.getInstance().getChemin(empreinte);
+                contenu.append(scenario.replace(';', ',')).append(';')
+                        .append(artefact, 0, separateur).append(';')
+                        .append(empreinte).append(';')
+                        .append(chemin != null ? chemin.toString().replace('\\', '/') : "").append('\n');
+            }
+        });
+        Files.write(fichier, contenu.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
     // Excel sayfalarını oluşturma metodları
 
+    private void createPerformanceSheet(Sheet sheet) {
+        CellStyle headerStyle = createHeaderStyle(sheet.getWorkbook());
+        CellStyle failureStyle = createFailureStyle(sheet.getWorkbook());
+        List<String> metriques = WebVitalsCollector.METRIQUES;
+        int rowNum = 0;
+
+        Row headerRow = sheet.createRow(rowNum++);
+        List<String> colonnes = new ArrayList<>(Arrays.asList("Scénario", "Étape", "Page", "Profil"));
+        metriques.forEach(m -> colonnes.add(m.toUpperCase()));
+        colonnes.add("Budgets dépassés");
+        for (int i = 0; i < colonnes.size(); i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(colonnes.get(i));
+            cell.setCellStyle(headerStyle);
+        }
+        for (WebVitalsCollector.Mesure mesure : mesuresPerformance) {
+            Row row = sheet.createRow(rowNum++);
+            row.createCell(0).setCellValue(mesure.getScenario() != null ? mesure.getScenario() : "");
+            row.createCell(1).setCellValue(mesure.getEtape() != null ? mesure.getEtape() : "");
+            row.createCell(2).setCellValue(mesure.getPage());
+            row.createCell(3).setCellValue(mesure.getProfil());
+            for (int i = 0; i < metriques.size(); i++) {
+                Double valeur = mesure.getValeur(metriques.get(i));
+                if (valeur != null) {
+                    row.createCell(4 + i).setCellValue(valeur);
+                }
+            }
+            Cell depassements = row.createCell(4 + metriques.size());
+            depassements.setCellValue(String.join("\n", mesure.getDepassements()));
+            if (!mesure.getDepassements().isEmpty()) {
+                depassements.setCellStyle(failureStyle);
+            }
+        }
+
+        // Tendance: médianes par page pour les dernières exécutions
+        rowNum++;
+        Row titre = sheet.createRow(rowNum++);
+        titre.createCell(0).setCellValue("Tendance par page (médianes)");
+        titre.getCell(0).setCellStyle(headerStyle);
+        for (Map.Entry<String, Map<String, Map<String, Double>>> page : WebVitalsCollector.getInstance().tendances(10).entrySet()) {
+            for (Map.Entry<String, Map<String, Double>> execution : page.getValue().entrySet()) {
+                Row row = sheet.createRow(rowNum++);
+                row.createCell(0).setCellValue(execution.getKey());
+                row.createCell(2).setCellValue(page.getKey());
+                for (int i = 0; i < metriques.size(); i++) {
+                    Double valeur = execution.getValue().get(metriques.get(i));
+                    if (valeur != null) {
+                        row.createCell(4 + i).setCellValue(valeur);
+                    }
+                }
+            }
+        }
+
+        sheet.setColumnWidth(0, 8000);
+        sheet.setColumnWidth(1, 10000);
+        sheet.setColumnWidth(2, 6000);
+        sheet.setColumnWidth(3, 5000);
+        sheet.setColumnWidth(4 + metriques.size(), 12000);
+    }
+
+    private void createTimeSheet(Sheet sheet, List<String[]> consommateurs) {
+        CellStyle headerStyle = createHeaderStyle(sheet.getWorkbook());
+        String[] colonnes = {"Catégorie", "Source", "Appels", "Total (ms)", "Moyenne (ms)"};
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < colonnes.length; i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(colonnes[i]);
+            cell.setCellStyle(headerStyle);
+        }
+        int rowNum = 1;
+        for (String[] ligne : consommateurs) {
+            Row row = sheet.createRow(rowNum++);
+            row.createCell(0).setCellValue(ligne[0]);
+            row.createCell(1).setCellValue(ligne[1]);
+            for (int i = 2; i < ligne.length; i++) {
+                row.createCell(i).setCellValue(Long.parseLong(ligne[i]));
+            }
+        }
+
+        // Totaux par catégorie, dont la part remote des attentes (déjà incluse dans remote et dans attente)
+        rowNum++;
+        Row totauxHeader = sheet.createRow(rowNum++);
+        String[] colonnesTotaux = {"Catégorie", "Source", "Appels", "Total (ms)"};
+        for (int i = 0; i < colonnesTotaux.length; i++) {
+            Cell cell = totauxHeader.createCell(i);
+            cell.setCellValue(colonnesTotaux[i]);
+            cell.setCellStyle(headerStyle);
+        }
+        for (Map.Entry<String, long[]> total : CommandTimer.totauxParCategorie().entrySet()) {
+            Row row = sheet.createRow(rowNum++);
+            row.createCell(0).setCellValue(total.getKey());
+            row.createCell(1).setCellValue("(toutes)");
+            row.createCell(2).setCellValue(total.getValue()[0]);
+            row.createCell(3).setCellValue(total.getValue()[1]);
+        }
+        sheet.setColumnWidth(0, 4000);
+        sheet.setColumnWidth(1, 12000);
+    }
+
+    private void createAttemptsSheet(Sheet sheet) {
+        CellStyle headerStyle = createHeaderStyle(sheet.getWorkbook());
+        CellStyle successStyle = createSuccessStyle(sheet.getWorkbook());
+        CellStyle failureStyle = createFailureStyle(sheet.getWorkbook());
+        String[] colonnes = {"Scénario", "Tentative", "Statut", "Durée (ms)", "Voie", "Instabilité", "Date"};
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < colonnes.length; i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(colonnes[i]);
+            cell.setCellStyle(headerStyle);
+        }
+        int rowNum = 1;
+        for (String[] tentative : tentatives) {
+            Row row = sheet.createRow(rowNum++);
+            row.createCell(0).setCellValue(tentative[0]);
+            row.createCell(1).setCellValue(Integer.parseInt(tentative[1]));
+            Cell statut = row.createCell(2);
+            statut.setCellValue(tentative[2]);
+            statut.setCellStyle("ECHEC".equals(tentative[2]) ? failureStyle : successStyle);
+            row.createCell(3).setCellValue(Long.parseLong(tentative[3]));
+            row.createCell(4).setCellValue(tentative[4]);
+            row.createCell(5).setCellValue(Double.parseDouble(tentative[5]));
+            row.createCell(6).setCellValue(tentative[6]);
+        }
+        sheet.setColumnWidth(0, 16000);
+        sheet.setColumnWidth(6, 5000);
+    }
+
     private void createSuggestionsSheet(Sheet sheet) {
         CellStyle headerStyle = createHeaderStyle(sheet.getWorkbook());
         int rowNum = 0;
@@ -585,7 +969,7 @@ public class TestManager {
         }
 
         // Benzer başarılı testleri bul
-        List<TestManager> similarSuccessfulTests = findSimilarSuccessfulTests(getStepType(nomEtape));
+        List<TestManager> similarSuccessfulTests = findSimilarSuccessfulTests(getStepType(getNomEtape()));
         if (!similarSuccessfulTests.isEmpty()) {
             analysis.append("\nExemples de tests réussis similaires:\n");
             similarSuccessfulTests.forEach(t ->
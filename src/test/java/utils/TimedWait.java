@@ -0,0 +1,20 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+// WebDriverWait dont le temps passé dans until() est attribué aux attentes (CommandTimer)
+public class TimedWait extends WebDriverWait {
+
+    public TimedWait(WebDriver driver, Duration timeout) {
+        super(driver, timeout);
+    }
+
+    @Override
+    public <V> V until(Function<? super WebDriver, V> isTrue) {
+        return CommandTimer.mesurerAttente(() -> super.until(isTrue));
+    }
+}
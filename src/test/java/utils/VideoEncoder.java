@@ -0,0 +1,153 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Encode les images reçues en MP4 via ffmpeg (image2pipe) sur un thread dédié.
+// Les images sont dupliquées d'après leur horodatage pour obtenir une cadence fixe.
+public class VideoEncoder implements FrameSink {
+    private static final String FFMPEG_COMMAND = ConfigReader.getProperty("video.ffmpeg", "ffmpeg");
+    private static final byte[][] FIN = new byte[0][];
+
+    private final File fichier;
+    private final int fps;
+    private final BlockingQueue<Object[]> file;
+    private final Thread encodeur;
+
+    private Process ffmpeg;
+    private OutputStream entree;
+    private byte[] derniere;
+    private long origineNs = -1;
+    private long imagesEcrites;
+    private volatile boolean enErreur;
+
+    public VideoEncoder(File fichier, int fps) {
+        this.fichier = fichier;
+        this.fps = fps;
+        this.file = new ArrayBlockingQueue<>(Math.max(8, fps * 4));
+        this.encodeur = new Thread(this::boucle, "encodeur-video-" + fichier.getName());
+        this.encodeur.setDaemon(true);
+        this.encodeur.start();
+    }
+
+    public File getFichier() {
+        return fichier;
+    }
+
+    @Override
+    public void accept(byte[] image, long horodatageNs) {
+        if (enErreur) return;
+        Object[] element = {image, horodatageNs};
+        // File pleine: on sacrifie l'image la plus ancienne plutôt que de bloquer le test
+        while (!file.offer(element)) {
+            file.poll();
+        }
+    }
+
+    // Encodage différé (images déjà en mémoire): on attend l'encodeur au lieu d'abandonner des images,
+    // tant qu'il est vivant (ffmpeg absent ou en erreur: le thread s'arrête et plus rien ne vide la file)
+    public void ajouter(byte[] image, long horodatageNs) {
+        deposer(new Object[]{image, horodatageNs}, Long.MAX_VALUE);
+    }
+
+    @Override
+    public void close() {
+        fermer(System.nanoTime());
+    }
+
+    // Termine la vidéo à l'instant donné (la dernière image est prolongée jusque-là)
+    public void fermer(long finNs) {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        if (!deposer(new Object[]{FIN, finNs}, limite)) return;
+        try {
+            encodeur.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(limite - System.nanoTime())));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Dépôt bloquant par tranches: abandonne si l'encodeur est en erreur ou arrêté, ou à la limite
+    private boolean deposer(Object[] element, long limiteNs) {
+        try {
+            while (!enErreur && encodeur.isAlive() && System.nanoTime() - limiteNs < 0) {
+                if (file.offer(element, 200, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private void boucle() {
+        try {
+            while (true) {
+                Object[] element = file.take();
+                if (element[0] == FIN) {
+                    terminer((Long) element[1]);
+                    break;
+                }
+                ecrire((byte[]) element[0], (Long) element[1]);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            enErreur = true;
+            System.err.println("⚠️ Erreur d'encodage vidéo (" + fichier.getName() + "): " + e.getMessage());
+            if (ffmpeg != null) ffmpeg.destroyForcibly();
+        }
+    }
+
+    private void ecrire(byte[] image, long horodatageNs) throws IOException {
+        if (ffmpeg == null) {
+            demarrer();
+            origineNs = horodatageNs;
+        }
+        // Répète l'image précédente jusqu'à l'instant de la nouvelle
+        long cible = (horodatageNs - origineNs) * fps / 1_000_000_000L;
+        while (derniere != null && imagesEcrites < cible) {
+            entree.write(derniere);
+            imagesEcrites++;
+        }
+        derniere = image;
+    }
+
+    private void terminer(long finNs) throws IOException, InterruptedException {
+        if (ffmpeg == null) return;
+        ecrire(derniere, Math.max(finNs, origineNs));
+        entree.write(derniere);
+        entree.close();
+        if (ffmpeg.waitFor(30, TimeUnit.SECONDS)) {
+            System.out.println("📹 Vidéo enregistrée: " + fichier.getPath());
+        } else {
+            System.out.println("⚠️ ffmpeg n'a pas terminé dans le délai imparti: " + fichier.getPath());
+            ffmpeg.destroyForcibly();
+        }
+    }
+
+    private void demarrer() throws IOException {
+        File parent = fichier.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        ProcessBuilder builder = new ProcessBuilder(
+                FFMPEG_COMMAND,
+                "-loglevel", "error",
+                "-f", "image2pipe",
+                "-framerate", String.valueOf(fps),
+                "-i", "-",
+                "-vf", "scale=trunc(iw/2)*2:trunc(ih/2)*2",
+                "-vcodec", "libx264",
+                "-preset", "ultrafast",
+                "-pix_fmt", "yuv420p",
+                "-y",
+                fichier.getPath());
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        ffmpeg = builder.start();
+        entree = ffmpeg.getOutputStream();
+    }
+}
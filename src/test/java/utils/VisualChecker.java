@@ -0,0 +1,352 @@
+package utils;
+
+import javax.imageio.ImageIO;
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Régression visuelle: références par cible (site réel ou faux site local), plateforme, page et viewport.
+// Une référence absente fait échouer la vérification; seul visual.updateBaselines=true les (ré)enregistre.
+// 1) empreinte perceptuelle (dHash 64 bits) par région d'une grille, comparée à celle de la référence
+// 2) diff pixel uniquement sur les tuiles des régions dont l'empreinte diffère, réparti sur un ForkJoinPool
+// Un dHash global unique laisse passer un libellé modifié; par région, le pré-filtre reste sensible.
+public class VisualChecker {
+    private final Path dossierReferences;
+    private final boolean miseAJour;
+    private final int grille;
+    private final int seuilHash;
+    private final int toleranceCanal;
+    private final int tailleTuile;
+    private final double ratioMax;
+    private final ForkJoinPool pool;
+
+    // Les références ne sont décodées qu'une fois par exécution
+    private final Map<Path, Reference> references = new ConcurrentHashMap<>();
+
+    private static class Holder {
+        private static final VisualChecker INSTANCE = new VisualChecker();
+    }
+
+    public static VisualChecker getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Reference {
+        final int largeur;
+        final int hauteur;
+        final int[] pixels;
+        final long[] hash;
+
+        Reference(BufferedImage image, long[] hash) {
+            this.largeur = image.getWidth();
+            this.hauteur = image.getHeight();
+            this.pixels = image.getRGB(0, 0, largeur, hauteur, null, 0, largeur);
+            this.hash = hash;
+        }
+    }
+
+    public static class Resultat {
+        private final boolean conforme;
+        private final boolean nouvelleReference;
+        private final int distanceHash;
+        private final double ratioDifference;
+        private final int tuilesDifferentes;
+        private final byte[] imageDiff;
+        // Renseignées seulement si la capture n'a pas la taille de la référence (aucune comparaison possible)
+        private final String tailleReference;
+        private final String tailleCapture;
+        // Renseigné seulement si aucune référence n'existe pour cette page
+        private final Path referenceAbsente;
+
+        Resultat(boolean conforme, boolean nouvelleReference, int distanceHash, double ratioDifference,
+                 int tuilesDifferentes, byte[] imageDiff) {
+            this(conforme, nouvelleReference, distanceHash, ratioDifference, tuilesDifferentes, imageDiff, null, null, null);
+        }
+
+        private Resultat(boolean conforme, boolean nouvelleReference, int distanceHash, double ratioDifference,
+                         int tuilesDifferentes, byte[] imageDiff, String tailleReference, String tailleCapture,
+                         Path referenceAbsente) {
+            this.conforme = conforme;
+            this.nouvelleReference = nouvelleReference;
+            this.distanceHash = distanceHash;
+            this.ratioDifference = ratioDifference;
+            this.tuilesDifferentes = tuilesDifferentes;
+            this.imageDiff = imageDiff;
+            this.tailleReference = tailleReference;
+            this.tailleCapture = tailleCapture;
+            this.referenceAbsente = referenceAbsente;
+        }
+
+        public boolean isConforme() {
+            return conforme;
+        }
+
+        public boolean isNouvelleReference() {
+            return nouvelleReference;
+        }
+
+        public int getDistanceHash() {
+            return distanceHash;
+        }
+
+        public double getRatioDifference() {
+            return ratioDifference;
+        }
+
+        public int getTuilesDifferentes() {
+            return tuilesDifferentes;
+        }
+
+        public byte[] getImageDiff() {
+            return imageDiff;
+        }
+
+        public boolean isTailleDifferente() {
+            return tailleReference != null;
+        }
+
+        public boolean isReferenceAbsente() {
+            return referenceAbsente != null;
+        }
+
+        static Resultat tailleDifferente(int largeurReference, int hauteurReference, int largeurCapture, int hauteurCapture) {
+            return new Resultat(false, false, 0, 0, 0, null,
+                    largeurReference + "x" + hauteurReference, largeurCapture + "x" + hauteurCapture, null);
+        }
+
+        static Resultat referenceAbsente(Path fichier) {
+            return new Resultat(false, false, 0, 0, 0, null, null, null, fichier);
+        }
+
+        @Override
+        public String toString() {
+            if (isReferenceAbsente()) {
+                return "référence absente (" + referenceAbsente + "), à enregistrer avec visual.updateBaselines=true";
+            }
+            if (isTailleDifferente()) {
+                return "taille différente: référence " + tailleReference + ", capture " + tailleCapture;
+            }
+            return String.format("distance hash %d, %.3f%% de pixels différents, %d tuile(s)",
+                    distanceHash, ratioDifference * 100, tuilesDifferentes);
+        }
+    }
+
+    private VisualChecker() {
+        dossierReferences = Paths.get(ConfigReader.getProperty("visual.baselineDir", "src/test/resources/visual-baselines"));
+        miseAJour = Boolean.parseBoolean(ConfigReader.getProperty("visual.updateBaselines", "false"));
+        grille = Integer.parseInt(ConfigReader.getProperty("visual.hashGrid", "8"));
+        seuilHash = Integer.parseInt(ConfigReader.getProperty("visual.hashThreshold", "0"));
+        toleranceCanal = Integer.parseInt(ConfigReader.getProperty("visual.pixelTolerance", "16"));
+        tailleTuile = Integer.parseInt(ConfigReader.getProperty("visual.tileSize", "32"));
+        ratioMax = Double.parseDouble(ConfigReader.getProperty("visual.maxDiffRatio", "0.001"));
+        pool = new ForkJoinPool(Integer.parseInt(ConfigReader.getProperty("visual.parallelism",
+                String.valueOf(Runtime.getRuntime().availableProcessors()))));
+    }
+
+    public Resultat comparer(String page, byte[] capture) {
+        BufferedImage image = decoder(capture);
+        // Le viewport est déduit de la capture: aucun appel supplémentaire au driver
+        String viewport = image.getWidth() + "x" + image.getHeight();
+        // Le faux site local et www.planity.com n'affichent pas la même chose: une référence par cible
+        Path fichier = dossierReferences.resolve(FakePlanityServer.isActive() ? "fixture" : "live")
+                .resolve(String.valueOf(OS.courant()).toLowerCase())
+                .resolve(page + "_" + viewport + ".png");
+        if (!miseAJour && !Files.exists(fichier)) {
+            return Resultat.referenceAbsente(fichier);
+        }
+        long[] hash = dHash(image);
+
+        if (miseAJour) {
+            enregistrerReference(fichier, capture);
+            references.put(fichier, new Reference(image, hash));
+            System.out.println("🖼️ Nouvelle référence visuelle: " + fichier);
+            return new Resultat(true, true, 0, 0, 0, null);
+        }
+
+        Reference reference = references.computeIfAbsent(fichier, f -> {
+            try {
+                BufferedImage ref = decoder(Files.readAllBytes(f));
+                return new Reference(ref, dHash(ref));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        if (reference.largeur != image.getWidth() || reference.hauteur != image.getHeight()) {
+            return Resultat.tailleDifferente(reference.largeur, reference.hauteur, image.getWidth(), image.getHeight());
+        }
+        int distance = 0;
+        boolean[] regionsModifiees = new boolean[hash.length];
+        boolean modifie = false;
+        for (int r = 0; r < hash.length; r++) {
+            int d = Long.bitCount(hash[r] ^ reference.hash[r]);
+            distance += d;
+            regionsModifiees[r] = d > seuilHash;
+            modifie |= regionsModifiees[r];
+        }
+        if (!modifie) {
+            return new Resultat(true, false, distance, 0, 0, null);
+        }
+        return diffParTuiles(image, reference, distance, regionsModifiees);
+    }
+
+    private Resultat diffParTuiles(BufferedImage image, Reference reference, int distance, boolean[] regionsModifiees) {
+        int largeur = reference.largeur;
+        int hauteur = reference.hauteur;
+        int[] pixels = image.getRGB(0, 0, largeur, hauteur, null, 0, largeur);
+        int colonnes = (largeur + tailleTuile - 1) / tailleTuile;
+        int lignes = (hauteur + tailleTuile - 1) / tailleTuile;
+        // Seules les tuiles qui recoupent une région à l'empreinte modifiée sont comparées
+        int[] candidates = IntStream.range(0, colonnes * lignes)
+                .filter(t -> recoupe(regionsModifiees, largeur, hauteur,
+                        (t % colonnes) * tailleTuile, (t / colonnes) * tailleTuile))
+                .toArray();
+
+        long[] differences = new long[colonnes * lignes];
+        try {
+            long[] comptes = pool.submit(() -> IntStream.of(candidates).parallel()
+                    .mapToLong(t -> compterTuile(pixels, reference.pixels, largeur, hauteur,
+                            (t % colonnes) * tailleTuile, (t / colonnes) * tailleTuile))
+                    .toArray()).get();
+            for (int i = 0; i < candidates.length; i++) {
+                differences[candidates[i]] = comptes[i];
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Comparaison visuelle interrompue", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erreur de comparaison visuelle: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        List<Integer> tuiles = IntStream.range(0, differences.length).filter(t -> differences[t] > 0)
+                .boxed().collect(Collectors.toList());
+        long total = 0;
+        for (long d : differences) total += d;
+        double ratio = (double) total / ((long) largeur * hauteur);
+        boolean conforme = ratio <= ratioMax;
+        byte[] diff = tuiles.isEmpty() ? null : dessinerDiff(image, tuiles, colonnes);
+        return new Resultat(conforme, false, distance, ratio, tuiles.size(), diff);
+    }
+
+    private boolean recoupe(boolean[] regionsModifiees, int largeur, int hauteur, int x0, int y0) {
+        int x1 = Math.min(x0 + tailleTuile, largeur) - 1;
+        int y1 = Math.min(y0 + tailleTuile, hauteur) - 1;
+        for (int gy = y0 * grille / hauteur; gy <= y1 * grille / hauteur; gy++) {
+            for (int gx = x0 * grille / largeur; gx <= x1 * grille / largeur; gx++) {
+                if (regionsModifiees[gy * grille + gx]) return true;
+            }
+        }
+        return false;
+    }
+
+    private long compterTuile(int[] a, int[] b, int largeur, int hauteur, int x0, int y0) {
+        int x1 = Math.min(x0 + tailleTuile, largeur);
+        int y1 = Math.min(y0 + tailleTuile, hauteur);
+        long compte = 0;
+        for (int y = y0; y < y1; y++) {
+            int ligne = y * largeur;
+            for (int x = x0; x < x1; x++) {
+                int p = a[ligne + x];
+                int q = b[ligne + x];
+                if (p == q) continue;
+                if (Math.abs(((p >> 16) & 0xFF) - ((q >> 16) & 0xFF)) > toleranceCanal
+                        || Math.abs(((p >> 8) & 0xFF) - ((q >> 8) & 0xFF)) > toleranceCanal
+                        || Math.abs((p & 0xFF) - (q & 0xFF)) > toleranceCanal) {
+                    compte++;
+                }
+            }
+        }
+        return compte;
+    }
+
+    private byte[] dessinerDiff(BufferedImage image, List<Integer> tuiles, int colonnes) {
+        BufferedImage diff = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = diff.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.setStroke(new BasicStroke(2));
+        for (int t : tuiles) {
+            int x = (t % colonnes) * tailleTuile;
+            int y = (t / colonnes) * tailleTuile;
+            g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.35f));
+            g.setColor(Color.RED);
+            g.fillRect(x, y, tailleTuile, tailleTuile);
+            g.setComposite(AlphaComposite.SrcOver);
+            g.drawRect(x, y, tailleTuile, tailleTuile);
+        }
+        g.dispose();
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(diff, "png", sortie);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sortie.toByteArray();
+    }
+
+    // Un dHash 64 bits par région (grille x grille): région réduite en 9x8 niveaux de gris,
+    // un bit par comparaison de voisins horizontaux
+    long[] dHash(BufferedImage image) {
+        long[] hash = new long[grille * grille];
+        BufferedImage reduite = new BufferedImage(9, 8, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = reduite.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        for (int gy = 0; gy < grille; gy++) {
+            for (int gx = 0; gx < grille; gx++) {
+                int x0 = gx * image.getWidth() / grille;
+                int y0 = gy * image.getHeight() / grille;
+                int x1 = (gx + 1) * image.getWidth() / grille;
+                int y1 = (gy + 1) * image.getHeight() / grille;
+                g.drawImage(image, 0, 0, 9, 8, x0, y0, Math.max(x1, x0 + 1), Math.max(y1, y0 + 1), null);
+                long bits = 0;
+                for (int y = 0, n = 0; y < 8; y++) {
+                    for (int x = 0; x < 8; x++, n++) {
+                        if (reduite.getRaster().getSample(x, y, 0) < reduite.getRaster().getSample(x + 1, y, 0)) {
+                            bits |= 1L << n;
+                        }
+                    }
+                }
+                hash[gy * grille + gx] = bits;
+            }
+        }
+        g.dispose();
+        return hash;
+    }
+
+    private static BufferedImage decoder(byte[] png) {
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+            if (image == null) {
+                throw new IllegalArgumentException("Capture illisible pour la comparaison visuelle");
+            }
+            return image;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void enregistrerReference(Path fichier, byte[] capture) {
+        try {
+            Files.createDirectories(fichier.getParent());
+            Files.write(fichier, capture);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+// Core Web Vitals par étape: Navigation Timing, LCP, CLS, INP, TBT et TTFB mesurés dans la page
+// par des PerformanceObserver injectés avant tout script du site (Page.addScriptToEvaluateOnNewDocument).
+// Métriques de chargement: seulement à l'étape qui a changé de document. CLS, INP et TBT: depuis la mesure précédente.
+public class WebVitalsCollector {
+    public static final List<String> METRIQUES = Arrays.asList("ttfb", "fcp", "lcp", "cls", "inp", "tbt", "dcl", "load");
+    private static final List<String> CHARGEMENT = Arrays.asList("ttfb", "fcp", "lcp", "dcl", "load");
+
+    private static final String OBSERVATEURS =
+            "(function(){if(window.__planityVitals)return;" +
+            "var v=window.__planityVitals={lcp:0,cls:0,inp:0,tbt:0};" +
+            "function o(t,f,p){try{new PerformanceObserver(function(l){l.getEntries().forEach(f);})" +
+            ".observe(Object.assign({type:t,buffered:true},p||{}));}catch(e){}}" +
+            "o('largest-contentful-paint',function(e){v.lcp=e.startTime;});" +
+            "o('layout-shift',function(e){if(!e.hadRecentInput)v.cls+=e.value;});" +
+            "o('longtask',function(e){v.tbt+=Math.max(0,e.duration-50);});" +
+            "o('event',function(e){if(e.interactionId)v.inp=Math.max(v.inp,e.duration);},{durationThreshold:16});" +
+            "})();";
+
+    // Les cumuls CLS/INP/TBT sont remis à zéro à chaque lecture: chaque étape n'a que les siens
+    private static final String LECTURE =
+            "var n=performance.getEntriesByType('navigation')[0];" +
+            "var p=performance.getEntriesByName('first-contentful-paint')[0];" +
+            "var v=window.__planityVitals;" +
+            "var r={page:location.pathname,url:location.href,instrumente:!!v,origine:performance.timeOrigin," +
+            "ttfb:n?n.responseStart:null,dcl:n?n.domContentLoadedEventEnd:null,load:n?n.loadEventEnd:null," +
+            "fcp:p?p.startTime:null,lcp:v?v.lcp:null,cls:v?v.cls:null,inp:v?v.inp:null,tbt:v?v.tbt:null};" +
+            "if(v){v.cls=0;v.inp=0;v.tbt=0;}return r;";
+
+    private static final String EXECUTION = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+
+    private final boolean actif;
+    private final boolean bloquant;
+    // Budgets par profil d'émulation ("" = sans bridage): perf.budget.<profil>.<métrique> surcharge perf.budget.<métrique>
+    private final Map<String, Map<String, Double>> budgets = new java.util.concurrent.ConcurrentHashMap<>();
+    private final Path historique;
+    private final ReentrantLock ecriture = new ReentrantLock();
+    // Session -> performance.timeOrigin du dernier document mesuré
+    private final Map<WebDriver, Double> documents = new java.util.concurrent.ConcurrentHashMap<>();
+
+    private static class Holder {
+        private static final WebVitalsCollector INSTANCE = new WebVitalsCollector();
+    }
+
+    public static WebVitalsCollector getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public static class Mesure {
+        private final String execution;
+        private final String scenario;
+        private final String etape;
+        private final String page;
+        private final String profil;
+        private final Map<String, Double> valeurs;
+        private final List<String> depassements;
+
+        Mesure(String execution, String scenario, String etape, String page, String profil,
+               Map<String, Double> valeurs, List<String> depassements) {
+            this.execution = execution;
+            this.scenario = scenario;
+            this.etape = etape;
+            this.page = page;
+            this.profil = profil;
+            this.valeurs = valeurs;
+            this.depassements = depassements;
+        }
+
+        public String getExecution() {
+            return execution;
+        }
+
+        public String getScenario() {
+            return scenario;
+        }
+
+        public String getEtape() {
+            return etape;
+        }
+
+        public String getPage() {
+            return page;
+        }
+
+        // Profil d'émulation réseau/CPU de la session ("" = sans bridage)
+        public String getProfil() {
+            return profil;
+        }
+
+        public Double getValeur(String metrique) {
+            return valeurs.get(metrique);
+        }
+
+        public List<String> getDepassements() {
+            return depassements;
+        }
+
+        public String resume() {
+            return (profil.isEmpty() ? "" : "[" + profil + "] ") + valeurs.entrySet().stream()
+                    .map(e -> e.getKey().toUpperCase() + "=" + formater(e.getKey(), e.getValue()))
+                    .collect(Collectors.joining(" "));
+        }
+    }
+
+    private WebVitalsCollector() {
+        actif = Boolean.parseBoolean(ConfigReader.getProperty("perf.enabled", "true"));
+        bloquant = "fail".equalsIgnoreCase(ConfigReader.getProperty("perf.budget.mode", "warn"));
+        // Hors de target/: la tendance par page doit survivre à mvn clean
+        historique = Paths.get(ConfigReader.getProperty("perf.historyFile", "historique/web-vitals.csv"));
+    }
+
+    public boolean isActif() {
+        return actif && OS.isWeb();
+    }
+
+    public boolean isBloquant() {
+        return bloquant;
+    }
+
+    // À appeler juste après la création de la session: les observateurs existeront dès le premier octet de chaque page
+    public void installer(WebDriver driver) {
+        if (!isActif()) return;
+        DevToolsSupport.ouvrir(driver).ifPresent(devTools ->
+                DevToolsSupport.envoyer(devTools, "Page.addScriptToEvaluateOnNewDocument", Map.of("source", OBSERVATEURS)));
+    }
+
+    public Mesure mesurer(WebDriver driver, String scenario, String etape) {
+        if (!isActif() || !(driver instanceof JavascriptExecutor)) return null;
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        @SuppressWarnings("unchecked")
+        Map<String, Object> brut = (Map<String, Object>) js.executeScript(LECTURE);
+        if (brut == null) return null;
+        // L'URL arrive avec les métriques: l'étape n'a pas besoin d'un getCurrentUrl supplémentaire
+        CommandTimer.noterUrl((String) brut.get("url"));
+        if (!Boolean.TRUE.equals(brut.get("instrumente"))) {
+            // Sans DevTools: observateurs injectés à la volée, les métriques de page arrivent à l'étape suivante
+            js.executeScript(OBSERVATEURS);
+        }
+
+        // Même document qu'à l'étape précédente: son chargement a déjà été compté (et son budget contrôlé)
+        Object origine = brut.get("origine");
+        boolean nouveauDocument = !(origine instanceof Number)
+                || !Objects.equals(documents.put(driver, ((Number) origine).doubleValue()), ((Number) origine).doubleValue());
+        Map<String, Double> valeurs = new LinkedHashMap<>();
+        for (String metrique : METRIQUES) {
+            Object valeur = brut.get(metrique);
+            if (!(valeur instanceof Number)) continue;
+            boolean chargement = CHARGEMENT.contains(metrique);
+            // 0: chargement pas encore terminé au moment de la lecture
+            if (chargement && (!nouveauDocument || ((Number) valeur).doubleValue() <= 0)) continue;
+            valeurs.put(metrique, ((Number) valeur).doubleValue());
+        }
+        String profil = EmulationProfile.libelle(driver);
+        List<String> depassements = new ArrayList<>();
+        budgets.computeIfAbsent(profil, WebVitalsCollector::chargerBudgets).forEach((metrique, budget) -> {
+            Double valeur = valeurs.get(metrique);
+            if (valeur != null && valeur > budget) {
+                depassements.add(metrique.toUpperCase() + " " + formater(metrique, valeur)
+                        + " > budget " + formater(metrique, budget));
+            }
+        });
+
+        Mesure mesure = new Mesure(EXECUTION, scenario, etape, String.valueOf(brut.get("page")),
+                profil, valeurs, depassements);
+        ArtifactPipeline.getInstance().soumettre("web vitals", () -> historiser(mesure));
+        return mesure;
+    }
+
+    public void oublier(WebDriver driver) {
+        if (driver != null) {
+            documents.remove(driver);
+        }
+    }
+
+    private static Map<String, Double> chargerBudgets(String profil) {
+        Map<String, Double> resultat = new LinkedHashMap<>();
+        for (String metrique : METRIQUES) {
+            String budget = ConfigReader.getProperty("perf.budget." + metrique, "");
+            if (!profil.isEmpty()) {
+                budget = ConfigReader.getProperty("perf.budget." + profil + "." + metrique, budget);
+            }
+            if (!budget.isEmpty()) {
+                resultat.put(metrique, Double.parseDouble(budget));
+            }
+        }
+        return resultat;
+    }
+
+    private static String formater(String metrique, Double valeur) {
+        return "cls".equals(metrique) ? String.format(Locale.ROOT, "%.3f", valeur) : Math.round(valeur) + "ms";
+    }
+
+    // Une ligne par mesure et par exécution, pour suivre l'évolution d'une exécution à l'autre
+    private void historiser(Mesure mesure) {
+        ecriture.lock();
+        try {
+            boolean nouveau = !Files.exists(historique);
+            if (nouveau && historique.getParent() != null) {
+                Files.createDirectories(historique.getParent());
+            }
+            StringBuilder ligne = new StringBuilder();
+            if (nouveau) {
+                ligne.append("execution;profil;page;etape;").append(String.join(";", METRIQUES)).append('\n');
+            }
+            ligne.append(mesure.execution).append(';').append(mesure.profil).append(';').append(mesure.page).append(';')
+                    .append(mesure.etape == null ? "" : mesure.etape.replace(';', ','));
+            for (String metrique : METRIQUES) {
+                Double valeur = mesure.valeurs.get(metrique);
+                ligne.append(';').append(valeur == null ? "" : String.format(Locale.ROOT, "%.3f", valeur));
+            }
+            ligne.append('\n');
+            Files.write(historique, ligne.toString().getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("⚠️ Historique Web Vitals non écrit: " + e.getMessage());
+        } finally {
+            ecriture.unlock();
+        }
+    }
+
+    // Tendance par page et profil: médiane de chaque métrique pour les dernières exécutions
+    // ("page [profil]" -> exécution -> valeurs); un même parcours bridé ou non n'est jamais mélangé
+    public Map<String, Map<String, Map<String, Double>>> tendances(int executions) {
+        Map<String, Map<String, Map<String, List<Double>>>> brut = new TreeMap<>();
+        ecriture.lock();
+        try {
+            if (!Files.exists(historique)) return Collections.emptyMap();
+            List<String> lignes = Files.readAllLines(historique, StandardCharsets.UTF_8);
+            for (String ligne : lignes.subList(1, lignes.size())) {
+                String[] champs = ligne.split(";", -1);
+                if (champs.length < 4 + METRIQUES.size()) continue;
+                String cle = champs[1].isEmpty() ? champs[2] : champs[2] + " [" + champs[1] + "]";
+                Map<String, List<Double>> parMetrique = brut.computeIfAbsent(cle, k -> new TreeMap<>())
+                        .computeIfAbsent(champs[0], k -> new LinkedHashMap<>());
+                for (int i = 0; i < METRIQUES.size(); i++) {
+                    if (!champs[4 + i].isEmpty()) {
+                        parMetrique.computeIfAbsent(METRIQUES.get(i), k -> new ArrayList<>()).add(Double.parseDouble(champs[4 + i]));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️ Historique Web Vitals illisible: " + e.getMessage());
+            return Collections.emptyMap();
+        } finally {
+            ecriture.unlock();
+        }
+
+        Map<String, Map<String, Map<String, Double>>> resultat = new TreeMap<>();
+        brut.forEach((page, parExecution) -> {
+            List<String> dernieres = new ArrayList<>(parExecution.keySet());
+            dernieres = dernieres.subList(Math.max(0, dernieres.size() - executions), dernieres.size());
+            Map<String, Map<String, Double>> medianes = new LinkedHashMap<>();
+            for (String execution : dernieres) {
+                Map<String, Double> valeurs = new LinkedHashMap<>();
+                parExecution.get(execution).forEach((metrique, liste) -> valeurs.put(metrique, mediane(liste)));
+                medianes.put(execution, valeurs);
+            }
+            resultat.put(page, medianes);
+        });
+        return resultat;
+    }
+
+    private static double mediane(List<Double> valeurs) {
+        List<Double> triees = new ArrayList<>(valeurs);
+        Collections.sort(triees);
+        int milieu = triees.size() / 2;
+        return triees.size() % 2 == 1 ? triees.get(milieu) : (triees.get(milieu - 1) + triees.get(milieu)) / 2;
+    }
+}